@@ -0,0 +1,35 @@
+package com.ai.recruitmentai.config;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+// at most one QUEUED or RUNNING match run per job, enforced by the database so two nodes (or two requests) cannot both start one;
+// Hibernate's schema update cannot express a partial unique index, so it is created here
+@Component
+public class ActiveMatchRunIndexInitializer {
+
+    private static final Logger log = LoggerFactory.getLogger(ActiveMatchRunIndexInitializer.class);
+    private static final String INDEX_NAME = "match_run_one_active_per_job";
+    private final JdbcTemplate jdbcTemplate;
+
+    // depending on the EntityManagerFactory makes this run after Hibernate has created or updated the schema
+    public ActiveMatchRunIndexInitializer(JdbcTemplate jdbcTemplate, EntityManagerFactory entityManagerFactory) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @PostConstruct
+    public void createIndex() {
+        try {
+            jdbcTemplate.execute("create unique index if not exists " + INDEX_NAME
+                    + " on match_run (job_description_id) where status in ('QUEUED', 'RUNNING')");
+        } catch (DataAccessException e) {
+            // only possible while duplicate active runs from before the index are still around; the next start retries
+            log.warn("could not create unique index {} on active match runs: {}", INDEX_NAME, e.getMessage());
+        }
+    }
+}
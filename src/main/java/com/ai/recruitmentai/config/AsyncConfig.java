@@ -2,6 +2,7 @@ package com.ai.recruitmentai.config;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.scheduling.annotation.AsyncConfigurer;
@@ -9,23 +10,83 @@ import org.springframework.scheduling.annotation.EnableAsync;
 import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 
 import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadPoolExecutor;
 
 @Configuration
 @EnableAsync
 public class AsyncConfig {
 
     private static final Logger log = LoggerFactory.getLogger(AsyncConfig.class);
-    public static final String CV_PARSING_EXECUTOR_BEAN_NAME = "cvParsingExecutor";
-    @Bean(name = CV_PARSING_EXECUTOR_BEAN_NAME)
-    public Executor cvParsingExecutor() {
+    public static final String CV_TEXT_EXECUTOR_BEAN_NAME = "cvTextExtractionExecutor";
+    public static final String CV_LLM_EXECUTOR_BEAN_NAME = "cvLlmExtractionExecutor";
+    // first parsing stage, PDF text extraction: CPU bound, so sized to the cores; the queue holds every admitted CV so a hand-off is never rejected
+    @Bean(name = CV_TEXT_EXECUTOR_BEAN_NAME)
+    public Executor cvTextExtractionExecutor(@Value("${app.parsing.text-threads:0}") int textThreads,
+                                             @Value("${app.parsing.pipeline.capacity:32}") int capacity) {
+        int poolSize = textThreads > 0 ? textThreads : Runtime.getRuntime().availableProcessors();
+        log.info("configuring CV Text Extraction Executor with Pool Size: {}", poolSize);
+        return stageExecutor(poolSize, capacity, "CVText-");
+    }
+    // second parsing stage, LLM extraction: threads mostly wait on Ollama, which the client-side limiter caps anyway
+    @Bean(name = CV_LLM_EXECUTOR_BEAN_NAME)
+    public Executor cvLlmExtractionExecutor(@Value("${app.parsing.llm-threads:4}") int llmThreads,
+                                            @Value("${app.parsing.pipeline.capacity:32}") int capacity) {
+        log.info("configuring CV LLM Extraction Executor with Pool Size: {}", llmThreads);
+        return stageExecutor(llmThreads, capacity, "CVLlm-");
+    }
+    private static Executor stageExecutor(int poolSize, int queueCapacity, String threadNamePrefix) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(poolSize);
+        executor.setMaxPoolSize(poolSize);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix(threadNamePrefix);
+        executor.initialize();
+        return executor;
+    }
+    public static final String INDEX_EXECUTOR_BEAN_NAME = "indexMaintenanceExecutor";
+    @Bean(name = INDEX_EXECUTOR_BEAN_NAME)
+    public Executor indexMaintenanceExecutor() {
         ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
-        int corePoolSize = 4;
-        log.info("configuring CV Parsing Executor with Core Pool Size: {}", corePoolSize);
-        executor.setCorePoolSize(corePoolSize);
-        executor.setMaxPoolSize(corePoolSize);
-        executor.setQueueCapacity(200);
-        executor.setThreadNamePrefix("CVParsing-");
+        executor.setCorePoolSize(1);
+        executor.setMaxPoolSize(1);
+        executor.setQueueCapacity(10);
+        executor.setThreadNamePrefix("IndexMaintenance-");
         executor.initialize();
         return executor;
     }
-}
\ No newline at end of file
+    public static final String MATCHING_EXECUTOR_BEAN_NAME = "matchingExecutor";
+    // a full queue makes the submitting thread run the match itself, which throttles fan-out instead of rejecting it
+    @Bean(name = MATCHING_EXECUTOR_BEAN_NAME)
+    public Executor matchingExecutor(@Value("${app.matching.parallelism:4}") int parallelism) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        log.info("configuring Matching Executor with Pool Size: {}", parallelism);
+        executor.setCorePoolSize(parallelism);
+        executor.setMaxPoolSize(parallelism);
+        executor.setQueueCapacity(parallelism * 2);
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.setThreadNamePrefix("Matching-");
+        executor.initialize();
+        return executor;
+    }
+    public static final String MATCH_RUN_EXECUTOR_BEAN_NAME = "matchRunExecutor";
+    // each match run only coordinates; the LLM work itself fans out over the matching executor
+    @Bean(name = MATCH_RUN_EXECUTOR_BEAN_NAME)
+    public Executor matchRunExecutor(@Value("${app.match-runs.max-concurrent:2}") int maxConcurrent,
+                                     @Value("${app.match-runs.max-queued:20}") int maxQueued) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(maxConcurrent);
+        executor.setMaxPoolSize(maxConcurrent);
+        executor.setQueueCapacity(maxQueued);
+        executor.setThreadNamePrefix("MatchRun-");
+        executor.initialize();
+        return executor;
+    }
+    public static final String MATCH_CHUNK_EXECUTOR_BEAN_NAME = "matchChunkExecutor";
+    // cluster mode only: runs the match chunks this node claimed; the worker never claims more than it has threads for
+    @Bean(name = MATCH_CHUNK_EXECUTOR_BEAN_NAME)
+    public Executor matchChunkExecutor(@Value("${app.cluster.match-chunks-per-node:2}") int chunksPerNode) {
+        int poolSize = Math.max(1, chunksPerNode);
+        log.info("configuring Match Chunk Executor with Pool Size: {}", poolSize);
+        return stageExecutor(poolSize, poolSize, "MatchChunk-");
+    }
+}
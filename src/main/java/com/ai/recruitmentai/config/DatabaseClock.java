@@ -0,0 +1,23 @@
+package com.ai.recruitmentai.config;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+
+// lease deadlines are written by one node and checked by another, so they come from the database's clock instead of each JVM's;
+// they are kept in UTC so nodes in different time zones agree too. Only lease and due times use it, display timestamps stay node-local
+@Component
+public class DatabaseClock {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public DatabaseClock(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    // inside a transaction this is the transaction's start time, as with every current_timestamp read
+    public LocalDateTime now() {
+        return jdbcTemplate.queryForObject("select cast(current_timestamp at time zone 'UTC' as timestamp)", LocalDateTime.class);
+    }
+}
@@ -0,0 +1,42 @@
+package com.ai.recruitmentai.config;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+// tables created while IDs were IDENTITY columns already hold rows; the new pooled sequences must start above them or inserts collide
+@Component
+public class IdSequenceInitializer {
+
+    private static final Logger log = LoggerFactory.getLogger(IdSequenceInitializer.class);
+    private static final int ALLOCATION_SIZE = 50;
+    private static final Map<String, String> SEQUENCES_BY_TABLE = Map.of(
+            "application", "application_seq",
+            "candidate", "candidate_seq",
+            "job_description", "job_description_seq",
+            "match_chunk", "match_chunk_seq",
+            "parsing_task", "parsing_task_seq");
+    private final JdbcTemplate jdbcTemplate;
+
+    // depending on the EntityManagerFactory makes this run after Hibernate has created or updated the schema
+    public IdSequenceInitializer(JdbcTemplate jdbcTemplate, EntityManagerFactory entityManagerFactory) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @PostConstruct
+    public void alignSequences() {
+        SEQUENCES_BY_TABLE.forEach((table, sequence) -> {
+            Long maxId = jdbcTemplate.queryForObject("select coalesce(max(id), 0) from " + table, Long.class);
+            Long lastValue = jdbcTemplate.queryForObject("select last_value from " + sequence, Long.class);
+            if (maxId != null && lastValue != null && maxId >= lastValue) {
+                jdbcTemplate.queryForObject("select setval('" + sequence + "', ?)", Long.class, maxId + ALLOCATION_SIZE);
+                log.info("moved sequence {} past existing {} IDs (max id {}).", sequence, table, maxId);
+            }
+        });
+    }
+}
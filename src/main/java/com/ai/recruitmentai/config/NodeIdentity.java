@@ -0,0 +1,35 @@
+package com.ai.recruitmentai.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+
+// names this instance as the owner of claimed work; it must stay the same across restarts so a restarted node can release its own leases,
+// and differ between instances sharing one database (set app.cluster.node-id when several run on one host)
+@Component
+public class NodeIdentity {
+
+    private static final Logger log = LoggerFactory.getLogger(NodeIdentity.class);
+    private final String nodeId;
+
+    public NodeIdentity(@Value("${app.cluster.node-id:}") String configuredNodeId) {
+        this.nodeId = configuredNodeId != null && !configuredNodeId.isBlank() ? configuredNodeId.trim() : hostName();
+        log.info("work claims are owned by node id '{}'.", nodeId);
+    }
+
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    private static String hostName() {
+        try {
+            return InetAddress.getLocalHost().getHostName();
+        } catch (UnknownHostException e) {
+            return "local";
+        }
+    }
+}
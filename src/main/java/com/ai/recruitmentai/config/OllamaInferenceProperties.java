@@ -0,0 +1,77 @@
+package com.ai.recruitmentai.config;
+
+import com.ai.recruitmentai.llm.PromptType;
+import jakarta.annotation.PostConstruct;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+@Component
+@ConfigurationProperties(prefix = "ollama.inference")
+@Data
+public class OllamaInferenceProperties {
+
+    private static final Logger log = LoggerFactory.getLogger(OllamaInferenceProperties.class);
+    // num_ctx is taken from here only: Ollama treats it as a load option, so a per-type value would reload the runner whenever prompt types interleave
+    private InferenceProfile defaults = new InferenceProfile();
+    // keyed by prompt type in kebab case, e.g. "cv-extraction"
+    private Map<String, InferenceProfile> profiles = new HashMap<>();
+
+    @PostConstruct
+    public void ignorePerTypeContextSizes() {
+        profiles.forEach((type, profile) -> {
+            if (profile.getNumCtx() != null) {
+                log.warn("ignoring ollama.inference.profiles.{}.num-ctx={}; set one ollama.inference.defaults.num-ctx for the model instead.",
+                        type, profile.getNumCtx());
+            }
+        });
+    }
+
+    public InferenceProfile profileFor(PromptType promptType) {
+        InferenceProfile specific = profiles.get(promptType.name().toLowerCase().replace('_', '-'));
+        return specific == null ? defaults : specific.withFallback(defaults);
+    }
+
+    @Data
+    @NoArgsConstructor
+    public static class InferenceProfile {
+        private Integer numCtx;
+        private Integer numPredict;
+        private String keepAlive;
+        private Double temperature;
+        private Double topP;
+        private Integer topK;
+        private Double repeatPenalty;
+
+        InferenceProfile withFallback(InferenceProfile fallback) {
+            InferenceProfile merged = new InferenceProfile();
+            merged.setNumCtx(fallback.getNumCtx());
+            merged.setNumPredict(numPredict != null ? numPredict : fallback.getNumPredict());
+            merged.setKeepAlive(keepAlive != null ? keepAlive : fallback.getKeepAlive());
+            merged.setTemperature(temperature != null ? temperature : fallback.getTemperature());
+            merged.setTopP(topP != null ? topP : fallback.getTopP());
+            merged.setTopK(topK != null ? topK : fallback.getTopK());
+            merged.setRepeatPenalty(repeatPenalty != null ? repeatPenalty : fallback.getRepeatPenalty());
+            return merged;
+        }
+
+        // Ollama "options" object; unset fields are left to the server defaults
+        public Map<String, Object> toOptions() {
+            Map<String, Object> options = new LinkedHashMap<>();
+            if (numCtx != null) options.put("num_ctx", numCtx);
+            if (numPredict != null) options.put("num_predict", numPredict);
+            if (temperature != null) options.put("temperature", temperature);
+            if (topP != null) options.put("top_p", topP);
+            if (topK != null) options.put("top_k", topK);
+            if (repeatPenalty != null) options.put("repeat_penalty", repeatPenalty);
+            return options;
+        }
+    }
+}
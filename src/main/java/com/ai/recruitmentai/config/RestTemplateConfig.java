@@ -1,8 +1,22 @@
 package com.ai.recruitmentai.config; // Updated package name
 
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.web.client.RestTemplateBuilder;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.web.client.RestTemplate;
 
 import java.time.Duration;
@@ -10,11 +24,50 @@ import java.time.Duration;
 @Configuration
 public class RestTemplateConfig {
 
+    private static final Logger log = LoggerFactory.getLogger(RestTemplateConfig.class);
+    public static final String OLLAMA_REST_TEMPLATE_BEAN_NAME = "ollamaRestTemplate";
+    public static final String OLLAMA_CONNECTION_MANAGER_BEAN_NAME = "ollamaConnectionManager";
+
     @Bean
+    @Primary
     public RestTemplate restTemplate(RestTemplateBuilder builder) {
         return builder
                 .setConnectTimeout(Duration.ofSeconds(10))
                 .setReadTimeout(Duration.ofMinutes(2))
                 .build();
     }
-}
\ No newline at end of file
+
+    @Bean(name = OLLAMA_CONNECTION_MANAGER_BEAN_NAME, destroyMethod = "close")
+    public PoolingHttpClientConnectionManager ollamaConnectionManager(
+            @Value("${ollama.http.max-connections:16}") int maxConnections,
+            @Value("${ollama.http.max-connections-per-route:8}") int maxConnectionsPerRoute,
+            @Value("${ollama.http.connect-timeout-seconds:10}") long connectTimeoutSeconds,
+            @Value("${ollama.http.read-timeout-seconds:120}") long readTimeoutSeconds) {
+        log.info("configuring pooled Ollama transport: maxConnections={}, maxPerRoute={}", maxConnections, maxConnectionsPerRoute);
+        return PoolingHttpClientConnectionManagerBuilder.create()
+                .setMaxConnTotal(maxConnections)
+                .setMaxConnPerRoute(maxConnectionsPerRoute)
+                .setDefaultConnectionConfig(ConnectionConfig.custom()
+                        .setConnectTimeout(Timeout.ofSeconds(connectTimeoutSeconds))
+                        .setSocketTimeout(Timeout.ofSeconds(readTimeoutSeconds))
+                        .setValidateAfterInactivity(TimeValue.ofSeconds(5))
+                        .setTimeToLive(TimeValue.ofMinutes(10))
+                        .build())
+                .build();
+    }
+
+    @Bean(name = OLLAMA_REST_TEMPLATE_BEAN_NAME)
+    public RestTemplate ollamaRestTemplate(
+            @Qualifier(OLLAMA_CONNECTION_MANAGER_BEAN_NAME) PoolingHttpClientConnectionManager connectionManager,
+            @Value("${ollama.http.connection-request-timeout-seconds:30}") long connectionRequestTimeoutSeconds,
+            @Value("${ollama.http.read-timeout-seconds:120}") long readTimeoutSeconds) {
+        CloseableHttpClient httpClient = HttpClients.custom()
+                .setConnectionManager(connectionManager)
+                .setDefaultRequestConfig(RequestConfig.custom()
+                        .setConnectionRequestTimeout(Timeout.ofSeconds(connectionRequestTimeoutSeconds))
+                        .setResponseTimeout(Timeout.ofSeconds(readTimeoutSeconds))
+                        .build())
+                .build();
+        return new RestTemplate(new HttpComponentsClientHttpRequestFactory(httpClient));
+    }
+}
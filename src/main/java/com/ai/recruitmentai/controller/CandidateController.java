@@ -1,18 +1,24 @@
 package com.ai.recruitmentai.controller;
 
+import com.ai.recruitmentai.dto.BulkIngestionResultDto;
 import com.ai.recruitmentai.entity.Candidate;
 import com.ai.recruitmentai.exception.FileStorageException;
 import com.ai.recruitmentai.exception.ResourceNotFoundException;
 import com.ai.recruitmentai.service.CandidateService;
+import com.ai.recruitmentai.service.CvIngestionService;
+import com.ai.recruitmentai.service.CvParsingPipeline;
+import jakarta.servlet.http.HttpServletRequest;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.io.IOException;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -22,9 +28,13 @@ import java.util.Optional;
 public class CandidateController {
     private static final Logger log = LoggerFactory.getLogger(CandidateController.class);
     private final CandidateService candidateService;
+    private final CvIngestionService cvIngestionService;
+    private final CvParsingPipeline parsingPipeline;
     @Autowired
-    public CandidateController(CandidateService candidateService) {
+    public CandidateController(CandidateService candidateService, CvIngestionService cvIngestionService, CvParsingPipeline parsingPipeline) {
         this.candidateService = candidateService;
+        this.cvIngestionService = cvIngestionService;
+        this.parsingPipeline = parsingPipeline;
     }
     @PostMapping(value = "/upload", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
     public ResponseEntity<?> uploadCv(@RequestParam("file") MultipartFile file) {
@@ -37,8 +47,20 @@ public class CandidateController {
             return ResponseEntity.status(HttpStatus.UNSUPPORTED_MEDIA_TYPE)
                     .body(Map.of("message", "Invalid file type. Please upload a PDF file."));
         }
+        if (parsingPipeline.remainingCapacity() == 0) {
+            log.warn("parsing pipeline full, turning away CV upload: {}", file.getOriginalFilename());
+            return tooManyRequests(Map.of("message", "CV parsing is at capacity. Please retry later."));
+        }
         try {
-            Candidate savedCandidate = candidateService.storeAndInitiateParsing(file);
+            CandidateService.StoredCv stored = candidateService.storeAndInitiateParsing(file);
+            Candidate savedCandidate = stored.candidate();
+            if (!stored.parsingQueued()) {
+                return tooManyRequests(Map.of(
+                        "message", "CV stored but parsing is at capacity. Please retry the upload later.",
+                        "candidateId", savedCandidate.getId(),
+                        "fileName", file.getOriginalFilename(),
+                        "initialStatus", savedCandidate.getStatus()));
+            }
             log.info("successfully stored CV file and initiated parsing for Candidate ID: {}", savedCandidate.getId());
             return ResponseEntity.accepted().body(Map.of(
                     "message", "CV upload accepted. Parsing initiated.",
@@ -57,6 +79,53 @@ public class CandidateController {
         }
     }
 
+    // many PDFs (or ZIPs of PDFs) in one multipart request; the manifest reports each file separately
+    @PostMapping(value = "/upload/bulk", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ResponseEntity<?> uploadCvsInBulk(@RequestParam("files") List<MultipartFile> files) {
+        log.info("received request to bulk upload {} CV file(s)", files.size());
+        if (files.isEmpty()) {
+            return ResponseEntity.badRequest().body(Map.of("message", "no files in request."));
+        }
+        return bulkResponse(cvIngestionService.ingestFiles(files));
+    }
+
+    // raw ZIP body, read entry by entry as it arrives, so it is not subject to the multipart size limits
+    @PostMapping(value = "/upload/zip", consumes = {"application/zip", "application/x-zip-compressed", MediaType.APPLICATION_OCTET_STREAM_VALUE})
+    public ResponseEntity<?> uploadCvZip(HttpServletRequest request) {
+        log.info("received request to upload a ZIP of CVs ({} bytes declared)", request.getContentLengthLong());
+        try {
+            BulkIngestionResultDto result = cvIngestionService.ingestZip(request.getInputStream());
+            if (result.getReceived() == 0 && result.getRejected() == 0) {
+                return ResponseEntity.badRequest().body(Map.of("message", "ZIP archive contains no files."));
+            }
+            return bulkResponse(result);
+        } catch (IOException e) {
+            log.error("could not read ZIP upload: {}", e.getMessage(), e);
+            return ResponseEntity.badRequest().body(Map.of("message", "could not read ZIP upload: " + e.getMessage()));
+        }
+    }
+
+    @GetMapping("/parsing-pipeline")
+    public ResponseEntity<Map<String, Object>> getParsingPipelineStats() {
+        return ResponseEntity.ok(parsingPipeline.getStats());
+    }
+
+    private ResponseEntity<?> tooManyRequests(Object body) {
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(parsingPipeline.retryAfterSeconds()))
+                .body(body);
+    }
+
+    // files that were stored but not queued are named in the manifest; Retry-After tells the client when to send them again
+    private ResponseEntity<?> bulkResponse(BulkIngestionResultDto result) {
+        if (result.getStoredNotQueued() == 0) {
+            return ResponseEntity.accepted().body(result);
+        }
+        return ResponseEntity.accepted()
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(parsingPipeline.retryAfterSeconds()))
+                .body(result);
+    }
+
     @GetMapping
     public ResponseEntity<List<Candidate>> getAllCandidates() {
         log.debug("received request to get all candidates.");
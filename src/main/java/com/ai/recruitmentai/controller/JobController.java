@@ -1,4 +1,5 @@
 package com.ai.recruitmentai.controller;
+import com.ai.recruitmentai.dto.CandidateSimilarityDto;
 import com.ai.recruitmentai.entity.JobDescription;
 import com.ai.recruitmentai.exception.FileParsingException;
 import com.ai.recruitmentai.exception.LlmInteractionException;
@@ -78,5 +79,20 @@ public class JobController {
                 .map(job -> ResponseEntity.ok().body(job))
                 .orElseGet(() -> ResponseEntity.notFound().build());
     }
+    @GetMapping("/{id}/nearest-candidates")
+    public ResponseEntity<?> getNearestCandidates(@PathVariable Long id, @RequestParam(defaultValue = "10") int k) {
+        log.debug("REST request to get the {} nearest candidates for JobDescription : {}", k, id);
+        if (k <= 0) {
+            return ResponseEntity.badRequest().body(Map.of("message", "k must be positive."));
+        }
+        try {
+            List<CandidateSimilarityDto> nearest=jobService.findNearestCandidates(id, k);
+            return ResponseEntity.ok(nearest);
+        } catch (ResourceNotFoundException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(Map.of("message", e.getMessage()));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of("message", e.getMessage()));
+        }
+    }
 
 }
\ No newline at end of file
@@ -0,0 +1,87 @@
+package com.ai.recruitmentai.controller;
+import com.ai.recruitmentai.config.RestTemplateConfig;
+import com.ai.recruitmentai.index.CandidateVectorIndex;
+import com.ai.recruitmentai.llm.AdaptiveConcurrencyLimiter;
+import com.ai.recruitmentai.llm.OllamaBulkhead;
+import com.ai.recruitmentai.llm.OllamaEndpointPool;
+import com.ai.recruitmentai.llm.SingleFlight;
+import com.ai.recruitmentai.llm.cache.LlmResponseCache;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.core5.pool.PoolStats;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import java.util.LinkedHashMap;
+import java.util.Map;
+@RestController
+@RequestMapping("/api/llm")
+public class LlmController {
+    private static final Logger log=LoggerFactory.getLogger(LlmController.class);
+    private final LlmResponseCache responseCache;
+    private final OllamaBulkhead bulkhead;
+    private final PoolingHttpClientConnectionManager connectionManager;
+    private final AdaptiveConcurrencyLimiter concurrencyLimiter;
+    private final SingleFlight singleFlight;
+    private final OllamaEndpointPool endpointPool;
+    private final CandidateVectorIndex vectorIndex;
+    @Autowired
+    public LlmController(LlmResponseCache responseCache,
+                         OllamaBulkhead bulkhead,
+                         @Qualifier(RestTemplateConfig.OLLAMA_CONNECTION_MANAGER_BEAN_NAME) PoolingHttpClientConnectionManager connectionManager,
+                         AdaptiveConcurrencyLimiter concurrencyLimiter,
+                         SingleFlight singleFlight,
+                         OllamaEndpointPool endpointPool,
+                         CandidateVectorIndex vectorIndex) {
+        this.responseCache=responseCache;
+        this.bulkhead=bulkhead;
+        this.connectionManager=connectionManager;
+        this.concurrencyLimiter=concurrencyLimiter;
+        this.singleFlight=singleFlight;
+        this.endpointPool=endpointPool;
+        this.vectorIndex=vectorIndex;
+    }
+    @GetMapping("/cache")
+    public ResponseEntity<Map<String, Object>> getCacheStats() {
+        log.debug("received request for LLM cache statistics");
+        return ResponseEntity.ok(responseCache.getStats());
+    }
+    @GetMapping("/transport")
+    public ResponseEntity<Map<String, Object>> getTransportStats() {
+        log.debug("received request for Ollama transport statistics");
+        PoolStats poolStats=connectionManager.getTotalStats();
+        Map<String, Object> pool=new LinkedHashMap<>();
+        pool.put("leased", poolStats.getLeased());
+        pool.put("available", poolStats.getAvailable());
+        pool.put("pending", poolStats.getPending());
+        pool.put("max", poolStats.getMax());
+        Map<String, Object> stats=new LinkedHashMap<>();
+        stats.put("connectionPool", pool);
+        stats.put("bulkhead", bulkhead.getStats());
+        return ResponseEntity.ok(stats);
+    }
+    @GetMapping("/limiter")
+    public ResponseEntity<Map<String, Object>> getLimiterStats() {
+        log.debug("received request for adaptive LLM concurrency statistics");
+        return ResponseEntity.ok(concurrencyLimiter.getStats());
+    }
+    @GetMapping("/coalescing")
+    public ResponseEntity<Map<String, Object>> getCoalescingStats() {
+        log.debug("received request for LLM request coalescing statistics");
+        return ResponseEntity.ok(singleFlight.getStats());
+    }
+    @GetMapping("/endpoints")
+    public ResponseEntity<Map<String, Object>> getEndpointStats() {
+        log.debug("received request for Ollama endpoint statistics");
+        return ResponseEntity.ok(endpointPool.getStats());
+    }
+    @GetMapping("/vector-index")
+    public ResponseEntity<Map<String, Object>> getVectorIndexStats() {
+        log.debug("received request for candidate vector index statistics");
+        return ResponseEntity.ok(vectorIndex.getStats());
+    }
+}
@@ -1,13 +1,18 @@
 package com.ai.recruitmentai.controller;
 
+import com.ai.recruitmentai.dto.MatchRunProgressDto;
 import com.ai.recruitmentai.entity.Application;
+import com.ai.recruitmentai.entity.MatchRun;
+import com.ai.recruitmentai.exception.MatchRunInProgressException;
 import com.ai.recruitmentai.exception.ResourceNotFoundException;
 import com.ai.recruitmentai.service.ApplicationService;
 import com.ai.recruitmentai.service.InterviewService;
-import com.ai.recruitmentai.service.MatchingService;
+import com.ai.recruitmentai.service.MatchingMode;
+import com.ai.recruitmentai.service.RecruitmentOrchestrator;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.task.TaskRejectedException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -17,24 +22,45 @@ import java.util.Map;
 @RequestMapping("/api/workflow")
 public class WorkflowController {
     private static final Logger log=LoggerFactory.getLogger(WorkflowController.class);
-    private final MatchingService matchingService;
+    private final RecruitmentOrchestrator orchestrator;
     private final ApplicationService applicationService;
     private final InterviewService interviewService;
     @Autowired
-    public WorkflowController(MatchingService matchingService,
+    public WorkflowController(RecruitmentOrchestrator orchestrator,
                               ApplicationService applicationService,
                               InterviewService interviewService) {
-        this.matchingService=matchingService;
+        this.orchestrator=orchestrator;
         this.applicationService=applicationService;
         this.interviewService=interviewService;
     }
 
+    // retrievalTopN: omit for the configured default, 0 to score every parsed candidate, N to score only the N nearest by embedding
     @PostMapping("/match-all")
-    public ResponseEntity<?> triggerBatchMatching(@RequestParam Long jobId) {
-        log.info("received request to trigger batch matching for Job ID: {}", jobId);
+    public ResponseEntity<?> triggerBatchMatching(@RequestParam Long jobId,
+                                                  @RequestParam(required=false) String mode,
+                                                  @RequestParam(defaultValue="false") boolean force,
+                                                  @RequestParam(required=false) Integer retrievalTopN) {
+        log.info("received request to trigger batch matching for Job ID: {} with mode: {}", jobId, mode != null ? mode : "default");
+        MatchingMode matchingMode;
         try {
-            matchingService.matchAllCandidatesToJob(jobId);
-            return ResponseEntity.ok(Map.of("message", "batch matching process initiated successfully for Job ID: " + jobId));
+            matchingMode=mode != null ? MatchingMode.fromString(mode) : null;
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("message", e.getMessage()));
+        }
+        try {
+            MatchRun run=orchestrator.startMatchAll(jobId, matchingMode, force, retrievalTopN);
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(Map.of(
+                    "message", "batch matching process initiated successfully for Job ID: " + jobId + " (run " + run.getId() + ")",
+                    "runId", run.getId(),
+                    "progressUrl", "/api/workflow/match-runs/" + run.getId()));
+        } catch (TaskRejectedException e) {
+            log.warn("batch matching for Job ID {} rejected: too many queued runs", jobId);
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(Map.of("message", "Too many match runs are queued; try again later."));
+        } catch (MatchRunInProgressException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of(
+                    "message", "A match run is already in progress for Job ID: " + jobId,
+                    "runId", e.getRunId(),
+                    "progressUrl", "/api/workflow/match-runs/" + e.getRunId()));
         } catch (ResourceNotFoundException e) {
             log.warn("batch matching failed: {}", e.getMessage());
             return ResponseEntity.status(HttpStatus.NOT_FOUND).body(Map.of("message", e.getMessage()));
@@ -47,6 +73,88 @@ public class WorkflowController {
         }
     }
 
+    @GetMapping("/match-runs/{runId}")
+    public ResponseEntity<?> getMatchRunProgress(@PathVariable Long runId) {
+        try {
+            return ResponseEntity.ok(orchestrator.getProgress(runId));
+        } catch (ResourceNotFoundException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(Map.of("message", e.getMessage()));
+        }
+    }
+
+    @GetMapping("/match-runs")
+    public ResponseEntity<List<MatchRunProgressDto>> getRecentMatchRuns(@RequestParam Long jobId) {
+        return ResponseEntity.ok(orchestrator.getRecentRuns(jobId));
+    }
+
+    @DeleteMapping("/match-runs/{runId}")
+    public ResponseEntity<?> cancelMatchRun(@PathVariable Long runId) {
+        log.info("received request to cancel match run {}", runId);
+        try {
+            return ResponseEntity.ok(orchestrator.cancel(runId));
+        } catch (ResourceNotFoundException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(Map.of("message", e.getMessage()));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of("message", e.getMessage()));
+        }
+    }
+
+    @PostMapping("/match-matrix")
+    public ResponseEntity<?> triggerMatrixMatching(@RequestParam List<Long> jobIds,
+                                                   @RequestParam(required=false) List<Long> candidateIds,
+                                                   @RequestParam(required=false) String mode,
+                                                   @RequestParam(defaultValue="false") boolean force,
+                                                   @RequestParam(required=false) Integer retrievalTopN) {
+        log.info("received request to trigger matrix matching for Job IDs: {} and {} candidate(s)", jobIds,
+                candidateIds != null ? candidateIds.size() : "all parsed");
+        try {
+            MatchingMode matchingMode=mode != null ? MatchingMode.fromString(mode) : null;
+            String matrixId=orchestrator.startMatrixRun(jobIds, candidateIds, matchingMode, force, retrievalTopN);
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(Map.of(
+                    "message", "matrix matching initiated successfully for " + jobIds.size() + " job(s) (matrix " + matrixId + ")",
+                    "matrixId", matrixId,
+                    "progressUrl", "/api/workflow/match-matrix/" + matrixId));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("message", e.getMessage()));
+        } catch (TaskRejectedException e) {
+            log.warn("matrix matching for Job IDs {} rejected: too many queued runs", jobIds);
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(Map.of("message", "Too many match runs are queued; try again later."));
+        } catch (MatchRunInProgressException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of(
+                    "message", e.getMessage(),
+                    "runId", e.getRunId(),
+                    "progressUrl", "/api/workflow/match-runs/" + e.getRunId()));
+        } catch (ResourceNotFoundException e) {
+            log.warn("matrix matching failed: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(Map.of("message", e.getMessage()));
+        } catch (IllegalStateException e) {
+            log.error("matrix matching failed for Job IDs {}: {}", jobIds, e.getMessage());
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of("message", "Matrix matching prerequisites not met: " + e.getMessage()));
+        } catch (Exception e) {
+            log.error("unexpected error during matrix matching for Job IDs {}: {}", jobIds, e.getMessage(), e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(Map.of("message", "An unexpected error occurred during matrix matching."));
+        }
+    }
+
+    @GetMapping("/match-matrix/{matrixId}")
+    public ResponseEntity<?> getMatrixProgress(@PathVariable String matrixId) {
+        try {
+            return ResponseEntity.ok(orchestrator.getMatrixProgress(matrixId));
+        } catch (ResourceNotFoundException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(Map.of("message", e.getMessage()));
+        }
+    }
+
+    @DeleteMapping("/match-matrix/{matrixId}")
+    public ResponseEntity<?> cancelMatrixMatching(@PathVariable String matrixId) {
+        log.info("received request to cancel matrix match {}", matrixId);
+        try {
+            return ResponseEntity.ok(orchestrator.cancelMatrix(matrixId));
+        } catch (ResourceNotFoundException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(Map.of("message", e.getMessage()));
+        }
+    }
+
     @PostMapping("/shortlist")
     public ResponseEntity<?> triggerShortlisting(@RequestParam Long jobId,
                                                  @RequestParam(required=false) Double threshold) {
@@ -0,0 +1,11 @@
+package com.ai.recruitmentai.dto;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.util.List;
+@Data
+@NoArgsConstructor
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class BatchMatchResultDto {
+    private List<CandidateMatchResultDto> results;
+}
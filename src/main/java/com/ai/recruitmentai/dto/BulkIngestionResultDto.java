@@ -0,0 +1,29 @@
+package com.ai.recruitmentai.dto;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.util.ArrayList;
+import java.util.List;
+@Data
+@NoArgsConstructor
+public class BulkIngestionResultDto {
+    private int received;
+    private int queued;
+    private int storedNotQueued;
+    private int rejected;
+    private long elapsedMs;
+    private List<FileResult> files=new ArrayList<>();
+    // one manifest line per file or ZIP entry, in the order they were read
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class FileResult {
+        private String fileName;
+        private String candidateIdFromFile;
+        private Long candidateId;
+        private String status;
+        private String message;
+        // false when the file itself is unusable (name, type, size), so sending it again unchanged cannot succeed
+        private boolean retryable;
+    }
+}
@@ -0,0 +1,12 @@
+package com.ai.recruitmentai.dto;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+@Data
+@NoArgsConstructor
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class CandidateMatchResultDto {
+    private Long candidate_id;
+    private Integer match_score;
+    private String justification;
+}
@@ -0,0 +1,22 @@
+package com.ai.recruitmentai.dto;
+import com.ai.recruitmentai.entity.Candidate;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+@Data
+@NoArgsConstructor
+public class CandidateSimilarityDto {
+    private Long candidateId;
+    private String candidateFileId;
+    private String candidateName;
+    private String status;
+    private Double similarity;
+    public static CandidateSimilarityDto fromEntity(Candidate candidate, double similarity) {
+        CandidateSimilarityDto dto=new CandidateSimilarityDto();
+        dto.setCandidateId(candidate.getId());
+        dto.setCandidateFileId(candidate.getCandidateIdFromFile());
+        dto.setCandidateName(candidate.getName());
+        dto.setStatus(candidate.getStatus());
+        dto.setSimilarity(similarity);
+        return dto;
+    }
+}
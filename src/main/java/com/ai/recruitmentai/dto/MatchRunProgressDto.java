@@ -0,0 +1,66 @@
+package com.ai.recruitmentai.dto;
+import com.ai.recruitmentai.entity.MatchRun;
+import com.ai.recruitmentai.service.MatchProgress;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.time.Duration;
+import java.time.LocalDateTime;
+@Data
+@NoArgsConstructor
+public class MatchRunProgressDto {
+    private Long runId;
+    private Long jobId;
+    private String matrixId;
+    private String ownerNode;
+    private String mode;
+    private boolean forceRematch;
+    private Integer retrievalTopN;
+    private String status;
+    private int total;
+    private int matched;
+    private int failed;
+    private int skipped;
+    // scored but not stored; already counted in failed
+    private int unsaved;
+    private int remaining;
+    private Double candidatesPerMinute;
+    private Long etaSeconds;
+    private LocalDateTime createdAt;
+    private LocalDateTime startedAt;
+    private LocalDateTime finishedAt;
+    private String message;
+    // live counters win over the persisted ones while the run is still active in this process
+    public static MatchRunProgressDto fromEntity(MatchRun run, MatchProgress live) {
+        MatchRunProgressDto dto=new MatchRunProgressDto();
+        dto.setRunId(run.getId());
+        dto.setJobId(run.getJobDescription().getId());
+        dto.setMatrixId(run.getMatrixId());
+        dto.setOwnerNode(run.getOwnerNode());
+        dto.setMode(run.getMode());
+        dto.setForceRematch(run.isForceRematch());
+        dto.setRetrievalTopN(run.getRetrievalTopN());
+        boolean cancelling=live != null ? live.isCancelled() : run.isCancelRequested();
+        dto.setStatus(cancelling && "RUNNING".equals(run.getStatus()) ? "CANCELLING" : run.getStatus());
+        dto.setTotal(live != null ? live.getTotal() : run.getTotalCandidates());
+        dto.setMatched(live != null ? live.getMatched() : run.getMatchedCandidates());
+        dto.setFailed(live != null ? live.getFailed() : run.getFailedCandidates());
+        dto.setSkipped(live != null ? live.getSkipped() : run.getSkippedCandidates());
+        dto.setUnsaved(live != null ? live.getUnsaved() : run.getUnsavedResults());
+        dto.setRemaining(Math.max(0, dto.getTotal() - dto.getMatched() - dto.getFailed() - dto.getSkipped()));
+        dto.setCreatedAt(run.getCreatedAt());
+        dto.setStartedAt(run.getStartedAt());
+        dto.setFinishedAt(run.getFinishedAt());
+        dto.setMessage(run.getMessage());
+        if (run.getStartedAt() != null) {
+            LocalDateTime end=run.getFinishedAt() != null ? run.getFinishedAt() : LocalDateTime.now();
+            double elapsedSeconds=Math.max(1, Duration.between(run.getStartedAt(), end).toMillis()) / 1000.0;
+            int processed=dto.getMatched() + dto.getFailed();
+            double perSecond=processed / elapsedSeconds;
+            dto.setCandidatesPerMinute(Math.round(perSecond * 600) / 10.0);
+            if (run.getFinishedAt() == null && perSecond > 0) {
+                dto.setEtaSeconds(Math.round(dto.getRemaining() / perSecond));
+            }
+        }
+        return dto;
+    }
+}
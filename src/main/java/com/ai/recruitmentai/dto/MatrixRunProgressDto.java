@@ -0,0 +1,37 @@
+package com.ai.recruitmentai.dto;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.util.List;
+@Data
+@NoArgsConstructor
+public class MatrixRunProgressDto {
+    private String matrixId;
+    private String status;
+    private int totalJobs;
+    private int finishedJobs;
+    private int total;
+    private int matched;
+    private int failed;
+    private int skipped;
+    private int remaining;
+    private List<MatchRunProgressDto> jobs;
+    // the matrix is active while any of its jobs is; per-job detail stays in jobs
+    public static MatrixRunProgressDto of(String matrixId, List<MatchRunProgressDto> jobs) {
+        MatrixRunProgressDto dto=new MatrixRunProgressDto();
+        dto.setMatrixId(matrixId);
+        dto.setJobs(jobs);
+        dto.setTotalJobs(jobs.size());
+        dto.setFinishedJobs((int) jobs.stream().filter(job -> job.getFinishedAt() != null).count());
+        dto.setTotal(jobs.stream().mapToInt(MatchRunProgressDto::getTotal).sum());
+        dto.setMatched(jobs.stream().mapToInt(MatchRunProgressDto::getMatched).sum());
+        dto.setFailed(jobs.stream().mapToInt(MatchRunProgressDto::getFailed).sum());
+        dto.setSkipped(jobs.stream().mapToInt(MatchRunProgressDto::getSkipped).sum());
+        dto.setRemaining(jobs.stream().mapToInt(MatchRunProgressDto::getRemaining).sum());
+        if (dto.getFinishedJobs() < dto.getTotalJobs()) {
+            dto.setStatus(jobs.stream().anyMatch(job -> "RUNNING".equals(job.getStatus()) || "CANCELLING".equals(job.getStatus())) ? "RUNNING" : "QUEUED");
+        } else {
+            dto.setStatus(jobs.stream().allMatch(job -> "COMPLETED".equals(job.getStatus())) ? "COMPLETED" : "FINISHED_WITH_ISSUES");
+        }
+        return dto;
+    }
+}
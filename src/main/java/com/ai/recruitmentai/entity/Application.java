@@ -1,4 +1,5 @@
 package com.ai.recruitmentai.entity;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import lombok.Data;
 import lombok.NoArgsConstructor;
@@ -10,7 +11,8 @@ import lombok.NoArgsConstructor;
 })
 public class Application {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "application_seq")
+    @SequenceGenerator(name = "application_seq", sequenceName = "application_seq", allocationSize = 50)
     private Long id;
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "job_description_id", nullable = false)
@@ -22,4 +24,7 @@ public class Application {
     @Column(columnDefinition = "TEXT")
     private String matchJustification;
     private String status;
+    // hash of everything the match score was computed from; null when the score did not come from the LLM
+    @JsonIgnore
+    private String inputFingerprint;
 }
\ No newline at end of file
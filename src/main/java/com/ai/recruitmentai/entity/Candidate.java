@@ -1,13 +1,16 @@
 package com.ai.recruitmentai.entity;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import lombok.ToString;
 @Entity
 @Data
 @NoArgsConstructor
 public class Candidate {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "candidate_seq")
+    @SequenceGenerator(name = "candidate_seq", sequenceName = "candidate_seq", allocationSize = 50)
     private Long id;
     @Column(unique = true)
     private String candidateIdFromFile;
@@ -19,5 +22,9 @@ public class Candidate {
     @Column(columnDefinition = "TEXT")
     private String extractedCvJson;
     private String status;
-
+    @JsonIgnore
+    @ToString.Exclude
+    private byte[] cvEmbedding;
+    @JsonIgnore
+    private String cvEmbeddingHash;
 }
\ No newline at end of file
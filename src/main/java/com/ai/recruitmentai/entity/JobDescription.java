@@ -1,14 +1,17 @@
 package com.ai.recruitmentai.entity;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import lombok.ToString;
 
 @Entity
 @Data
 @NoArgsConstructor
 public class JobDescription {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "job_description_seq")
+    @SequenceGenerator(name = "job_description_seq", sequenceName = "job_description_seq", allocationSize = 50)
     private Long id;
     private String jobTitle;
     @Column(columnDefinition = "TEXT")
@@ -16,4 +19,9 @@ public class JobDescription {
     @Column(columnDefinition = "TEXT")
     private String structuredSummaryJson;
     private String status;
+    @JsonIgnore
+    @ToString.Exclude
+    private byte[] summaryEmbedding;
+    @JsonIgnore
+    private String summaryEmbeddingHash;
 }
\ No newline at end of file
@@ -0,0 +1,15 @@
+package com.ai.recruitmentai.entity;
+import java.time.LocalDateTime;
+// a DB work row that nodes claim under a lease (ParsingTask, MatchChunk); the accessors are the ones Lombok generates on the entities
+public interface LeasedWork {
+    String getStatus();
+    void setStatus(String status);
+    int getAttempts();
+    void setAttempts(int attempts);
+    LocalDateTime getLeaseExpiresAt();
+    void setLeaseExpiresAt(LocalDateTime leaseExpiresAt);
+    String getLeaseOwner();
+    void setLeaseOwner(String leaseOwner);
+    String getLeaseToken();
+    void setLeaseToken(String leaseToken);
+}
@@ -0,0 +1,38 @@
+package com.ai.recruitmentai.entity;
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.time.LocalDateTime;
+// one slice of a cluster match-all run, claimed and scored by whichever node gets to it first; the counters are summed into the run by its coordinator
+@Entity
+@Data
+@NoArgsConstructor
+@Table(indexes = {
+        @Index(name = "idx_match_chunk_due", columnList = "status, leaseExpiresAt"),
+        @Index(name = "idx_match_chunk_run", columnList = "runId")})
+public class MatchChunk implements LeasedWork {
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "match_chunk_seq")
+    @SequenceGenerator(name = "match_chunk_seq", sequenceName = "match_chunk_seq", allocationSize = 50)
+    private Long id;
+    @Column(nullable = false)
+    private Long runId;
+    @Column(nullable = false)
+    private Long jobId;
+    // comma separated, in the order the coordinator selected them
+    @Column(columnDefinition = "TEXT", nullable = false)
+    private String candidateIds;
+    private boolean forceRematch;
+    private String status;
+    private int attempts;
+    private int matchedCandidates;
+    private int failedCandidates;
+    private int skippedCandidates;
+    private int unsavedResults;
+    private LocalDateTime leaseExpiresAt;
+    private String leaseOwner;
+    // changes on every claim, so a worker whose lease was taken over cannot report the chunk as its own
+    private String leaseToken;
+    private LocalDateTime createdAt;
+    private LocalDateTime finishedAt;
+}
@@ -0,0 +1,41 @@
+package com.ai.recruitmentai.entity;
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+import java.time.LocalDateTime;
+@Entity
+@Data
+@NoArgsConstructor
+public class MatchRun {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "job_description_id", nullable = false)
+    @ToString.Exclude
+    private JobDescription jobDescription;
+    // set on every per-job run that belongs to one job x candidate matrix request
+    private String matrixId;
+    private String mode;
+    private boolean forceRematch;
+    // candidates pre-retrieved by embedding similarity before scoring; 0 means every parsed candidate was considered
+    private Integer retrievalTopN;
+    private String status;
+    private int totalCandidates;
+    private int matchedCandidates;
+    private int failedCandidates;
+    private int skippedCandidates;
+    // results that were scored but could not be written; already included in failedCandidates
+    private int unsavedResults;
+    private LocalDateTime createdAt;
+    private LocalDateTime startedAt;
+    private LocalDateTime finishedAt;
+    @Column(columnDefinition = "TEXT")
+    private String message;
+    // node coordinating the run; it renews the lease while the run is alive, so other nodes can tell a dead owner from a slow one
+    private String ownerNode;
+    private LocalDateTime leaseExpiresAt;
+    // set by a node that was asked to cancel a run it does not own; the owner picks it up on its next progress flush
+    private boolean cancelRequested;
+}
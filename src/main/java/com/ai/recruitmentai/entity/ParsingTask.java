@@ -0,0 +1,28 @@
+package com.ai.recruitmentai.entity;
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.time.LocalDateTime;
+// durable CV parsing work item: one row per candidate waiting to be (re)parsed, deleted in the same transaction that stores the parse result
+@Entity
+@Data
+@NoArgsConstructor
+@Table(indexes = @Index(name = "idx_parsing_task_due", columnList = "status, nextAttemptAt"))
+public class ParsingTask implements LeasedWork {
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "parsing_task_seq")
+    @SequenceGenerator(name = "parsing_task_seq", sequenceName = "parsing_task_seq", allocationSize = 50)
+    private Long id;
+    @Column(nullable = false, unique = true)
+    private Long candidateId;
+    private String status;
+    private int attempts;
+    private LocalDateTime nextAttemptAt;
+    private LocalDateTime leaseExpiresAt;
+    private String leaseOwner;
+    // changes on every claim, so a worker whose lease was taken over cannot complete the task
+    private String leaseToken;
+    @Column(columnDefinition = "TEXT")
+    private String lastError;
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,19 @@
+package com.ai.recruitmentai.exception;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+@ResponseStatus(HttpStatus.CONFLICT)
+public class MatchRunInProgressException extends IllegalStateException {
+    private final Long jobId;
+    private final Long runId;
+    public MatchRunInProgressException(Long jobId, Long runId) {
+        super("A match run is already in progress for Job ID " + jobId + (runId != null ? " (run " + runId + ")." : "."));
+        this.jobId = jobId;
+        this.runId = runId;
+    }
+    public Long getJobId() {
+        return jobId;
+    }
+    public Long getRunId() {
+        return runId;
+    }
+}
@@ -0,0 +1,317 @@
+package com.ai.recruitmentai.index;
+import com.ai.recruitmentai.config.AsyncConfig;
+import com.ai.recruitmentai.entity.Candidate;
+import com.ai.recruitmentai.repository.CandidateRepository;
+import com.ai.recruitmentai.util.EmbeddingVectors;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Component;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+// approximate nearest-neighbour index over candidate CV embeddings; the graph lives off-heap in a memory-mapped file so a restart only remaps it
+@Component
+public class CandidateVectorIndex {
+    private static final Logger log=LoggerFactory.getLogger(CandidateVectorIndex.class);
+    private static final int RECONCILE_BATCH_SIZE=200;
+    private final CandidateRepository candidateRepository;
+    private final boolean enabled;
+    private final Path indexFile;
+    private final int m;
+    private final int efConstruction;
+    private final int efSearch;
+    private final int initialCapacity;
+    private final double compactionRatio;
+    private final int compactionMinTombstones;
+    private final ReentrantReadWriteLock lock=new ReentrantReadWriteLock();
+    private HnswIndex index;
+
+    public CandidateVectorIndex(CandidateRepository candidateRepository,
+                                @Value("${app.vector-index.enabled:true}") boolean enabled,
+                                @Value("${app.vector-index.file:./vector-index/candidates.hnsw}") String indexFile,
+                                @Value("${app.vector-index.m:16}") int m,
+                                @Value("${app.vector-index.ef-construction:64}") int efConstruction,
+                                @Value("${app.vector-index.ef-search:64}") int efSearch,
+                                @Value("${app.vector-index.initial-capacity:1024}") int initialCapacity,
+                                @Value("${app.vector-index.compaction.tombstone-ratio:0.25}") double compactionRatio,
+                                @Value("${app.vector-index.compaction.min-tombstones:256}") int compactionMinTombstones,
+                                @Value("${app.cluster.enabled:false}") boolean clusterEnabled) {
+        this.candidateRepository=candidateRepository;
+        // the graph only learns about embeddings computed on this node, so in cluster mode retrieval ranks the stored embeddings instead
+        this.enabled=enabled && !clusterEnabled;
+        if (enabled && clusterEnabled) {
+            log.info("Candidate vector index is disabled in cluster mode; pre-retrieval scans the embeddings stored in the database.");
+        }
+        this.indexFile=Paths.get(indexFile).toAbsolutePath().normalize();
+        this.m=Math.max(4, m);
+        this.efConstruction=Math.max(this.m, efConstruction);
+        this.efSearch=efSearch;
+        this.initialCapacity=initialCapacity;
+        this.compactionRatio=compactionRatio;
+        this.compactionMinTombstones=compactionMinTombstones;
+    }
+
+    @PostConstruct
+    public void init() {
+        if (!enabled || !Files.exists(indexFile)) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            long start=System.nanoTime();
+            index=HnswIndex.load(indexFile, efConstruction);
+            log.info("Mapped candidate vector index {} ({} vectors, dimension {}) in {} ms.",
+                    indexFile, index.size(), index.dimension(), (System.nanoTime() - start) / 1_000_000);
+        } catch (IOException e) {
+            log.warn("Could not load candidate vector index {}; it will be rebuilt from stored embeddings: {}", indexFile, e.getMessage());
+            index=null;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @PreDestroy
+    public void close() {
+        lock.writeLock().lock();
+        try {
+            if (index != null) {
+                index.close();
+                index=null;
+            }
+        } catch (IOException e) {
+            log.warn("Could not close candidate vector index {}: {}", indexFile, e.getMessage());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // catches up with embeddings written while the index was missing, stale or disabled; runs off the startup thread
+    @Async(AsyncConfig.INDEX_EXECUTOR_BEAN_NAME)
+    @EventListener(ApplicationReadyEvent.class)
+    public void reconcile() {
+        if (!enabled) {
+            return;
+        }
+        long start=System.nanoTime();
+        List<Long> stale=new ArrayList<>();
+        Set<Long> embedded=new HashSet<>();
+        for (var ref : candidateRepository.findByCvEmbeddingHashIsNotNull()) {
+            embedded.add(ref.getId());
+            if (!isCurrent(ref.getId(), ref.getCvEmbeddingHash())) {
+                stale.add(ref.getId());
+            }
+        }
+        int removed=removeAllExcept(embedded);
+        int indexed=0;
+        for (int from=0; from < stale.size(); from += RECONCILE_BATCH_SIZE) {
+            List<Long> batch=stale.subList(from, Math.min(stale.size(), from + RECONCILE_BATCH_SIZE));
+            for (Candidate candidate : candidateRepository.findAllById(batch)) {
+                if (candidate.getCvEmbedding() != null && candidate.getCvEmbeddingHash() != null) {
+                    upsert(candidate.getId(), candidate.getCvEmbeddingHash(), EmbeddingVectors.fromBytes(candidate.getCvEmbedding()));
+                    indexed++;
+                }
+            }
+        }
+        flush();
+        log.info("Candidate vector index reconciled: {} vector(s) (re)indexed and {} removed in {} ms, {} live.",
+                indexed, removed, (System.nanoTime() - start) / 1_000_000, size());
+    }
+
+    public boolean isAvailable() {
+        lock.readLock().lock();
+        try {
+            return enabled && index != null;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public boolean contains(Long candidateId) {
+        lock.readLock().lock();
+        try {
+            return index != null && candidateId != null && index.contains(candidateId);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // vectors must be unit-length; the fingerprint is the embedding hash stored on the candidate
+    public void upsert(Long candidateId, String fingerprint, float[] vector) {
+        if (!enabled || candidateId == null) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            if (index != null && index.dimension() != vector.length) {
+                log.warn("Embedding dimension changed from {} to {}; discarding the candidate vector index.", index.dimension(), vector.length);
+                index.closeAndDelete();
+                index=null;
+            }
+            if (index == null) {
+                index=HnswIndex.create(indexFile, vector.length, m, efConstruction, initialCapacity);
+                log.info("Created candidate vector index {} with dimension {}.", indexFile, vector.length);
+            }
+            index.upsert(candidateId, fingerprintBits(fingerprint), vector);
+            compactIfNeeded();
+        } catch (IOException e) {
+            log.error("Could not add Candidate ID {} to the vector index: {}", candidateId, e.getMessage(), e);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // called when a candidate's embedding is cleared (re-upload), so retrieval never returns a vector of the old CV
+    public void remove(Long candidateId) {
+        if (candidateId == null) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            if (index != null && index.delete(candidateId)) {
+                compactIfNeeded();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public List<Neighbour> search(float[] query, int k) {
+        lock.readLock().lock();
+        try {
+            if (index == null || index.dimension() != query.length) {
+                return List.of();
+            }
+            List<Neighbour> neighbours=new ArrayList<>(k);
+            for (HnswIndex.Result result : index.search(query, k, Math.max(efSearch, k))) {
+                neighbours.add(new Neighbour(result.key(), result.similarity()));
+            }
+            return neighbours;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return index == null ? 0 : index.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        lock.readLock().lock();
+        try {
+            Map<String, Object> stats=new LinkedHashMap<>();
+            stats.put("enabled", enabled);
+            stats.put("efSearch", efSearch);
+            stats.put("efConstruction", efConstruction);
+            if (index != null) {
+                stats.putAll(index.stats());
+            }
+            return stats;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private boolean isCurrent(Long candidateId, String fingerprint) {
+        lock.readLock().lock();
+        try {
+            return index != null && index.contains(candidateId, fingerprintBits(fingerprint));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private int removeAllExcept(Set<Long> candidateIds) {
+        lock.writeLock().lock();
+        try {
+            if (index == null) {
+                return 0;
+            }
+            List<Long> orphaned=new ArrayList<>();
+            for (Long key : index.keys()) {
+                if (!candidateIds.contains(key)) {
+                    orphaned.add(key);
+                }
+            }
+            orphaned.forEach(index::delete);
+            compactIfNeeded();
+            return orphaned.size();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // every update leaves a tombstone behind, so the file and the graph are rebuilt once they make up a large share of the nodes
+    private void compactIfNeeded() {
+        int tombstoned=index.tombstoned();
+        if (tombstoned < compactionMinTombstones || tombstoned < compactionRatio * (tombstoned + index.size())) {
+            return;
+        }
+        long start=System.nanoTime();
+        Path compacted=indexFile.resolveSibling(indexFile.getFileName() + ".compact");
+        try {
+            index.compactTo(compacted);
+        } catch (IOException e) {
+            log.error("Could not compact candidate vector index {}; keeping the current file: {}", indexFile, e.getMessage(), e);
+            return;
+        }
+        try {
+            index.close();
+            index=null;
+            Files.move(compacted, indexFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            index=HnswIndex.load(indexFile, efConstruction);
+            log.info("Compacted candidate vector index {}: dropped {} tombstoned node(s), {} live, in {} ms.",
+                    indexFile, tombstoned, index.size(), (System.nanoTime() - start) / 1_000_000);
+        } catch (IOException e) {
+            log.error("Could not swap in the compacted candidate vector index {}: {}", indexFile, e.getMessage(), e);
+            reopen();
+        }
+    }
+
+    // after a failed swap either the old or the compacted file is in place; if neither maps, the next reconcile rebuilds the index
+    private void reopen() {
+        try {
+            index=Files.exists(indexFile) ? HnswIndex.load(indexFile, efConstruction) : null;
+        } catch (IOException e) {
+            log.warn("Could not reopen candidate vector index {}: {}", indexFile, e.getMessage());
+            index=null;
+        }
+    }
+
+    private void flush() {
+        lock.readLock().lock();
+        try {
+            if (index != null) {
+                index.force();
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private static long fingerprintBits(String fingerprint) {
+        return Long.parseUnsignedLong(fingerprint.substring(0, 16), 16);
+    }
+
+    public record Neighbour(Long candidateId, double similarity) {
+    }
+}
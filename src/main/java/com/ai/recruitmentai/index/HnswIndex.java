@@ -0,0 +1,414 @@
+package com.ai.recruitmentai.index;
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Random;
+import java.util.Set;
+// HNSW graph over unit-length vectors (distance = 1 - dot product), stored in a memory-mapped file.
+// Every node is a fixed-size record addressed by its ordinal: key(long) fingerprint(long) level(int) deleted(int) vector(float[dim])
+// then a neighbour list per level (count(int) + ordinals), 2*M slots on level 0 and M slots on levels 1..MAX_LEVEL.
+// Not thread-safe: callers serialise writes and may run searches concurrently with each other.
+final class HnswIndex {
+    static final int MAX_LEVEL=4;
+    private static final int MAGIC=0x484E5357;
+    private static final int VERSION=1;
+    private static final int HEADER_BYTES=64;
+    private static final int H_MAGIC=0, H_VERSION=4, H_DIMENSION=8, H_M=12, H_COUNT=16, H_CAPACITY=20, H_ENTRY_POINT=24, H_TOP_LEVEL=28;
+    private static final int R_KEY=0, R_FINGERPRINT=8, R_LEVEL=16, R_DELETED=20, R_VECTOR=24;
+    private static final Comparator<Scored> BY_DISTANCE=Comparator.comparingDouble(Scored::distance);
+    private final Path path;
+    private final FileChannel channel;
+    private final int dimension;
+    private final int m;
+    private final int maxNeighboursLevel0;
+    private final int efConstruction;
+    private final double levelMultiplier;
+    private final int recordBytes;
+    private final int level0Offset;
+    private final Map<Long, Integer> nodesByKey=new HashMap<>();
+    private final Random random=new Random();
+    private MappedByteBuffer buffer;
+    private FloatBuffer floats;
+    private int capacity;
+    private int count;
+    private int entryPoint;
+    private int topLevel;
+    private int deletedCount;
+
+    private HnswIndex(Path path, FileChannel channel, int dimension, int m, int efConstruction) {
+        this.path=path;
+        this.channel=channel;
+        this.dimension=dimension;
+        this.m=m;
+        this.maxNeighboursLevel0=2 * m;
+        this.efConstruction=efConstruction;
+        this.levelMultiplier=1 / Math.log(m);
+        this.level0Offset=R_VECTOR + dimension * Float.BYTES;
+        this.recordBytes=level0Offset + Integer.BYTES * (1 + maxNeighboursLevel0) + MAX_LEVEL * Integer.BYTES * (1 + m);
+    }
+    static HnswIndex create(Path path, int dimension, int m, int efConstruction, int initialCapacity) throws IOException {
+        Files.createDirectories(path.toAbsolutePath().getParent());
+        FileChannel channel=FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+        HnswIndex index=new HnswIndex(path, channel, dimension, m, efConstruction);
+        index.capacity=Math.max(16, initialCapacity);
+        index.entryPoint=-1;
+        index.map();
+        index.buffer.putInt(H_MAGIC, MAGIC);
+        index.buffer.putInt(H_VERSION, VERSION);
+        index.buffer.putInt(H_DIMENSION, dimension);
+        index.buffer.putInt(H_M, m);
+        index.writeHeader();
+        return index;
+    }
+    // maps an existing file; only the key/deleted columns are scanned to rebuild the key lookup, vectors stay on disk until touched
+    static HnswIndex load(Path path, int efConstruction) throws IOException {
+        FileChannel channel=FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            MappedByteBuffer header=channel.map(FileChannel.MapMode.READ_ONLY, 0, Math.min(HEADER_BYTES, channel.size()));
+            header.order(ByteOrder.LITTLE_ENDIAN);
+            if (header.limit() < HEADER_BYTES || header.getInt(H_MAGIC) != MAGIC || header.getInt(H_VERSION) != VERSION) {
+                throw new IOException("Not a vector index file (or an unsupported version): " + path);
+            }
+            HnswIndex index=new HnswIndex(path, channel, header.getInt(H_DIMENSION), header.getInt(H_M), efConstruction);
+            index.count=header.getInt(H_COUNT);
+            index.capacity=header.getInt(H_CAPACITY);
+            index.entryPoint=header.getInt(H_ENTRY_POINT);
+            index.topLevel=header.getInt(H_TOP_LEVEL);
+            if (index.count < 0 || index.count > index.capacity
+                    || channel.size() < HEADER_BYTES + (long) index.capacity * index.recordBytes) {
+                throw new IOException("Vector index file is truncated or inconsistent: " + path);
+            }
+            index.map();
+            for (int node=0; node < index.count; node++) {
+                int offset=index.offset(node);
+                if (index.buffer.getInt(offset + R_DELETED) == 0) {
+                    index.nodesByKey.put(index.buffer.getLong(offset + R_KEY), node);
+                } else {
+                    index.deletedCount++;
+                }
+            }
+            return index;
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+    int dimension() {
+        return dimension;
+    }
+    int size() {
+        return nodesByKey.size();
+    }
+    boolean contains(long key, long fingerprint) {
+        Integer node=nodesByKey.get(key);
+        return node != null && buffer.getLong(offset(node) + R_FINGERPRINT) == fingerprint;
+    }
+    boolean contains(long key) {
+        return nodesByKey.containsKey(key);
+    }
+    Set<Long> keys() {
+        return nodesByKey.keySet();
+    }
+    int tombstoned() {
+        return deletedCount;
+    }
+    // the node stays in the graph as a routing hop until the next compaction
+    boolean delete(long key) {
+        Integer node=nodesByKey.remove(key);
+        if (node == null) {
+            return false;
+        }
+        buffer.putInt(offset(node) + R_DELETED, 1);
+        deletedCount++;
+        return true;
+    }
+    // an updated vector is inserted as a new node; the old one is tombstoned but stays in the graph as a routing hop
+    void upsert(long key, long fingerprint, float[] vector) throws IOException {
+        if (vector.length != dimension) {
+            throw new IllegalArgumentException("Vector dimension " + vector.length + " does not match index dimension " + dimension);
+        }
+        Integer existing=nodesByKey.get(key);
+        if (existing != null) {
+            if (buffer.getLong(offset(existing) + R_FINGERPRINT) == fingerprint) {
+                return;
+            }
+            buffer.putInt(offset(existing) + R_DELETED, 1);
+            deletedCount++;
+        }
+        ensureCapacity(count + 1);
+        int node=count;
+        int level=randomLevel();
+        int offset=offset(node);
+        buffer.putLong(offset + R_KEY, key);
+        buffer.putLong(offset + R_FINGERPRINT, fingerprint);
+        buffer.putInt(offset + R_LEVEL, level);
+        buffer.putInt(offset + R_DELETED, 0);
+        for (int i=0; i < dimension; i++) {
+            buffer.putFloat(offset + R_VECTOR + i * Float.BYTES, vector[i]);
+        }
+        for (int l=0; l <= MAX_LEVEL; l++) {
+            buffer.putInt(neighboursOffset(node, l), 0);
+        }
+        count++;
+        nodesByKey.put(key, node);
+        if (entryPoint < 0) {
+            entryPoint=node;
+            topLevel=level;
+            writeHeader();
+            return;
+        }
+        int current=entryPoint;
+        for (int l=topLevel; l > level; l--) {
+            current=searchLayer(vector, current, 1, l).get(0).node();
+        }
+        for (int l=Math.min(level, topLevel); l >= 0; l--) {
+            List<Scored> candidates=searchLayer(vector, current, efConstruction, l);
+            List<Integer> neighbours=selectNeighbours(candidates, l == 0 ? maxNeighboursLevel0 : m);
+            writeNeighbours(node, l, neighbours);
+            for (int neighbour : neighbours) {
+                link(neighbour, node, l);
+            }
+            current=candidates.get(0).node();
+        }
+        if (level > topLevel) {
+            topLevel=level;
+            entryPoint=node;
+        }
+        writeHeader();
+    }
+    List<Result> search(float[] query, int k, int ef) {
+        if (entryPoint < 0 || k <= 0) {
+            return List.of();
+        }
+        if (query.length != dimension) {
+            throw new IllegalArgumentException("Query dimension " + query.length + " does not match index dimension " + dimension);
+        }
+        int current=entryPoint;
+        for (int l=topLevel; l > 0; l--) {
+            current=searchLayer(query, current, 1, l).get(0).node();
+        }
+        // tombstones still take beam slots, so the beam is widened by up to its own size to keep k live results reachable
+        int width=Math.max(ef, k);
+        List<Result> results=new ArrayList<>(k);
+        for (Scored scored : searchLayer(query, current, width + Math.min(deletedCount, width), 0)) {
+            int offset=offset(scored.node());
+            if (buffer.getInt(offset + R_DELETED) == 0) {
+                results.add(new Result(buffer.getLong(offset + R_KEY), 1 - scored.distance()));
+                if (results.size() == k) {
+                    break;
+                }
+            }
+        }
+        return results;
+    }
+    Map<String, Object> stats() {
+        Map<String, Object> stats=new LinkedHashMap<>();
+        stats.put("file", path.toString());
+        stats.put("dimension", dimension);
+        stats.put("m", m);
+        stats.put("liveNodes", nodesByKey.size());
+        stats.put("tombstonedNodes", deletedCount);
+        stats.put("capacity", capacity);
+        stats.put("topLevel", topLevel);
+        stats.put("mappedBytes", HEADER_BYTES + (long) capacity * recordBytes);
+        return stats;
+    }
+    // rebuilds the graph from the live nodes only into a new file; this index is left untouched
+    void compactTo(Path target) throws IOException {
+        HnswIndex rebuilt=create(target, dimension, m, efConstruction, nodesByKey.size());
+        try {
+            float[] vector=new float[dimension];
+            for (int node=0; node < count; node++) {
+                int offset=offset(node);
+                if (buffer.getInt(offset + R_DELETED) != 0) {
+                    continue;
+                }
+                int base=(offset + R_VECTOR) / Float.BYTES;
+                for (int i=0; i < dimension; i++) {
+                    vector[i]=floats.get(base + i);
+                }
+                rebuilt.upsert(buffer.getLong(offset + R_KEY), buffer.getLong(offset + R_FINGERPRINT), vector);
+            }
+            rebuilt.close();
+        } catch (IOException | RuntimeException e) {
+            rebuilt.closeAndDelete();
+            throw e;
+        }
+    }
+    void force() {
+        buffer.force();
+    }
+    void close() throws IOException {
+        buffer.force();
+        channel.close();
+    }
+    void closeAndDelete() throws IOException {
+        channel.close();
+        Files.deleteIfExists(path);
+    }
+    // standard HNSW beam search on one layer; returns up to ef nodes ordered nearest first
+    private List<Scored> searchLayer(float[] query, int entry, int ef, int level) {
+        BitSet visited=new BitSet(count);
+        visited.set(entry);
+        Scored start=new Scored(entry, distance(query, entry));
+        PriorityQueue<Scored> candidates=new PriorityQueue<>(BY_DISTANCE);
+        PriorityQueue<Scored> results=new PriorityQueue<>(BY_DISTANCE.reversed());
+        candidates.add(start);
+        results.add(start);
+        while (!candidates.isEmpty()) {
+            Scored closest=candidates.poll();
+            if (results.size() >= ef && closest.distance() > results.peek().distance()) {
+                break;
+            }
+            int base=neighboursOffset(closest.node(), level);
+            int neighbourCount=buffer.getInt(base);
+            for (int i=0; i < neighbourCount; i++) {
+                int neighbour=buffer.getInt(base + Integer.BYTES * (1 + i));
+                // a link past count can only come from an insert interrupted before its header update
+                if (neighbour >= count || visited.get(neighbour)) {
+                    continue;
+                }
+                visited.set(neighbour);
+                float d=distance(query, neighbour);
+                if (results.size() < ef || d < results.peek().distance()) {
+                    Scored scored=new Scored(neighbour, d);
+                    candidates.add(scored);
+                    results.add(scored);
+                    if (results.size() > ef) {
+                        results.poll();
+                    }
+                }
+            }
+        }
+        List<Scored> ordered=new ArrayList<>(results);
+        ordered.sort(BY_DISTANCE);
+        return ordered;
+    }
+    // neighbour selection heuristic from the HNSW paper: skip a candidate that is closer to an already chosen neighbour than to the base,
+    // which keeps links spread across clusters; pruned candidates back-fill any remaining slots
+    private List<Integer> selectNeighbours(List<Scored> candidates, int max) {
+        List<Integer> selected=new ArrayList<>(max);
+        List<Integer> pruned=new ArrayList<>();
+        for (Scored candidate : candidates) {
+            if (selected.size() >= max) {
+                break;
+            }
+            boolean diverse=true;
+            for (int chosen : selected) {
+                if (distance(candidate.node(), chosen) < candidate.distance()) {
+                    diverse=false;
+                    break;
+                }
+            }
+            if (diverse) {
+                selected.add(candidate.node());
+            } else {
+                pruned.add(candidate.node());
+            }
+        }
+        for (int i=0; i < pruned.size() && selected.size() < max; i++) {
+            selected.add(pruned.get(i));
+        }
+        return selected;
+    }
+    private void link(int from, int to, int level) {
+        int max=level == 0 ? maxNeighboursLevel0 : m;
+        int base=neighboursOffset(from, level);
+        int neighbourCount=buffer.getInt(base);
+        if (neighbourCount < max) {
+            buffer.putInt(base + Integer.BYTES * (1 + neighbourCount), to);
+            buffer.putInt(base, neighbourCount + 1);
+            return;
+        }
+        List<Scored> candidates=new ArrayList<>(neighbourCount + 1);
+        for (int i=0; i < neighbourCount; i++) {
+            int neighbour=buffer.getInt(base + Integer.BYTES * (1 + i));
+            candidates.add(new Scored(neighbour, distance(from, neighbour)));
+        }
+        candidates.add(new Scored(to, distance(from, to)));
+        candidates.sort(BY_DISTANCE);
+        writeNeighbours(from, level, selectNeighbours(candidates, max));
+    }
+    private void writeNeighbours(int node, int level, List<Integer> neighbours) {
+        int base=neighboursOffset(node, level);
+        buffer.putInt(base, neighbours.size());
+        for (int i=0; i < neighbours.size(); i++) {
+            buffer.putInt(base + Integer.BYTES * (1 + i), neighbours.get(i));
+        }
+    }
+    private float distance(float[] query, int node) {
+        int base=(offset(node) + R_VECTOR) / Float.BYTES;
+        float dot=0;
+        for (int i=0; i < dimension; i++) {
+            dot += query[i] * floats.get(base + i);
+        }
+        return 1 - dot;
+    }
+    private float distance(int a, int b) {
+        int baseA=(offset(a) + R_VECTOR) / Float.BYTES;
+        int baseB=(offset(b) + R_VECTOR) / Float.BYTES;
+        float dot=0;
+        for (int i=0; i < dimension; i++) {
+            dot += floats.get(baseA + i) * floats.get(baseB + i);
+        }
+        return 1 - dot;
+    }
+    private int randomLevel() {
+        return (int) Math.min(MAX_LEVEL, Math.floor(-Math.log(1 - random.nextDouble()) * levelMultiplier));
+    }
+    private int offset(int node) {
+        return HEADER_BYTES + node * recordBytes;
+    }
+    private int neighboursOffset(int node, int level) {
+        int base=offset(node) + level0Offset;
+        if (level == 0) {
+            return base;
+        }
+        return base + Integer.BYTES * (1 + maxNeighboursLevel0) + (level - 1) * Integer.BYTES * (1 + m);
+    }
+    private void ensureCapacity(int required) throws IOException {
+        if (required <= capacity) {
+            return;
+        }
+        long grown=Math.max(required, (long) capacity * 2);
+        long maxNodes=(Integer.MAX_VALUE - HEADER_BYTES) / recordBytes;
+        if (required > maxNodes) {
+            throw new IOException("Vector index is full (" + maxNodes + " nodes of dimension " + dimension + ")");
+        }
+        buffer.force();
+        capacity=(int) Math.min(grown, maxNodes);
+        map();
+        writeHeader();
+    }
+    // a single mapping covers header and all records; growing the file just remaps it at the larger size
+    private void map() throws IOException {
+        buffer=channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_BYTES + (long) capacity * recordBytes);
+        buffer.order(ByteOrder.LITTLE_ENDIAN);
+        // records are 4-byte aligned, so vectors can be read through a float view indexed by offset / 4
+        floats=buffer.asFloatBuffer();
+    }
+    private void writeHeader() {
+        buffer.putInt(H_COUNT, count);
+        buffer.putInt(H_CAPACITY, capacity);
+        buffer.putInt(H_ENTRY_POINT, entryPoint);
+        buffer.putInt(H_TOP_LEVEL, topLevel);
+    }
+    record Result(long key, double similarity) {
+    }
+    private record Scored(int node, float distance) {
+    }
+}
@@ -0,0 +1,223 @@
+package com.ai.recruitmentai.index;
+import com.ai.recruitmentai.config.AsyncConfig;
+import com.ai.recruitmentai.repository.CandidateRepository;
+import com.ai.recruitmentai.repository.CandidateRepository.CvJsonRef;
+import com.ai.recruitmentai.util.SkillNormalizer;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Component;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+// inverted index from interned skill IDs to a bitmap of candidate ordinals; a job is scored against every candidate in one pass over its required skills
+@Component
+public class SkillIndex {
+    private static final Logger log=LoggerFactory.getLogger(SkillIndex.class);
+    private static final int LOAD_PAGE_SIZE=500;
+    private final CandidateRepository candidateRepository;
+    private final ObjectMapper objectMapper;
+    private final ReentrantReadWriteLock lock=new ReentrantReadWriteLock();
+    private final Map<String, Integer> skillIds=new HashMap<>();
+    private final List<BitSet> postings=new ArrayList<>();
+    private final Map<Long, Integer> ordinals=new HashMap<>();
+    private final List<Long> candidateIds=new ArrayList<>();
+    private final List<int[]> candidateSkills=new ArrayList<>();
+    private final BitSet live=new BitSet();
+    private volatile boolean loaded;
+
+    public SkillIndex(CandidateRepository candidateRepository, ObjectMapper objectMapper) {
+        this.candidateRepository=candidateRepository;
+        this.objectMapper=objectMapper;
+    }
+
+    @Async(AsyncConfig.INDEX_EXECUTOR_BEAN_NAME)
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        ensureLoaded();
+    }
+
+    // first use (or startup warm-up) builds the index from parsed CVs in keyset-paged batches; later changes arrive through indexCandidate/removeCandidate
+    public synchronized void ensureLoaded() {
+        if (loaded) {
+            return;
+        }
+        long start=System.nanoTime();
+        long lastId=0;
+        int indexed=0;
+        while (true) {
+            List<CvJsonRef> page=candidateRepository.findParsedCvJsonAfter(lastId, PageRequest.of(0, LOAD_PAGE_SIZE));
+            for (CvJsonRef ref : page) {
+                indexCandidate(ref.getId(), skillsFromCvJson(ref.getExtractedCvJson()));
+                indexed++;
+                lastId=ref.getId();
+            }
+            if (page.size() < LOAD_PAGE_SIZE) {
+                break;
+            }
+        }
+        loaded=true;
+        log.info("Skill index built for {} candidates ({} distinct skills) in {} ms.", indexed, skillCount(), (System.nanoTime() - start) / 1_000_000);
+    }
+
+    public List<String> skillsFromCvJson(String extractedCvJson) {
+        List<String> skills=new ArrayList<>();
+        if (extractedCvJson == null || extractedCvJson.isBlank()) {
+            return skills;
+        }
+        try {
+            JsonNode skillsNode=objectMapper.readTree(extractedCvJson).path("skills");
+            skillsNode.forEach(node -> {
+                if (node.isTextual()) {
+                    skills.add(node.asText());
+                }
+            });
+        } catch (JsonProcessingException e) {
+            log.debug("Could not read skills from CV JSON: {}", e.getMessage());
+        }
+        return skills;
+    }
+
+    public void indexCandidate(Long candidateId, List<String> skills) {
+        List<String> keys=SkillNormalizer.normalizeAll(skills);
+        lock.writeLock().lock();
+        try {
+            int ordinal=ordinals.computeIfAbsent(candidateId, id -> {
+                candidateIds.add(id);
+                candidateSkills.add(new int[0]);
+                return candidateIds.size() - 1;
+            });
+            for (int skillId : candidateSkills.get(ordinal)) {
+                postings.get(skillId).clear(ordinal);
+            }
+            int[] ids=new int[keys.size()];
+            for (int i=0; i < keys.size(); i++) {
+                ids[i]=intern(keys.get(i));
+                postings.get(ids[i]).set(ordinal);
+            }
+            candidateSkills.set(ordinal, ids);
+            live.set(ordinal);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void removeCandidate(Long candidateId) {
+        lock.writeLock().lock();
+        try {
+            Integer ordinal=ordinals.get(candidateId);
+            if (ordinal == null) {
+                return;
+            }
+            for (int skillId : candidateSkills.get(ordinal)) {
+                postings.get(skillId).clear(ordinal);
+            }
+            candidateSkills.set(ordinal, new int[0]);
+            live.clear(ordinal);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // returns every candidate sharing at least minMatched required skills, best overlap first
+    public List<SkillMatch> score(Collection<String> requiredSkills, int minMatched) {
+        ensureLoaded();
+        List<String> required=SkillNormalizer.normalizeAll(new ArrayList<>(requiredSkills));
+        if (required.isEmpty()) {
+            return List.of();
+        }
+        lock.readLock().lock();
+        try {
+            int[] counts=new int[candidateIds.size()];
+            for (String key : required) {
+                Integer skillId=skillIds.get(key);
+                if (skillId == null) {
+                    continue;
+                }
+                BitSet posting=postings.get(skillId);
+                for (int ordinal=posting.nextSetBit(0); ordinal >= 0; ordinal=posting.nextSetBit(ordinal + 1)) {
+                    counts[ordinal]++;
+                }
+            }
+            int threshold=Math.max(1, minMatched);
+            List<SkillMatch> matches=new ArrayList<>();
+            for (int ordinal=live.nextSetBit(0); ordinal >= 0; ordinal=live.nextSetBit(ordinal + 1)) {
+                if (counts[ordinal] >= threshold) {
+                    matches.add(new SkillMatch(candidateIds.get(ordinal), counts[ordinal], required.size(), 100.0 * counts[ordinal] / required.size()));
+                }
+            }
+            matches.sort((a, b) -> Integer.compare(b.matched(), a.matched()));
+            return matches;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // which of the (normalized) required skills one candidate has, for justifications
+    public SkillOverlap explain(Long candidateId, Collection<String> requiredSkills) {
+        List<String> required=SkillNormalizer.normalizeAll(new ArrayList<>(requiredSkills));
+        List<String> matched=new ArrayList<>();
+        List<String> missing=new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            Integer ordinal=ordinals.get(candidateId);
+            for (String key : required) {
+                Integer skillId=skillIds.get(key);
+                if (ordinal != null && skillId != null && postings.get(skillId).get(ordinal)) {
+                    matched.add(key);
+                } else {
+                    missing.add(key);
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return new SkillOverlap(matched, missing);
+    }
+
+    public Map<String, Object> getStats() {
+        lock.readLock().lock();
+        try {
+            Map<String, Object> stats=new LinkedHashMap<>();
+            stats.put("loaded", loaded);
+            stats.put("candidates", live.cardinality());
+            stats.put("distinctSkills", skillIds.size());
+            return stats;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private int skillCount() {
+        lock.readLock().lock();
+        try {
+            return skillIds.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private int intern(String key) {
+        return skillIds.computeIfAbsent(key, k -> {
+            postings.add(new BitSet());
+            return postings.size() - 1;
+        });
+    }
+
+    public record SkillMatch(Long candidateId, int matched, int required, double score) {
+    }
+
+    public record SkillOverlap(List<String> matched, List<String> missing) {
+    }
+}
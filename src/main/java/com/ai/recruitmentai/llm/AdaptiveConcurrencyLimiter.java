@@ -0,0 +1,176 @@
+package com.ai.recruitmentai.llm;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+// AIMD controller for the per-model bulkhead limit: probes +1 while throughput keeps improving, backs off multiplicatively on regressions or overload.
+// The limit and its min/max bounds are per healthy endpoint; the bulkhead multiplies them by the endpoints currently taking traffic
+@Component
+public class AdaptiveConcurrencyLimiter {
+    private static final Logger log=LoggerFactory.getLogger(AdaptiveConcurrencyLimiter.class);
+    private final OllamaBulkhead bulkhead;
+    private final boolean enabled;
+    private final int minLimit;
+    private final int maxLimit;
+    private final int windowSize;
+    private final double backoffRatio;
+    private final double tolerance;
+    private final long latencyCeilingNanos;
+    private final Map<String, ModelWindow> windows=new ConcurrentHashMap<>();
+
+    public AdaptiveConcurrencyLimiter(OllamaBulkhead bulkhead,
+                                      @Value("${ollama.limiter.adaptive.enabled:true}") boolean enabled,
+                                      @Value("${ollama.limiter.min-concurrency:1}") int minLimit,
+                                      @Value("${ollama.limiter.max-concurrency:8}") int maxLimit,
+                                      @Value("${ollama.limiter.window-size:6}") int windowSize,
+                                      @Value("${ollama.limiter.backoff-ratio:0.75}") double backoffRatio,
+                                      @Value("${ollama.limiter.tolerance:0.05}") double tolerance,
+                                      @Value("${ollama.http.read-timeout-seconds:120}") long readTimeoutSeconds) {
+        this.bulkhead=bulkhead;
+        this.enabled=enabled;
+        this.minLimit=Math.max(1, minLimit);
+        this.maxLimit=Math.max(this.minLimit, maxLimit);
+        this.windowSize=Math.max(1, windowSize);
+        this.backoffRatio=backoffRatio;
+        this.tolerance=tolerance;
+        // back off well before requests start hitting the transport read timeout
+        this.latencyCeilingNanos=TimeUnit.SECONDS.toNanos(readTimeoutSeconds) * 3 / 4;
+    }
+    public void onSuccess(String model, long latencyNanos, long generatedTokens) {
+        ModelBulkhead modelBulkhead=bulkhead.bulkheadFor(model);
+        boolean saturated=modelBulkhead.getInFlight() >= modelBulkhead.getCapacity();
+        ModelWindow window=windows.computeIfAbsent(model, m -> new ModelWindow());
+        synchronized (window) {
+            window.record(latencyNanos, generatedTokens, saturated);
+            if (window.samples >= windowSize) {
+                adjust(model, modelBulkhead, window);
+            }
+        }
+    }
+    public void onOverload(String model) {
+        ModelBulkhead modelBulkhead=bulkhead.bulkheadFor(model);
+        ModelWindow window=windows.computeIfAbsent(model, m -> new ModelWindow());
+        synchronized (window) {
+            window.overloads++;
+            if (enabled) {
+                int current=modelBulkhead.getLimit();
+                int decreased=decrease(current);
+                if (decreased != current) {
+                    modelBulkhead.setLimit(decreased);
+                    window.decreases++;
+                    log.warn("Ollama overload signal for model {}: concurrency limit per endpoint {} -> {}", model, current, decreased);
+                }
+                window.lastAdjustment=-1;
+                window.reset();
+            }
+        }
+    }
+    public Map<String, Object> getStats() {
+        Map<String, Object> perModel=new TreeMap<>();
+        windows.forEach((model, window) -> {
+            ModelBulkhead modelBulkhead=bulkhead.bulkheadFor(model);
+            synchronized (window) {
+                Map<String, Object> stats=new LinkedHashMap<>();
+                stats.put("limitPerEndpoint", modelBulkhead.getLimit());
+                stats.put("capacity", modelBulkhead.getCapacity());
+                stats.put("inFlight", modelBulkhead.getInFlight());
+                stats.put("tokensPerSecond", window.lastThroughput);
+                stats.put("bestTokensPerSecond", window.bestThroughput);
+                stats.put("averageLatencyMillis", window.lastAverageLatencyMillis);
+                stats.put("completedCalls", window.totalCalls);
+                stats.put("generatedTokens", window.totalTokens);
+                stats.put("increases", window.increases);
+                stats.put("decreases", window.decreases);
+                stats.put("overloadSignals", window.overloads);
+                perModel.put(model, stats);
+            }
+        });
+        Map<String, Object> stats=new LinkedHashMap<>();
+        stats.put("adaptive", enabled);
+        stats.put("minLimitPerEndpoint", minLimit);
+        stats.put("maxLimitPerEndpoint", maxLimit);
+        stats.put("windowSize", windowSize);
+        stats.put("models", perModel);
+        return stats;
+    }
+    private void adjust(String model, ModelBulkhead modelBulkhead, ModelWindow window) {
+        long elapsedNanos=Math.max(1, System.nanoTime() - window.windowStartNanos);
+        double throughput=window.tokens * 1_000_000_000.0 / elapsedNanos;
+        long averageLatencyNanos=window.latencyNanos / window.samples;
+        window.lastAverageLatencyMillis=averageLatencyNanos / 1_000_000.0;
+        double previous=window.lastThroughput;
+        window.lastThroughput=throughput;
+        window.bestThroughput=Math.max(window.bestThroughput, throughput);
+        if (!enabled) {
+            window.reset();
+            return;
+        }
+        int current=modelBulkhead.getLimit();
+        int next=current;
+        if (averageLatencyNanos > latencyCeilingNanos) {
+            next=decrease(current);
+        } else if (window.lastAdjustment > 0 && previous > 0 && throughput < previous * (1 - tolerance)) {
+            // the last probe made things worse: the server is past its sweet spot
+            next=decrease(current);
+        } else if (window.lastAdjustment > 0 && previous > 0 && throughput < previous * (1 + tolerance)) {
+            // plateau: more parallelism no longer buys throughput, hold here
+            next=current;
+        } else if (window.saturatedSamples * 2 >= window.samples) {
+            next=Math.min(maxLimit, current + 1);
+        }
+        if (next != current) {
+            modelBulkhead.setLimit(next);
+            if (next > current) {
+                window.increases++;
+            } else {
+                window.decreases++;
+            }
+            log.info("Adaptive limiter for model {}: {} tok/s at limit {} per endpoint (avg latency {} ms) -> limit {}",
+                    model, String.format("%.1f", throughput), current, (long) window.lastAverageLatencyMillis, next);
+        }
+        window.lastAdjustment=Integer.compare(next, current);
+        window.reset();
+    }
+    private int decrease(int current) {
+        return Math.max(minLimit, Math.min(current - 1, (int) Math.floor(current * backoffRatio)));
+    }
+    private static final class ModelWindow {
+        private long windowStartNanos=System.nanoTime();
+        private int samples;
+        private int saturatedSamples;
+        private long tokens;
+        private long latencyNanos;
+        private int lastAdjustment;
+        private double lastThroughput;
+        private double bestThroughput;
+        private double lastAverageLatencyMillis;
+        private long totalCalls;
+        private long totalTokens;
+        private long increases;
+        private long decreases;
+        private long overloads;
+
+        private void record(long latency, long generatedTokens, boolean saturated) {
+            samples++;
+            if (saturated) {
+                saturatedSamples++;
+            }
+            tokens += generatedTokens;
+            latencyNanos += latency;
+            totalCalls++;
+            totalTokens += generatedTokens;
+        }
+        private void reset() {
+            windowStartNanos=System.nanoTime();
+            samples=0;
+            saturatedSamples=0;
+            tokens=0;
+            latencyNanos=0;
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package com.ai.recruitmentai.llm;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+// one in-flight call per key: the first caller (the leader) runs it, concurrent callers with the same key wait for its result or failure
+public class Flights<T> {
+    private final Map<String, CompletableFuture<T>> inFlight=new ConcurrentHashMap<>();
+    private final AtomicLong leaders=new AtomicLong();
+    private final AtomicLong coalesced=new AtomicLong();
+
+    // recheck runs inside the flight, so a caller arriving just after a leader finished and stored its result does not repeat the call
+    public T execute(String key, Supplier<Optional<T>> recheck, Supplier<T> call) {
+        CompletableFuture<T> flight=new CompletableFuture<>();
+        CompletableFuture<T> existing=inFlight.putIfAbsent(key, flight);
+        if (existing != null) {
+            coalesced.incrementAndGet();
+            return await(existing);
+        }
+        try {
+            Optional<T> stored=recheck.get();
+            T result;
+            if (stored.isPresent()) {
+                result=stored.get();
+            } else {
+                leaders.incrementAndGet();
+                result=call.get();
+            }
+            flight.complete(result);
+            return result;
+        } catch (Throwable e) {
+            // followers already waiting must be released whatever went wrong, Errors included
+            flight.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, flight);
+        }
+    }
+
+    public long getLeaders() {
+        return leaders.get();
+    }
+
+    public long getCoalesced() {
+        return coalesced.get();
+    }
+
+    public int size() {
+        return inFlight.size();
+    }
+
+    private static <T> T await(CompletableFuture<T> flight) {
+        try {
+            return flight.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof Error cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package com.ai.recruitmentai.llm;
+// tracks brace depth over streamed output; text before the first '{' (e.g. a ```json fence) is skipped
+final class JsonObjectBoundaryDetector {
+    private boolean started;
+    private boolean inString;
+    private boolean escaped;
+    private int depth;
+
+    // returns the index in chunk of the brace closing the top-level object, or -1 while it is still open
+    int feed(CharSequence chunk) {
+        for (int i=0; i < chunk.length(); i++) {
+            char c=chunk.charAt(i);
+            if (!started) {
+                if (c == '{') {
+                    started=true;
+                    depth=1;
+                }
+                continue;
+            }
+            if (inString) {
+                if (escaped) {
+                    escaped=false;
+                } else if (c == '\\') {
+                    escaped=true;
+                } else if (c == '"') {
+                    inString=false;
+                }
+                continue;
+            }
+            switch (c) {
+                case '"' -> inString=true;
+                case '{', '[' -> depth++;
+                case '}', ']' -> {
+                    depth--;
+                    if (depth == 0) {
+                        return i;
+                    }
+                }
+                default -> { }
+            }
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,75 @@
+package com.ai.recruitmentai.llm;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.Map;
+public final class JsonSchemaGenerator {
+    private static final JsonNodeFactory NODES=JsonNodeFactory.instance;
+    private JsonSchemaGenerator() {
+        throw new UnsupportedOperationException("This is a utility class and cannot be instantiated");
+    }
+    // builds the JSON schema Ollama's "format" parameter expects from a DTO's declared fields
+    public static ObjectNode schemaFor(Class<?> type) {
+        ObjectNode schema=NODES.objectNode();
+        schema.put("type", "object");
+        ObjectNode properties=schema.putObject("properties");
+        ArrayNode required=schema.putArray("required");
+        for (Field field : type.getDeclaredFields()) {
+            if (Modifier.isStatic(field.getModifiers()) || Modifier.isTransient(field.getModifiers())
+                    || field.isAnnotationPresent(JsonIgnore.class)) {
+                continue;
+            }
+            JsonProperty jsonProperty=field.getAnnotation(JsonProperty.class);
+            String name=jsonProperty != null && !jsonProperty.value().isEmpty() ? jsonProperty.value() : field.getName();
+            properties.set(name, schemaForType(field.getGenericType()));
+            required.add(name);
+        }
+        return schema;
+    }
+    private static ObjectNode schemaForType(Type type) {
+        ObjectNode schema=NODES.objectNode();
+        if (type instanceof ParameterizedType parameterized && parameterized.getRawType() instanceof Class<?> raw) {
+            Type[] arguments=parameterized.getActualTypeArguments();
+            if (Collection.class.isAssignableFrom(raw)) {
+                schema.put("type", "array");
+                schema.set("items", schemaForType(arguments[0]));
+                return schema;
+            }
+            if (Map.class.isAssignableFrom(raw)) {
+                schema.put("type", "object");
+                schema.set("additionalProperties", schemaForType(arguments[1]));
+                return schema;
+            }
+            return schemaForType(raw);
+        }
+        if (!(type instanceof Class<?> clazz)) {
+            schema.put("type", "string");
+            return schema;
+        }
+        if (CharSequence.class.isAssignableFrom(clazz) || clazz.isEnum()) {
+            schema.put("type", "string");
+        } else if (clazz == Integer.class || clazz == int.class || clazz == Long.class || clazz == long.class
+                || clazz == Short.class || clazz == short.class) {
+            schema.put("type", "integer");
+        } else if (clazz == Double.class || clazz == double.class || clazz == Float.class || clazz == float.class
+                || clazz == BigDecimal.class) {
+            schema.put("type", "number");
+        } else if (clazz == Boolean.class || clazz == boolean.class) {
+            schema.put("type", "boolean");
+        } else if (clazz.isArray()) {
+            schema.put("type", "array");
+            schema.set("items", schemaForType(clazz.getComponentType()));
+        } else {
+            return schemaFor(clazz);
+        }
+        return schema;
+    }
+}
@@ -0,0 +1,132 @@
+package com.ai.recruitmentai.llm;
+import com.ai.recruitmentai.exception.LlmInteractionException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.IntSupplier;
+// counting permit gate for one model; unlike Semaphore the limit can be changed while calls are in flight. The limit is per endpoint:
+// the gate admits limit x the endpoints currently taking traffic, so adding a server adds capacity and ejecting one takes it away
+final class ModelBulkhead {
+    private final String model;
+    private final IntSupplier endpoints;
+    private final ReentrantLock lock=new ReentrantLock(true);
+    private final Condition permitReleased=lock.newCondition();
+    private int limit;
+    private int inFlight;
+    private int waiting;
+    private int peakWaiting;
+    private long acquired;
+    private long rejected;
+    private long timedOut;
+    private long totalWaitNanos;
+
+    ModelBulkhead(String model, int limit, IntSupplier endpoints) {
+        this.model=model;
+        this.limit=limit;
+        this.endpoints=endpoints;
+    }
+    void acquire(long timeoutNanos, int maxQueued) {
+        lock.lock();
+        try {
+            if (inFlight < capacity() && waiting == 0) {
+                inFlight++;
+                acquired++;
+                return;
+            }
+            if (waiting >= maxQueued) {
+                rejected++;
+                throw new LlmInteractionException("Too many queued LLM requests for model " + model + " (" + waiting + " waiting).");
+            }
+            waiting++;
+            peakWaiting=Math.max(peakWaiting, waiting);
+            long start=System.nanoTime();
+            long remaining=timeoutNanos;
+            try {
+                while (inFlight >= capacity()) {
+                    if (remaining <= 0) {
+                        timedOut++;
+                        throw new LlmInteractionException("Timed out after " + TimeUnit.NANOSECONDS.toSeconds(timeoutNanos)
+                                + "s waiting for an LLM slot for model " + model + ".");
+                    }
+                    remaining=permitReleased.awaitNanos(remaining);
+                }
+                inFlight++;
+                acquired++;
+                totalWaitNanos += System.nanoTime() - start;
+            } finally {
+                waiting--;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new LlmInteractionException("Interrupted while waiting for an LLM slot for model " + model + ".", e);
+        } finally {
+            lock.unlock();
+        }
+    }
+    void release() {
+        lock.lock();
+        try {
+            inFlight--;
+            permitReleased.signal();
+        } finally {
+            lock.unlock();
+        }
+    }
+    void setLimit(int newLimit) {
+        lock.lock();
+        try {
+            limit=newLimit;
+            permitReleased.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+    int getLimit() {
+        lock.lock();
+        try {
+            return limit;
+        } finally {
+            lock.unlock();
+        }
+    }
+    // permits the gate admits right now: the per-endpoint limit times the healthy endpoints
+    int getCapacity() {
+        lock.lock();
+        try {
+            return capacity();
+        } finally {
+            lock.unlock();
+        }
+    }
+    int getInFlight() {
+        lock.lock();
+        try {
+            return inFlight;
+        } finally {
+            lock.unlock();
+        }
+    }
+    Map<String, Object> stats() {
+        lock.lock();
+        try {
+            Map<String, Object> stats=new LinkedHashMap<>();
+            stats.put("limitPerEndpoint", limit);
+            stats.put("capacity", capacity());
+            stats.put("inFlight", inFlight);
+            stats.put("queued", waiting);
+            stats.put("peakQueued", peakWaiting);
+            stats.put("acquired", acquired);
+            stats.put("rejected", rejected);
+            stats.put("timedOut", timedOut);
+            stats.put("averageWaitMillis", acquired == 0 ? 0.0 : totalWaitNanos / 1_000_000.0 / acquired);
+            return stats;
+        } finally {
+            lock.unlock();
+        }
+    }
+    private int capacity() {
+        return limit * Math.max(1, endpoints.getAsInt());
+    }
+}
@@ -0,0 +1,54 @@
+package com.ai.recruitmentai.llm;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+@Component
+public class OllamaBulkhead {
+    private static final Logger log=LoggerFactory.getLogger(OllamaBulkhead.class);
+    private final Map<String, ModelBulkhead> bulkheads=new ConcurrentHashMap<>();
+    private final OllamaEndpointPool endpointPool;
+    private final int maxConcurrent;
+    private final int maxQueued;
+    private final long queueTimeoutNanos;
+
+    public OllamaBulkhead(OllamaEndpointPool endpointPool,
+                          @Value("${ollama.bulkhead.max-concurrent:2}") int maxConcurrent,
+                          @Value("${ollama.bulkhead.max-queued:500}") int maxQueued,
+                          @Value("${ollama.bulkhead.queue-timeout-seconds:600}") long queueTimeoutSeconds) {
+        this.endpointPool=endpointPool;
+        this.maxConcurrent=maxConcurrent;
+        this.maxQueued=maxQueued;
+        this.queueTimeoutNanos=TimeUnit.SECONDS.toNanos(queueTimeoutSeconds);
+        log.info("Ollama bulkhead: maxConcurrent={} per model and healthy endpoint, maxQueued={}, queueTimeout={}s", maxConcurrent, maxQueued, queueTimeoutSeconds);
+    }
+    public <T> T execute(String model, Supplier<T> call) {
+        ModelBulkhead bulkhead=bulkheadFor(model);
+        bulkhead.acquire(queueTimeoutNanos, maxQueued);
+        try {
+            return call.get();
+        } finally {
+            bulkhead.release();
+        }
+    }
+    public Map<String, Object> getStats() {
+        Map<String, Object> perModel=new TreeMap<>();
+        bulkheads.forEach((model, bulkhead) -> perModel.put(model, bulkhead.stats()));
+        Map<String, Object> stats=new LinkedHashMap<>();
+        stats.put("maxConcurrentPerEndpoint", maxConcurrent);
+        stats.put("healthyEndpoints", endpointPool.healthyCount());
+        stats.put("maxQueued", maxQueued);
+        stats.put("queueTimeoutSeconds", TimeUnit.NANOSECONDS.toSeconds(queueTimeoutNanos));
+        stats.put("models", perModel);
+        return stats;
+    }
+    ModelBulkhead bulkheadFor(String model) {
+        return bulkheads.computeIfAbsent(model, m -> new ModelBulkhead(m, maxConcurrent, endpointPool::healthyCount));
+    }
+}
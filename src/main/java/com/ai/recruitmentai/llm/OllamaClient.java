@@ -1,46 +1,254 @@
 package com.ai.recruitmentai.llm;
+import com.ai.recruitmentai.config.OllamaInferenceProperties;
+import com.ai.recruitmentai.config.OllamaInferenceProperties.InferenceProfile;
+import com.ai.recruitmentai.config.RestTemplateConfig;
 import com.ai.recruitmentai.exception.LlmInteractionException;
+import com.ai.recruitmentai.llm.cache.LlmResponseCache;
+import com.ai.recruitmentai.llm.dto.OllamaEmbedRequest;
+import com.ai.recruitmentai.llm.dto.OllamaEmbedResponse;
 import com.ai.recruitmentai.llm.dto.OllamaRequest;
 import com.ai.recruitmentai.llm.dto.OllamaResponse;
 import com.fasterxml.jackson.core.JsonProcessingException; 
 import com.fasterxml.jackson.databind.ObjectMapper; 
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.apache.hc.core5.http.io.EofSensorInputStream;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.*; 
 import org.springframework.stereotype.Service;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.RequestCallback;
+import org.springframework.web.client.ResourceAccessException;
 import org.springframework.web.client.RestClientException;
 import org.springframework.web.client.RestTemplate;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
 @Service
 public class OllamaClient {
     private static final Logger log = LoggerFactory.getLogger(OllamaClient.class);
+    private static final String GENERATE_PATH = "/api/generate";
+    private static final String EMBED_PATH = "/api/embed";
     private final RestTemplate restTemplate; 
     private final ObjectMapper objectMapper;
-    @Value("${ollama.api.url}") 
-    private String ollamaApiUrl;
+    private final LlmResponseCache responseCache;
+    private final OllamaBulkhead bulkhead;
+    private final AdaptiveConcurrencyLimiter concurrencyLimiter;
+    private final SingleFlight singleFlight;
+    private final OllamaEndpointPool endpointPool;
+    private final OllamaInferenceProperties inferenceProperties;
     @Value("${ollama.model.name}") 
     private String ollamaModelName;
-    public OllamaClient(RestTemplate restTemplate, ObjectMapper objectMapper) {
+    @Value("${ollama.streaming.enabled:true}")
+    private boolean streamingEnabled;
+    @Value("${ollama.structured-output.enabled:true}")
+    private boolean structuredOutputEnabled;
+    @Value("${ollama.embedding.model:nomic-embed-text}")
+    private String embeddingModelName;
+    private final Map<PromptType, ObjectNode> outputSchemas = new EnumMap<>(PromptType.class);
+    public OllamaClient(@Qualifier(RestTemplateConfig.OLLAMA_REST_TEMPLATE_BEAN_NAME) RestTemplate restTemplate,
+                        ObjectMapper objectMapper,
+                        LlmResponseCache responseCache,
+                        OllamaBulkhead bulkhead,
+                        AdaptiveConcurrencyLimiter concurrencyLimiter,
+                        SingleFlight singleFlight,
+                        OllamaEndpointPool endpointPool,
+                        OllamaInferenceProperties inferenceProperties) {
         this.restTemplate = restTemplate;
         this.objectMapper = objectMapper;
+        this.responseCache = responseCache;
+        this.bulkhead = bulkhead;
+        this.concurrencyLimiter = concurrencyLimiter;
+        this.singleFlight = singleFlight;
+        this.endpointPool = endpointPool;
+        this.inferenceProperties = inferenceProperties;
+        for (PromptType promptType : PromptType.values()) {
+            if (promptType.getOutputType() != null) {
+                outputSchemas.put(promptType, JsonSchemaGenerator.schemaFor(promptType.getOutputType()));
+            }
+        }
+    }
+    public String generate(PromptType promptType, String prompt) {
+        return cached(promptType, prompt, false, () -> execute(endpoint -> requestCompletion(endpoint, buildRequest(promptType, prompt, false))));
+    }
+    public String generateJson(PromptType promptType, String prompt) {
+        return cached(promptType, prompt, true, () -> completeJson(promptType, prompt));
+    }
+    // prefix + suffix is the full prompt, sent as one request so the model's template wraps all of it; keeping the prefix byte-identical
+    // across calls lets the runner reuse its KV cache for those tokens. Cached under its own key so it never shares answers with generateJson
+    public String generateJsonWithSharedPrefix(PromptType promptType, String prefix, String suffix) {
+        String prompt = prefix + suffix;
+        return cached(promptType, promptType.name() + ":shared-prefix", prompt, true, () -> completeJson(promptType, prompt));
+    }
+    private String completeJson(PromptType promptType, String prompt) {
+        if (streamingEnabled) {
+            OllamaRequest request = buildRequest(promptType, prompt, true);
+            return execute(endpoint -> streamCompletion(endpoint, request, chunk -> { }, true));
+        }
+        return execute(endpoint -> requestCompletion(endpoint, buildRequest(promptType, prompt, false)));
+    }
+    private String cached(PromptType promptType, String prompt, boolean requireJsonObject, Supplier<String> call) {
+        return cached(promptType, promptType.name(), prompt, requireJsonObject, call);
+    }
+    private String cached(PromptType promptType, String cacheNamespace, String prompt, boolean requireJsonObject, Supplier<String> call) {
+        if (!isDeterministic(promptType)) {
+            log.debug("not caching {} prompt because it is sampled with a non-zero temperature.", promptType);
+            return call.get();
+        }
+        String cacheKey = LlmResponseCache.keyFor(ollamaModelName, cacheNamespace, requestOptions(promptType), prompt);
+        Optional<String> cachedResponse = responseCache.get(cacheKey);
+        if (cachedResponse.isPresent()) {
+            log.info("serving {} prompt from the LLM response cache.", promptType);
+            return cachedResponse.get();
+        }
+        return singleFlight.execute(cacheKey, () -> responseCache.get(cacheKey), () -> {
+            String response = call.get();
+            if (!requireJsonObject || looksLikeJsonObject(response)) {
+                responseCache.put(cacheKey, response);
+            } else {
+                log.debug("not caching {} response because it is not a JSON object.", promptType);
+            }
+            return response;
+        });
+    }
+    // a sampled answer is meant to differ between calls, so replaying a cached one would defeat it; Ollama samples at 0.8 unless told otherwise
+    private boolean isDeterministic(PromptType promptType) {
+        Double temperature = inferenceProperties.profileFor(promptType).getTemperature();
+        return temperature != null && temperature == 0.0;
+    }
+    // the parts of a request besides the prompt that change the answer, so a changed profile or schema never serves an answer made under the old one
+    private String requestOptions(PromptType promptType) {
+        OllamaRequest request = buildRequest(promptType, "", false);
+        Map<String, Object> signature = new LinkedHashMap<>();
+        signature.put("format", request.getFormat());
+        signature.put("options", request.getOptions());
+        try {
+            return objectMapper.writeValueAsString(signature);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialise the " + promptType + " request options.", e);
+        }
+    }
+    private static boolean looksLikeJsonObject(String response) {
+        String cleaned = response.trim();
+        if (cleaned.startsWith("```json")) cleaned = cleaned.substring(7);
+        if (cleaned.endsWith("```")) cleaned = cleaned.substring(0, cleaned.length() - 3);
+        cleaned = cleaned.trim();
+        return cleaned.startsWith("{") && cleaned.endsWith("}");
+    }
+    public String getModelName() {
+        return ollamaModelName;
+    }
+    public String getEmbeddingModelName() {
+        return embeddingModelName;
+    }
+    public float[] embed(String text) {
+        return execute(embeddingModelName, endpoint -> requestEmbedding(endpoint, text), completion -> completion.embedding());
+    }
+    private String execute(Function<OllamaEndpoint, Completion> call) {
+        return execute(ollamaModelName, call, Completion::text);
+    }
+    // runs one upstream call inside the model's bulkhead on the least loaded endpoint, and feeds its latency and token count to the adaptive limiter
+    private <T> T execute(String model, Function<OllamaEndpoint, Completion> call, Function<Completion, T> result) {
+        return bulkhead.execute(model, () -> {
+            OllamaEndpointPool.Acquired acquired = endpointPool.acquire();
+            long start = System.nanoTime();
+            Completion completion;
+            try {
+                completion = call.apply(acquired.endpoint());
+            } catch (RuntimeException e) {
+                if (e.getCause() instanceof ResourceAccessException || e.getCause() instanceof HttpServerErrorException) {
+                    endpointPool.recordFailure(acquired, e.getMessage());
+                    concurrencyLimiter.onOverload(model);
+                } else {
+                    endpointPool.recordNeutral(acquired);
+                }
+                throw e;
+            } catch (Error e) {
+                // the outcome must still be reported, or the outstanding count and a half-open trial would leak for good
+                endpointPool.recordNeutral(acquired);
+                throw e;
+            }
+            long latency = System.nanoTime() - start;
+            endpointPool.recordSuccess(acquired, latency);
+            concurrencyLimiter.onSuccess(model, latency, completion.generatedTokens());
+            return result.apply(completion);
+        });
+    }
+    // embedding calls report evaluated prompt tokens, which is what the limiter's throughput measure needs for this model
+    private Completion requestEmbedding(OllamaEndpoint endpoint, String text) {
+        log.debug("requesting embedding from Ollama model: {} at {}", embeddingModelName, endpoint.getBaseUrl());
+        try {
+            HttpHeaders headers = new HttpHeaders();
+            headers.setContentType(MediaType.APPLICATION_JSON);
+            OllamaEmbedRequest requestPayload = new OllamaEmbedRequest(embeddingModelName, text,
+                    inferenceProperties.getDefaults().getKeepAlive());
+            HttpEntity<String> entity = new HttpEntity<>(objectMapper.writeValueAsString(requestPayload), headers);
+            ResponseEntity<String> responseEntity = restTemplate.postForEntity(endpoint.url(EMBED_PATH), entity, String.class);
+            if (responseEntity.getStatusCode() != HttpStatus.OK || responseEntity.getBody() == null) {
+                log.error("received non-OK status code from Ollama embeddings: {} - Body: {}", responseEntity.getStatusCode(), responseEntity.getBody());
+                throw new LlmInteractionException("Ollama embeddings API returned status code: " + responseEntity.getStatusCode());
+            }
+            OllamaEmbedResponse embedResponse = objectMapper.readValue(responseEntity.getBody(), OllamaEmbedResponse.class);
+            if (embedResponse.getError() != null) {
+                throw new LlmInteractionException("Ollama embeddings API returned an error: " + embedResponse.getError());
+            }
+            if (embedResponse.getEmbeddings() == null || embedResponse.getEmbeddings().length == 0
+                    || embedResponse.getEmbeddings()[0].length == 0) {
+                throw new LlmInteractionException("Received empty embedding from Ollama.");
+            }
+            long evaluatedTokens = embedResponse.getPromptEvalCount() != null ? embedResponse.getPromptEvalCount() : 0;
+            return new Completion(null, evaluatedTokens, embedResponse.getEmbeddings()[0]);
+        } catch (LlmInteractionException e) {
+            throw e;
+        } catch (JsonProcessingException e) {
+            log.error("error processing JSON for Ollama embeddings request/response", e);
+            throw new LlmInteractionException("error processing JSON for Ollama communication.", e);
+        } catch (RestClientException e) {
+            log.error("error communicating with Ollama embeddings API at {}", endpoint.getBaseUrl(), e);
+            throw new LlmInteractionException("error communicating with Ollama API: " + e.getMessage(), e);
+        }
     }
-    public String generate(String prompt) {
-        log.info("sending prompt to Ollama model: {}", ollamaModelName);
+    private OllamaRequest buildRequest(PromptType promptType, String prompt, boolean stream) {
+        OllamaRequest request = new OllamaRequest(ollamaModelName, prompt, stream);
+        if (structuredOutputEnabled) {
+            request.setFormat(outputSchemas.get(promptType));
+        }
+        InferenceProfile profile = inferenceProperties.profileFor(promptType);
+        Map<String, Object> options = profile.toOptions();
+        request.setOptions(options.isEmpty() ? null : options);
+        request.setKeepAlive(profile.getKeepAlive());
+        return request;
+    }
+    private Completion requestCompletion(OllamaEndpoint endpoint, OllamaRequest requestPayload) {
+        String prompt = requestPayload.getPrompt();
+        log.info("sending prompt to Ollama model: {} at {}", ollamaModelName, endpoint.getBaseUrl());
         log.debug("prompt content (truncated): {}", prompt.substring(0, Math.min(prompt.length(), 200)) + (prompt.length() > 200 ? "..." : ""));
-        OllamaRequest requestPayload = new OllamaRequest(ollamaModelName, prompt, false); 
         try {
             HttpHeaders headers = new HttpHeaders();
             headers.setContentType(MediaType.APPLICATION_JSON);
             String requestBodyJson = objectMapper.writeValueAsString(requestPayload);
             HttpEntity<String> entity = new HttpEntity<>(requestBodyJson, headers);
-            ResponseEntity<String> responseEntity = restTemplate.postForEntity(ollamaApiUrl, entity, String.class);
+            ResponseEntity<String> responseEntity = restTemplate.postForEntity(endpoint.url(GENERATE_PATH), entity, String.class);
             if (responseEntity.getStatusCode() == HttpStatus.OK && responseEntity.getBody() != null) {
                 OllamaResponse ollamaResponse = objectMapper.readValue(responseEntity.getBody(), OllamaResponse.class);
                 log.info("received successful response from Ollama.");
                 log.debug("Response details: model={}, done={}, duration={}",
                         ollamaResponse.getModel(), ollamaResponse.getDone(), ollamaResponse.getTotalDuration());
                 if (ollamaResponse.getResponse() != null && !ollamaResponse.getResponse().isBlank()) {
-                    return ollamaResponse.getResponse().trim(); 
+                    long generatedTokens = ollamaResponse.getEvalCount() != null ? ollamaResponse.getEvalCount() : 0;
+                    return new Completion(ollamaResponse.getResponse().trim(), generatedTokens, null);
                 } else {
                     log.error("Ollama response body was OK but contained no 'response' text.");
                     throw new LlmInteractionException("Received empty response text from Ollama.");
@@ -53,11 +261,101 @@ public class OllamaClient {
             log.error("error processing JSON for Ollama request/response", e);
             throw new LlmInteractionException("error processing JSON for Ollama communication.", e);
         } catch (RestClientException e) {
-            log.error("error communicating with Ollama API at {}", ollamaApiUrl, e);
+            log.error("error communicating with Ollama API at {}", endpoint.getBaseUrl(), e);
             throw new LlmInteractionException("error communicating with Ollama API: " + e.getMessage(), e);
         } catch (Exception e) { // Catch unexpected errors
             log.error("an unexpected error occurred during Ollama interaction", e);
             throw new LlmInteractionException("an unexpected error occurred.", e);
         }
     }
-}
\ No newline at end of file
+    public String generateStream(PromptType promptType, String prompt, Consumer<String> chunkConsumer, boolean stopAtClosedJsonObject) {
+        OllamaRequest requestPayload = buildRequest(promptType, prompt, true);
+        return execute(endpoint -> streamCompletion(endpoint, requestPayload, chunkConsumer, stopAtClosedJsonObject));
+    }
+    private Completion streamCompletion(OllamaEndpoint endpoint, OllamaRequest requestPayload, Consumer<String> chunkConsumer, boolean stopAtClosedJsonObject) {
+        String prompt = requestPayload.getPrompt();
+        log.info("streaming prompt to Ollama model: {} at {}", ollamaModelName, endpoint.getBaseUrl());
+        log.debug("prompt content (truncated): {}", prompt.substring(0, Math.min(prompt.length(), 200)) + (prompt.length() > 200 ? "..." : ""));
+        try {
+            String requestBodyJson = objectMapper.writeValueAsString(requestPayload);
+            RequestCallback requestCallback = request -> {
+                request.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+                request.getBody().write(requestBodyJson.getBytes(StandardCharsets.UTF_8));
+            };
+            Completion completion = restTemplate.execute(endpoint.url(GENERATE_PATH), HttpMethod.POST, requestCallback,
+                    response -> readStream(response, chunkConsumer, stopAtClosedJsonObject));
+            if (completion == null || completion.text().isBlank()) {
+                log.error("Ollama stream completed but contained no 'response' text.");
+                throw new LlmInteractionException("Received empty response text from Ollama.");
+            }
+            return new Completion(completion.text().trim(), completion.generatedTokens(), null);
+        } catch (LlmInteractionException e) {
+            throw e;
+        } catch (JsonProcessingException e) {
+            log.error("error processing JSON for Ollama request/response", e);
+            throw new LlmInteractionException("error processing JSON for Ollama communication.", e);
+        } catch (RestClientException e) {
+            log.error("error communicating with Ollama API at {}", endpoint.getBaseUrl(), e);
+            throw new LlmInteractionException("error communicating with Ollama API: " + e.getMessage(), e);
+        } catch (Exception e) {
+            log.error("an unexpected error occurred during Ollama streaming", e);
+            throw new LlmInteractionException("an unexpected error occurred.", e);
+        }
+    }
+    private Completion readStream(ClientHttpResponse response, Consumer<String> chunkConsumer, boolean stopAtClosedJsonObject) throws IOException {
+        StringBuilder text = new StringBuilder();
+        JsonObjectBoundaryDetector detector = stopAtClosedJsonObject ? new JsonObjectBoundaryDetector() : null;
+        InputStream body = response.getBody();
+        BufferedReader reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8));
+        long generatedTokens = 0;
+        String line;
+        while ((line = reader.readLine()) != null) {
+            if (line.isBlank()) {
+                continue;
+            }
+            OllamaResponse chunk = objectMapper.readValue(line, OllamaResponse.class);
+            if (chunk.getError() != null) {
+                throw new LlmInteractionException("Ollama stream returned an error: " + chunk.getError());
+            }
+            String token = chunk.getResponse();
+            if (token != null && !token.isEmpty()) {
+                generatedTokens++;
+                int end = detector != null ? detector.feed(token) : -1;
+                if (end >= 0) {
+                    String head = token.substring(0, end + 1);
+                    text.append(head);
+                    chunkConsumer.accept(head);
+                    log.info("closed JSON object received after {} chars, cancelling the rest of the Ollama stream.", text.length());
+                    abortStream(body);
+                    return new Completion(text.toString(), generatedTokens, null);
+                }
+                text.append(token);
+                chunkConsumer.accept(token);
+            }
+            if (Boolean.TRUE.equals(chunk.getDone())) {
+                log.info("received complete streamed response from Ollama.");
+                log.debug("Response details: model={}, evalCount={}, duration={}",
+                        chunk.getModel(), chunk.getEvalCount(), chunk.getTotalDuration());
+                if (chunk.getEvalCount() != null) {
+                    generatedTokens = chunk.getEvalCount();
+                }
+                break;
+            }
+        }
+        return new Completion(text.toString(), generatedTokens, null);
+    }
+    // dropping the connection before EOF makes Ollama stop generating; a plain close() would drain the rest of the stream
+    private void abortStream(InputStream body) {
+        try {
+            if (body instanceof EofSensorInputStream pooledStream) {
+                pooledStream.abort();
+            } else {
+                body.close();
+            }
+        } catch (IOException e) {
+            log.debug("ignoring error while aborting Ollama stream: {}", e.getMessage());
+        }
+    }
+    private record Completion(String text, long generatedTokens, float[] embedding) {
+    }
+}
@@ -0,0 +1,136 @@
+package com.ai.recruitmentai.llm;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+// health is a small circuit breaker: HEALTHY takes traffic, EJECTED takes none, and HALF_OPEN (after a good health probe) gets one real
+// request at a time until one succeeds, since /api/version answering says nothing about whether /api/generate works
+public final class OllamaEndpoint {
+    private static final double LATENCY_SMOOTHING=0.2;
+    private final String baseUrl;
+    private final AtomicInteger outstanding=new AtomicInteger();
+    private volatile State state=State.HEALTHY;
+    // the token of the request holding the half-open trial, 0 when none does
+    private long trialToken;
+    private long trialSequence;
+    private int consecutiveFailures;
+    private long requests;
+    private long failures;
+    private double averageLatencyMillis;
+    private double maxLatencyMillis;
+    private long ejections;
+    private String lastError;
+
+    OllamaEndpoint(String baseUrl) {
+        this.baseUrl=baseUrl;
+    }
+    public String getBaseUrl() {
+        return baseUrl;
+    }
+    public String url(String path) {
+        return baseUrl + path;
+    }
+    boolean isHealthy() {
+        return state == State.HEALTHY;
+    }
+    State getState() {
+        return state;
+    }
+    // claims the single trial request of a half-open endpoint and returns its token, or 0 when there is no trial to claim; the caller
+    // must then begin() and report the outcome with that token
+    synchronized long tryBeginTrial() {
+        if (state != State.HALF_OPEN || trialToken != 0) {
+            return 0;
+        }
+        trialToken=++trialSequence;
+        return trialToken;
+    }
+    int getOutstanding() {
+        return outstanding.get();
+    }
+    synchronized double getAverageLatencyMillis() {
+        return averageLatencyMillis;
+    }
+    void begin() {
+        outstanding.incrementAndGet();
+    }
+    // returns true when this success closed a half-open endpoint again
+    synchronized boolean recordSuccess(long latencyNanos) {
+        outstanding.decrementAndGet();
+        requests++;
+        consecutiveFailures=0;
+        boolean readmitted=state == State.HALF_OPEN;
+        if (readmitted) {
+            state=State.HEALTHY;
+            trialToken=0;
+        }
+        double latencyMillis=latencyNanos / 1_000_000.0;
+        averageLatencyMillis=requests == 1 ? latencyMillis : averageLatencyMillis + LATENCY_SMOOTHING * (latencyMillis - averageLatencyMillis);
+        maxLatencyMillis=Math.max(maxLatencyMillis, latencyMillis);
+        return readmitted;
+    }
+    // returns true when this failure crossed the threshold and ejected the endpoint
+    synchronized boolean recordFailure(String error, int failureThreshold) {
+        outstanding.decrementAndGet();
+        requests++;
+        failures++;
+        consecutiveFailures++;
+        lastError=error;
+        if (state == State.HALF_OPEN) {
+            // the trial request failed: straight back out until the next good probe
+            state=State.EJECTED;
+            trialToken=0;
+            ejections++;
+            return true;
+        }
+        if (state == State.HEALTHY && consecutiveFailures >= failureThreshold) {
+            state=State.EJECTED;
+            ejections++;
+            return true;
+        }
+        return false;
+    }
+    // an inconclusive trial leaves the endpoint half-open for the next one; any other request must not release a trial it does not hold
+    synchronized void recordOutcomeWithoutFault(long trial) {
+        outstanding.decrementAndGet();
+        requests++;
+        if (trial != 0 && trial == trialToken) {
+            trialToken=0;
+        }
+    }
+    // returns true when an ejected endpoint moved to half-open; a good probe never resets the failure count of a healthy endpoint
+    synchronized boolean probeSucceeded() {
+        if (state == State.EJECTED) {
+            state=State.HALF_OPEN;
+            trialToken=0;
+            return true;
+        }
+        return false;
+    }
+    // returns true when the probe ejected an endpoint that was taking traffic
+    synchronized boolean probeFailed(String error) {
+        lastError=error;
+        if (state != State.EJECTED) {
+            state=State.EJECTED;
+            trialToken=0;
+            ejections++;
+            return true;
+        }
+        return false;
+    }
+    synchronized Map<String, Object> stats() {
+        Map<String, Object> stats=new LinkedHashMap<>();
+        stats.put("healthy", state == State.HEALTHY);
+        stats.put("state", state.name());
+        stats.put("outstanding", outstanding.get());
+        stats.put("requests", requests);
+        stats.put("failures", failures);
+        stats.put("averageLatencyMillis", averageLatencyMillis);
+        stats.put("maxLatencyMillis", maxLatencyMillis);
+        stats.put("ejections", ejections);
+        stats.put("lastError", lastError);
+        return stats;
+    }
+    enum State {
+        HEALTHY, HALF_OPEN, EJECTED
+    }
+}
@@ -0,0 +1,118 @@
+package com.ai.recruitmentai.llm;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestClientException;
+import org.springframework.web.client.RestTemplate;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+// routes each Ollama call to the healthy endpoint with the fewest outstanding requests
+@Component
+public class OllamaEndpointPool {
+    private static final Logger log=LoggerFactory.getLogger(OllamaEndpointPool.class);
+    private static final String HEALTH_PATH="/api/version";
+    private final List<OllamaEndpoint> endpoints;
+    private final int failureThreshold;
+    private final RestTemplate probeTemplate;
+
+    public OllamaEndpointPool(@Value("${ollama.api.urls:${ollama.api.url}}") String[] urls,
+                              @Value("${ollama.endpoints.failure-threshold:3}") int failureThreshold,
+                              @Value("${ollama.endpoints.probe-timeout-ms:2000}") long probeTimeoutMillis,
+                              RestTemplateBuilder restTemplateBuilder) {
+        this.endpoints=Arrays.stream(urls)
+                .map(String::trim)
+                .filter(url -> !url.isEmpty())
+                .map(OllamaEndpointPool::baseUrlOf)
+                .distinct()
+                .map(OllamaEndpoint::new)
+                .toList();
+        if (endpoints.isEmpty()) {
+            throw new IllegalStateException("At least one Ollama endpoint must be configured (ollama.api.urls).");
+        }
+        this.failureThreshold=failureThreshold;
+        this.probeTemplate=restTemplateBuilder
+                .setConnectTimeout(Duration.ofMillis(probeTimeoutMillis))
+                .setReadTimeout(Duration.ofMillis(probeTimeoutMillis))
+                .build();
+        log.info("Ollama endpoint pool: {}", endpoints.stream().map(OllamaEndpoint::getBaseUrl).toList());
+    }
+    // a half-open endpoint gets one trial request at a time ahead of the healthy ones, so it is re-admitted (or ejected again) promptly
+    public Acquired acquire() {
+        for (OllamaEndpoint endpoint : endpoints) {
+            long trialToken=endpoint.tryBeginTrial();
+            if (trialToken != 0) {
+                endpoint.begin();
+                log.info("Sending a trial request to half-open Ollama endpoint {}.", endpoint.getBaseUrl());
+                return new Acquired(endpoint, trialToken);
+            }
+        }
+        List<OllamaEndpoint> candidates=endpoints.stream().filter(OllamaEndpoint::isHealthy).toList();
+        if (candidates.isEmpty()) {
+            log.warn("All Ollama endpoints are marked unhealthy; routing to the least loaded one anyway.");
+            candidates=endpoints;
+        }
+        OllamaEndpoint chosen=candidates.stream()
+                .min(Comparator.comparingInt(OllamaEndpoint::getOutstanding)
+                        .thenComparingDouble(OllamaEndpoint::getAverageLatencyMillis))
+                .orElseThrow();
+        chosen.begin();
+        return new Acquired(chosen, 0);
+    }
+    public void recordSuccess(Acquired acquired, long latencyNanos) {
+        OllamaEndpoint endpoint=acquired.endpoint();
+        if (endpoint.recordSuccess(latencyNanos)) {
+            log.info("Re-admitting Ollama endpoint {} after a successful trial request.", endpoint.getBaseUrl());
+        }
+    }
+    public void recordFailure(Acquired acquired, String error) {
+        OllamaEndpoint endpoint=acquired.endpoint();
+        if (endpoint.recordFailure(error, failureThreshold)) {
+            log.warn("Ejecting Ollama endpoint {} after {} consecutive failure(s) or a failed half-open trial: {}", endpoint.getBaseUrl(), failureThreshold, error);
+        }
+    }
+    // for failures that say nothing about the endpoint's health, e.g. a malformed model answer
+    public void recordNeutral(Acquired acquired) {
+        acquired.endpoint().recordOutcomeWithoutFault(acquired.trialToken());
+    }
+    // endpoints currently taking regular traffic, at least 1 so a fully ejected pool still gets the concurrency of one endpoint
+    public int healthyCount() {
+        return Math.max(1, (int) endpoints.stream().filter(OllamaEndpoint::isHealthy).count());
+    }
+    @Scheduled(fixedDelayString="${ollama.endpoints.health-interval-ms:10000}")
+    public void probeEndpoints() {
+        for (OllamaEndpoint endpoint : endpoints) {
+            try {
+                probeTemplate.getForObject(endpoint.url(HEALTH_PATH), String.class);
+                if (endpoint.probeSucceeded()) {
+                    log.info("Ollama endpoint {} answered its health probe; half-open until a real request succeeds.", endpoint.getBaseUrl());
+                }
+            } catch (RestClientException e) {
+                if (endpoint.probeFailed(e.getMessage())) {
+                    log.warn("Ejecting Ollama endpoint {}: health probe failed: {}", endpoint.getBaseUrl(), e.getMessage());
+                }
+            }
+        }
+    }
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats=new LinkedHashMap<>();
+        for (OllamaEndpoint endpoint : endpoints) {
+            stats.put(endpoint.getBaseUrl(), endpoint.stats());
+        }
+        return stats;
+    }
+    // one routed request: the endpoint, plus the token of the half-open trial it holds (0 for a regular request)
+    public record Acquired(OllamaEndpoint endpoint, long trialToken) {
+    }
+    private static String baseUrlOf(String url) {
+        String base=url.endsWith("/") ? url.substring(0, url.length() - 1) : url;
+        int apiIndex=base.indexOf("/api/");
+        return apiIndex >= 0 ? base.substring(0, apiIndex) : base;
+    }
+}
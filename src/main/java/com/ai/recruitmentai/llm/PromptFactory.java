@@ -1,5 +1,8 @@
 package com.ai.recruitmentai.llm;
+import java.util.Map;
 public final class PromptFactory {
+    // part of every stored match fingerprint; bump it when the matching or batch-matching prompt changes so existing scores are redone
+    public static final int MATCHING_PROMPT_VERSION=2;
     private PromptFactory() {
         throw new UnsupportedOperationException("This is a utility class and cannot be instantiated");
     }
@@ -46,6 +49,11 @@ public final class PromptFactory {
     }
 
     public static String createMatchingPrompt(String structuredJdJson, String structuredCvJson) {
+        return createMatchingPrefix(structuredJdJson) + createMatchingSuffix(structuredCvJson);
+    }
+
+    // everything that is the same for every candidate of a job comes first, so its evaluated context can be reused
+    public static String createMatchingPrefix(String structuredJdJson) {
         return """
                Compare the following structured Candidate CV JSON with the structured Job Description JSON.
                Evaluate the candidate's suitability based ONLY on the provided JSON data. Focus on:
@@ -58,6 +66,11 @@ public final class PromptFactory {
                %s
                ```
 
+               """.formatted(structuredJdJson);
+    }
+
+    public static String createMatchingSuffix(String structuredCvJson) {
+        return """
                Candidate CV JSON:
                ```json
                %s
@@ -69,7 +82,35 @@ public final class PromptFactory {
                Your response MUST be ONLY a valid JSON object containing these two fields, with keys: "match_score" (integer) and "justification" (string).
                Do NOT include any introductory text, explanations, comparisons of the inputs, or markdown formatting like ```json. Output ONLY the valid JSON object.
                Example JSON structure: {"match_score": 85, "justification": "Candidate has strong skills alignment and relevant experience, but lacks one desired certification."}
-               """.formatted(structuredJdJson, structuredCvJson);
+               """.formatted(structuredCvJson);
+    }
+
+    // one JD against several CVs, so the JD is evaluated once per batch instead of once per candidate
+    public static String createBatchMatchingPrompt(String structuredJdJson, Map<Long, String> structuredCvJsonById) {
+        StringBuilder candidates=new StringBuilder();
+        structuredCvJsonById.forEach((candidateId, cvJson) -> candidates
+                .append("Candidate with candidate_id ").append(candidateId).append(":\n")
+                .append("```json\n").append(cvJson).append("\n```\n\n"));
+        return """
+               Compare each of the following structured Candidate CV JSONs with the single structured Job Description JSON.
+               Evaluate every candidate independently, based ONLY on the provided JSON data. Focus on:
+               1.  Skills match: How well do the candidate's skills align with the required skills?
+               2.  Experience match: Does the candidate's work experience duration and relevance align with the requirements?
+               3.  Qualifications match: Does the candidate possess the required qualifications (degrees, certifications)?
+
+               Job Description JSON:
+               ```json
+               %s
+               ```
+
+               %s
+               For EACH candidate above, calculate a match score as an integer percentage between 0 and 100.
+               Also, provide a brief text justification (2-3 sentences max) explaining the main reasons for that candidate's score.
+
+               Your response MUST be ONLY a valid JSON object with a single key "results": a list containing exactly one entry per candidate, each with keys "candidate_id" (integer, copied from above), "match_score" (integer) and "justification" (string).
+               Do NOT include any introductory text, explanations, comparisons of the inputs, or markdown formatting like ```json. Output ONLY the valid JSON object.
+               Example JSON structure: {"results": [{"candidate_id": 12, "match_score": 85, "justification": "Candidate has strong skills alignment and relevant experience."}, {"candidate_id": 15, "match_score": 40, "justification": "Candidate lacks most of the required skills."}]}
+               """.formatted(structuredJdJson, candidates);
     }
 
     public static String createInterviewEmailDraftPrompt(String candidateName, String jobTitle) {
@@ -0,0 +1,22 @@
+package com.ai.recruitmentai.llm;
+import com.ai.recruitmentai.dto.BatchMatchResultDto;
+import com.ai.recruitmentai.dto.CvDataDto;
+import com.ai.recruitmentai.dto.JobSummaryDto;
+import com.ai.recruitmentai.dto.MatchResultDto;
+public enum PromptType {
+    CV_EXTRACTION(CvDataDto.class),
+    JD_SUMMARY(JobSummaryDto.class),
+    MATCHING(MatchResultDto.class),
+    BATCH_MATCHING(BatchMatchResultDto.class),
+    INTERVIEW_DRAFT(null);
+
+    private final Class<?> outputType;
+
+    PromptType(Class<?> outputType) {
+        this.outputType=outputType;
+    }
+    // DTO the model's JSON answer is bound to, or null for free-text prompts
+    public Class<?> getOutputType() {
+        return outputType;
+    }
+}
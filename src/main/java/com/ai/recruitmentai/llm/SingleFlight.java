@@ -0,0 +1,22 @@
+package com.ai.recruitmentai.llm;
+import org.springframework.stereotype.Component;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Supplier;
+// concurrent callers with the same key share the first caller's upstream request and its result (or failure)
+@Component
+public class SingleFlight {
+    private final Flights<String> flights=new Flights<>();
+
+    public String execute(String key, Supplier<Optional<String>> recheck, Supplier<String> call) {
+        return flights.execute(key, recheck, call);
+    }
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats=new LinkedHashMap<>();
+        stats.put("upstreamCalls", flights.getLeaders());
+        stats.put("coalescedCalls", flights.getCoalesced());
+        stats.put("inFlight", flights.size());
+        return stats;
+    }
+}
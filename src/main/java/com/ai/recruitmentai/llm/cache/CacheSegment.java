@@ -0,0 +1,135 @@
+package com.ai.recruitmentai.llm.cache;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.function.BiConsumer;
+import java.util.zip.CRC32;
+// append-only log file; record layout: keyLength(int) valueLength(int) crc32(long) key value
+final class CacheSegment {
+    private static final Logger log=LoggerFactory.getLogger(CacheSegment.class);
+    private static final int HEADER_BYTES=16;
+    private static final int MAX_FIELD_BYTES=64 * 1024 * 1024;
+    private final long id;
+    private final Path path;
+    private final FileChannel channel;
+    private volatile long size;
+
+    private CacheSegment(long id, Path path, FileChannel channel, long size) {
+        this.id=id;
+        this.path=path;
+        this.channel=channel;
+        this.size=size;
+    }
+    static CacheSegment open(long id, Path path) throws IOException {
+        FileChannel channel=FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        return new CacheSegment(id, path, channel, channel.size());
+    }
+    long id() {
+        return id;
+    }
+    long size() {
+        return size;
+    }
+    synchronized EntryLocation append(String key, String value) throws IOException {
+        byte[] keyBytes=key.getBytes(StandardCharsets.UTF_8);
+        byte[] valueBytes=value.getBytes(StandardCharsets.UTF_8);
+        ByteBuffer buffer=ByteBuffer.allocate(HEADER_BYTES + keyBytes.length + valueBytes.length);
+        buffer.putInt(keyBytes.length);
+        buffer.putInt(valueBytes.length);
+        buffer.putLong(checksum(keyBytes, valueBytes));
+        buffer.put(keyBytes);
+        buffer.put(valueBytes);
+        buffer.flip();
+        long offset=size;
+        long position=offset;
+        while (buffer.hasRemaining()) {
+            position += channel.write(buffer, position);
+        }
+        size=position;
+        return new EntryLocation(this, offset, keyBytes.length, valueBytes.length);
+    }
+    String read(EntryLocation location) throws IOException {
+        ByteBuffer buffer=ByteBuffer.allocate(location.valueLength());
+        long position=location.offset() + HEADER_BYTES + location.keyLength();
+        while (buffer.hasRemaining()) {
+            int read=channel.read(buffer, position);
+            if (read < 0) {
+                throw new IOException("Unexpected end of cache segment " + path);
+            }
+            position += read;
+        }
+        return new String(buffer.array(), StandardCharsets.UTF_8);
+    }
+    // replays every intact record; a torn or corrupt tail (e.g. after a crash mid-write) is truncated away
+    synchronized void scan(BiConsumer<String, EntryLocation> sink) throws IOException {
+        long offset=0;
+        ByteBuffer header=ByteBuffer.allocate(HEADER_BYTES);
+        while (offset + HEADER_BYTES <= size) {
+            header.clear();
+            readFully(header, offset);
+            header.flip();
+            int keyLength=header.getInt();
+            int valueLength=header.getInt();
+            long expectedCrc=header.getLong();
+            if (keyLength <= 0 || valueLength < 0 || keyLength > MAX_FIELD_BYTES || valueLength > MAX_FIELD_BYTES
+                    || offset + HEADER_BYTES + keyLength + valueLength > size) {
+                break;
+            }
+            ByteBuffer payload=ByteBuffer.allocate(keyLength + valueLength);
+            readFully(payload, offset + HEADER_BYTES);
+            byte[] bytes=payload.array();
+            byte[] keyBytes=new byte[keyLength];
+            byte[] valueBytes=new byte[valueLength];
+            System.arraycopy(bytes, 0, keyBytes, 0, keyLength);
+            System.arraycopy(bytes, keyLength, valueBytes, 0, valueLength);
+            if (checksum(keyBytes, valueBytes) != expectedCrc) {
+                break;
+            }
+            sink.accept(new String(keyBytes, StandardCharsets.UTF_8), new EntryLocation(this, offset, keyLength, valueLength));
+            offset += HEADER_BYTES + keyLength + valueLength;
+        }
+        if (offset < size) {
+            log.warn("Truncating corrupt tail of LLM cache segment {} at offset {} (size was {}).", path, offset, size);
+            channel.truncate(offset);
+            size=offset;
+        }
+    }
+    void closeAndDelete() {
+        try {
+            channel.close();
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            log.warn("Could not delete LLM cache segment {}: {}", path, e.getMessage());
+        }
+    }
+    void close() {
+        try {
+            channel.close();
+        } catch (IOException e) {
+            log.warn("Could not close LLM cache segment {}: {}", path, e.getMessage());
+        }
+    }
+    private void readFully(ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            int read=channel.read(buffer, position);
+            if (read < 0) {
+                throw new IOException("Unexpected end of cache segment " + path);
+            }
+            position += read;
+        }
+    }
+    private static long checksum(byte[] keyBytes, byte[] valueBytes) {
+        CRC32 crc=new CRC32();
+        crc.update(keyBytes);
+        crc.update(valueBytes);
+        return crc.getValue();
+    }
+    record EntryLocation(CacheSegment segment, long offset, int keyLength, int valueLength) {
+    }
+}
@@ -0,0 +1,237 @@
+package com.ai.recruitmentai.llm.cache;
+import com.ai.recruitmentai.llm.cache.CacheSegment.EntryLocation;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+@Service
+public class LlmResponseCache {
+    private static final Logger log=LoggerFactory.getLogger(LlmResponseCache.class);
+    private static final String SEGMENT_PREFIX="segment-";
+    private static final String SEGMENT_SUFFIX=".log";
+    private final boolean enabled;
+    private final Path cacheDirectory;
+    private final long maxDiskBytes;
+    private final long segmentBytes;
+    private final Map<String, String> memoryTier;
+    private final Map<String, EntryLocation> diskIndex=new ConcurrentHashMap<>();
+    private final Deque<CacheSegment> segments=new ArrayDeque<>();
+    private final AtomicLong memoryHits=new AtomicLong();
+    private final AtomicLong diskHits=new AtomicLong();
+    private final AtomicLong misses=new AtomicLong();
+    private final AtomicLong writes=new AtomicLong();
+    private final AtomicLong evictedEntries=new AtomicLong();
+    private long nextSegmentId;
+    private boolean diskTierAvailable;
+
+    public LlmResponseCache(@Value("${app.llm-cache.enabled:true}") boolean enabled,
+                            @Value("${app.llm-cache.dir:./llm-cache/}") String cacheDir,
+                            @Value("${app.llm-cache.memory-entries:512}") int memoryEntries,
+                            @Value("${app.llm-cache.max-disk-bytes:268435456}") long maxDiskBytes,
+                            @Value("${app.llm-cache.segment-bytes:16777216}") long segmentBytes) {
+        this.enabled=enabled;
+        this.cacheDirectory=Paths.get(cacheDir).toAbsolutePath().normalize();
+        this.maxDiskBytes=maxDiskBytes;
+        this.segmentBytes=segmentBytes;
+        this.memoryTier=new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, String> eldest) {
+                return size() > memoryEntries;
+            }
+        };
+    }
+
+    @PostConstruct
+    public synchronized void init() {
+        if (!enabled) {
+            log.info("LLM response cache is disabled.");
+            return;
+        }
+        try {
+            Files.createDirectories(cacheDirectory);
+            List<Path> segmentFiles;
+            try (Stream<Path> files=Files.list(cacheDirectory)) {
+                segmentFiles=files.filter(p -> segmentId(p) >= 0)
+                        .sorted((a, b) -> Long.compare(segmentId(a), segmentId(b)))
+                        .toList();
+            }
+            for (Path file : segmentFiles) {
+                CacheSegment segment=CacheSegment.open(segmentId(file), file);
+                segment.scan(diskIndex::put);
+                segments.addLast(segment);
+                nextSegmentId=segment.id() + 1;
+            }
+            diskTierAvailable=true;
+            log.info("LLM response cache loaded {} entries from {} segment(s) in {}", diskIndex.size(), segments.size(), cacheDirectory);
+        } catch (IOException e) {
+            log.error("Could not initialise the on-disk LLM cache at {}; continuing with the in-memory tier only.", cacheDirectory, e);
+            closeSegments();
+        }
+    }
+
+    @PreDestroy
+    public synchronized void closeSegments() {
+        diskTierAvailable=false;
+        segments.forEach(CacheSegment::close);
+        segments.clear();
+        diskIndex.clear();
+    }
+
+    public static String keyFor(String model, String promptType, String prompt) {
+        return keyFor(model, promptType, "", prompt);
+    }
+
+    // requestOptions covers everything besides the prompt that shapes the answer (output format, sampling and length options)
+    public static String keyFor(String model, String promptType, String requestOptions, String prompt) {
+        try {
+            MessageDigest digest=MessageDigest.getInstance("SHA-256");
+            digest.update(model.getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) 0);
+            digest.update(promptType.getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) 0);
+            if (!requestOptions.isEmpty()) {
+                digest.update(requestOptions.getBytes(StandardCharsets.UTF_8));
+                digest.update((byte) 0);
+            }
+            digest.update(prompt.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    public Optional<String> get(String key) {
+        if (!enabled) {
+            return Optional.empty();
+        }
+        String value;
+        synchronized (memoryTier) {
+            value=memoryTier.get(key);
+        }
+        if (value != null) {
+            memoryHits.incrementAndGet();
+            return Optional.of(value);
+        }
+        EntryLocation location=diskIndex.get(key);
+        if (location != null) {
+            try {
+                value=location.segment().read(location);
+                diskHits.incrementAndGet();
+                remember(key, value);
+                return Optional.of(value);
+            } catch (IOException e) {
+                log.warn("Could not read cached LLM response {} from disk: {}", key, e.getMessage());
+                diskIndex.remove(key, location);
+            }
+        }
+        misses.incrementAndGet();
+        return Optional.empty();
+    }
+
+    public void put(String key, String value) {
+        if (!enabled || value == null) {
+            return;
+        }
+        remember(key, value);
+        try {
+            append(key, value);
+        } catch (IOException e) {
+            log.warn("Could not persist LLM response {} to disk cache: {}", key, e.getMessage());
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        long memoryEntries;
+        synchronized (memoryTier) {
+            memoryEntries=memoryTier.size();
+        }
+        long diskBytes;
+        int segmentCount;
+        synchronized (this) {
+            diskBytes=segments.stream().mapToLong(CacheSegment::size).sum();
+            segmentCount=segments.size();
+        }
+        long hits=memoryHits.get() + diskHits.get();
+        long lookups=hits + misses.get();
+        Map<String, Object> stats=new LinkedHashMap<>();
+        stats.put("enabled", enabled);
+        stats.put("memoryHits", memoryHits.get());
+        stats.put("diskHits", diskHits.get());
+        stats.put("misses", misses.get());
+        stats.put("hitRatio", lookups == 0 ? 0.0 : (double) hits / lookups);
+        stats.put("writes", writes.get());
+        stats.put("evictedEntries", evictedEntries.get());
+        stats.put("memoryEntries", memoryEntries);
+        stats.put("diskEntries", diskIndex.size());
+        stats.put("diskBytes", diskBytes);
+        stats.put("segments", segmentCount);
+        return stats;
+    }
+
+    private void remember(String key, String value) {
+        synchronized (memoryTier) {
+            memoryTier.put(key, value);
+        }
+    }
+
+    private synchronized void append(String key, String value) throws IOException {
+        if (!diskTierAvailable) {
+            return;
+        }
+        CacheSegment active=segments.peekLast();
+        if (active == null || active.size() >= segmentBytes) {
+            long id=nextSegmentId++;
+            active=CacheSegment.open(id, cacheDirectory.resolve(SEGMENT_PREFIX + id + SEGMENT_SUFFIX));
+            segments.addLast(active);
+        }
+        diskIndex.put(key, active.append(key, value));
+        writes.incrementAndGet();
+        evictOldSegments();
+    }
+
+    // whole segments are dropped oldest-first once the disk budget is exceeded; the active segment is always kept
+    private void evictOldSegments() {
+        long totalBytes=segments.stream().mapToLong(CacheSegment::size).sum();
+        while (totalBytes > maxDiskBytes && segments.size() > 1) {
+            CacheSegment oldest=segments.pollFirst();
+            totalBytes -= oldest.size();
+            long before=diskIndex.size();
+            diskIndex.values().removeIf(location -> location.segment() == oldest);
+            long removed=before - diskIndex.size();
+            evictedEntries.addAndGet(removed);
+            oldest.closeAndDelete();
+            log.info("Evicted LLM cache segment {} ({} entries) to stay under {} bytes.", oldest.id(), removed, maxDiskBytes);
+        }
+    }
+
+    private static long segmentId(Path file) {
+        String name=file.getFileName().toString();
+        if (!name.startsWith(SEGMENT_PREFIX) || !name.endsWith(SEGMENT_SUFFIX)) {
+            return -1;
+        }
+        try {
+            return Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+}
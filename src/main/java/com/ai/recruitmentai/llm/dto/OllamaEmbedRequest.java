@@ -0,0 +1,18 @@
+package com.ai.recruitmentai.llm.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class OllamaEmbedRequest {
+    private String model;
+    private String input;
+    @JsonProperty("keep_alive")
+    private String keepAlive;
+}
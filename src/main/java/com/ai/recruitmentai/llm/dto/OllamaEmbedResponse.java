@@ -0,0 +1,17 @@
+package com.ai.recruitmentai.llm.dto;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+@Data
+@NoArgsConstructor
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class OllamaEmbedResponse {
+    private String model;
+    private float[][] embeddings;
+    @JsonProperty("total_duration")
+    private Long totalDuration;
+    @JsonProperty("prompt_eval_count")
+    private Integer promptEvalCount;
+    private String error;
+}
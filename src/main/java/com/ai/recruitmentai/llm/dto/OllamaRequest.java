@@ -1,14 +1,30 @@
 package com.ai.recruitmentai.llm.dto;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.util.Map;
+
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
 public class OllamaRequest {
     private String model;
     private String prompt;
     private Boolean stream;
+    // "json" or a JSON schema object constraining the model's output
+    private Object format;
+    private Map<String, Object> options;
+    @JsonProperty("keep_alive")
+    private String keepAlive;
+
+    public OllamaRequest(String model, String prompt, Boolean stream) {
+        this.model = model;
+        this.prompt = prompt;
+        this.stream = stream;
+    }
 }
\ No newline at end of file
@@ -24,4 +24,5 @@ public class OllamaResponse {
     private Integer evalCount;
     @JsonProperty("eval_duration")
     private Long evalDuration;
+    private String error;
 }
\ No newline at end of file
@@ -1,7 +1,10 @@
 package com.ai.recruitmentai.repository;
 import com.ai.recruitmentai.entity.Application;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 @Repository
@@ -10,4 +13,15 @@ public interface ApplicationRepository extends JpaRepository<Application, Long>
     List<Application> findByJobDescriptionIdAndStatus(Long jobDescriptionId, String status);
     List<Application> findByJobDescriptionIdAndMatchScoreGreaterThanEqualAndStatus(Long jobDescriptionId, Double score, String status);
     Optional<Application> findByJobDescriptionIdAndCandidateId(Long jobDescriptionId, Long candidateId);
+    List<Application> findByJobDescriptionIdAndCandidateIdIn(Long jobDescriptionId, Collection<Long> candidateIds);
+    @Query("select a.candidate.id as candidateId, a.inputFingerprint as inputFingerprint from Application a "
+            + "where a.jobDescription.id = :jobId and a.status = 'MATCHED' and a.inputFingerprint is not null")
+    List<MatchFingerprintRef> findMatchedFingerprints(@Param("jobId") Long jobId);
+    @Query("select a.candidate.id as candidateId, a.inputFingerprint as inputFingerprint from Application a "
+            + "where a.jobDescription.id = :jobId and a.candidate.id in :candidateIds and a.status = 'MATCHED' and a.inputFingerprint is not null")
+    List<MatchFingerprintRef> findMatchedFingerprints(@Param("jobId") Long jobId, @Param("candidateIds") Collection<Long> candidateIds);
+    interface MatchFingerprintRef {
+        Long getCandidateId();
+        String getInputFingerprint();
+    }
 }
\ No newline at end of file
@@ -1,13 +1,37 @@
 package com.ai.recruitmentai.repository;
 
 import com.ai.recruitmentai.entity.Candidate;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface CandidateRepository extends JpaRepository<Candidate, Long> {
     Optional<Candidate> findByCandidateIdFromFile(String candidateIdFromFile);
+    List<Candidate> findByCandidateIdFromFileIn(Collection<String> candidateIdsFromFile);
+    List<EmbeddingRef> findByCvEmbeddingHashIsNotNull();
+    @Query("select c.id as id, c.extractedCvJson as extractedCvJson from Candidate c "
+            + "where c.status = 'PARSED' and c.extractedCvJson is not null and c.id > :afterId order by c.id")
+    List<CvJsonRef> findParsedCvJsonAfter(@Param("afterId") Long afterId, Pageable pageable);
+    @Query("select c.id from Candidate c "
+            + "where c.status = 'PARSED' and c.extractedCvJson is not null and c.extractedCvJson <> '' and c.id > :afterId order by c.id")
+    List<Long> findParsedIdsAfter(@Param("afterId") Long afterId, Pageable pageable);
+    @Query("select c.id from Candidate c where c.status in :statuses "
+            + "and not exists (select t.id from ParsingTask t where t.candidateId = c.id) order by c.id")
+    List<Long> findIdsWithoutParsingTask(@Param("statuses") Collection<String> statuses);
+    interface EmbeddingRef {
+        Long getId();
+        String getCvEmbeddingHash();
+    }
+    interface CvJsonRef {
+        Long getId();
+        String getExtractedCvJson();
+    }
 
 }
\ No newline at end of file
@@ -0,0 +1,19 @@
+package com.ai.recruitmentai.repository;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.NoRepositoryBean;
+import org.springframework.data.repository.query.Param;
+import java.time.LocalDateTime;
+import java.util.Collection;
+// lease bookkeeping shared by the work tables; claiming stays in each repository since what counts as due differs per table
+@NoRepositoryBean
+public interface LeasedWorkRepository<T, ID> extends JpaRepository<T, ID> {
+    @Modifying
+    @Query("update #{#entityName} t set t.status = 'PENDING', t.leaseExpiresAt = null, t.leaseToken = null, t.leaseOwner = null "
+            + "where t.status = 'IN_PROGRESS' and t.leaseOwner = :owner")
+    int releaseLeasesOwnedBy(@Param("owner") String owner);
+    @Modifying
+    @Query("update #{#entityName} t set t.leaseExpiresAt = :until where t.status = 'IN_PROGRESS' and t.leaseOwner = :owner and t.leaseToken in :tokens")
+    int extendLeases(@Param("owner") String owner, @Param("tokens") Collection<String> tokens, @Param("until") LocalDateTime until);
+}
@@ -0,0 +1,35 @@
+package com.ai.recruitmentai.repository;
+import com.ai.recruitmentai.entity.MatchChunk;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+@Repository
+public interface MatchChunkRepository extends LeasedWorkRepository<MatchChunk, Long> {
+    // same claiming scheme as parsing_task: rows locked by another node's claim are skipped, not waited for
+    @Query(value = "select * from match_chunk where status = 'PENDING' or (status = 'IN_PROGRESS' and lease_expires_at < :now) "
+            + "order by id limit :limit for update skip locked", nativeQuery = true)
+    List<MatchChunk> lockDue(@Param("now") LocalDateTime now, @Param("limit") int limit);
+    Optional<MatchChunk> findByLeaseToken(String leaseToken);
+    @Query("select c.leaseToken from MatchChunk c where c.status = 'CANCELLED' and c.leaseToken in :tokens")
+    List<String> findCancelledTokens(@Param("tokens") Collection<String> tokens);
+    @Query("select coalesce(sum(c.matchedCandidates), 0) as matched, coalesce(sum(c.failedCandidates), 0) as failed, "
+            + "coalesce(sum(c.skippedCandidates), 0) as skipped, coalesce(sum(c.unsavedResults), 0) as unsaved, "
+            + "coalesce(sum(case when c.status in ('PENDING', 'IN_PROGRESS') then 1 else 0 end), 0) as openChunks "
+            + "from MatchChunk c where c.runId = :runId")
+    RunTotals sumByRunId(@Param("runId") Long runId);
+    @Modifying
+    @Query("update MatchChunk c set c.status = 'CANCELLED', c.finishedAt = :now where c.runId = :runId and c.status in ('PENDING', 'IN_PROGRESS')")
+    int cancelOpen(@Param("runId") Long runId, @Param("now") LocalDateTime now);
+    interface RunTotals {
+        long getMatched();
+        long getFailed();
+        long getSkipped();
+        long getUnsaved();
+        long getOpenChunks();
+    }
+}
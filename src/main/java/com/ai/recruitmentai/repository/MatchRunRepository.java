@@ -0,0 +1,47 @@
+package com.ai.recruitmentai.repository;
+import com.ai.recruitmentai.entity.MatchRun;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+@Repository
+public interface MatchRunRepository extends JpaRepository<MatchRun, Long> {
+    List<MatchRun> findByStatusIn(Collection<String> statuses);
+    List<MatchRun> findTop20ByJobDescriptionIdOrderByIdDesc(Long jobDescriptionId);
+    List<MatchRun> findByMatrixIdOrderByIdAsc(String matrixId);
+    Optional<MatchRun> findFirstByJobDescriptionIdAndStatusInOrderByIdDesc(Long jobDescriptionId, Collection<String> statuses);
+    List<MatchRun> findByStatusInAndLeaseExpiresAtBefore(Collection<String> statuses, LocalDateTime now);
+    // conditional, so a run whose owner renewed the lease in the meantime is left alone; now is on the database clock like the lease itself
+    @Modifying
+    @Query("update MatchRun r set r.status = 'INTERRUPTED', r.finishedAt = :finishedAt, r.message = :message "
+            + "where r.id = :runId and r.status in ('QUEUED', 'RUNNING') and r.leaseExpiresAt < :now")
+    int interruptIfLeaseExpired(@Param("runId") Long runId, @Param("now") LocalDateTime now, @Param("finishedAt") LocalDateTime finishedAt,
+                                @Param("message") String message);
+    // the owner's heartbeat; it only touches counters and lease, and a run another node already closed stays closed
+    @Modifying
+    @Query("update MatchRun r set r.totalCandidates = :total, r.matchedCandidates = :matched, r.failedCandidates = :failed, "
+            + "r.skippedCandidates = :skipped, r.unsavedResults = :unsaved, r.leaseExpiresAt = :leaseExpiresAt "
+            + "where r.id = :runId and r.status in ('QUEUED', 'RUNNING')")
+    int renewActive(@Param("runId") Long runId, @Param("total") int total, @Param("matched") int matched, @Param("failed") int failed,
+                    @Param("skipped") int skipped, @Param("unsaved") int unsaved, @Param("leaseExpiresAt") LocalDateTime leaseExpiresAt);
+    @Modifying
+    @Query("update MatchRun r set r.status = 'RUNNING', r.startedAt = :now where r.id = :runId and r.status = 'QUEUED'")
+    int markRunning(@Param("runId") Long runId, @Param("now") LocalDateTime now);
+    @Modifying
+    @Query("update MatchRun r set r.totalCandidates = :total, r.matchedCandidates = :matched, r.failedCandidates = :failed, "
+            + "r.skippedCandidates = :skipped, r.unsavedResults = :unsaved, r.status = :status, r.message = :message, r.finishedAt = :now "
+            + "where r.id = :runId and r.status in ('QUEUED', 'RUNNING')")
+    int closeActive(@Param("runId") Long runId, @Param("total") int total, @Param("matched") int matched, @Param("failed") int failed,
+                    @Param("skipped") int skipped, @Param("unsaved") int unsaved, @Param("status") String status,
+                    @Param("message") String message, @Param("now") LocalDateTime now);
+    @Query("select r.cancelRequested from MatchRun r where r.id = :runId")
+    Optional<Boolean> findCancelRequestedById(@Param("runId") Long runId);
+    @Modifying
+    @Query("update MatchRun r set r.cancelRequested = true where r.id in :runIds and r.status in ('QUEUED', 'RUNNING')")
+    int requestCancel(@Param("runIds") Collection<Long> runIds);
+}
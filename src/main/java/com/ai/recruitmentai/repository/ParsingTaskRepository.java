@@ -0,0 +1,22 @@
+package com.ai.recruitmentai.repository;
+import com.ai.recruitmentai.entity.ParsingTask;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+@Repository
+public interface ParsingTaskRepository extends LeasedWorkRepository<ParsingTask, Long> {
+    List<ParsingTask> findByCandidateIdIn(Collection<Long> candidateIds);
+    // rows another node is claiming right now are skipped instead of waited for, so concurrent claimers always get disjoint batches
+    @Query(value = "select * from parsing_task where (status = 'PENDING' and next_attempt_at <= :now) "
+            + "or (status = 'IN_PROGRESS' and lease_expires_at < :now) order by next_attempt_at, id limit :limit for update skip locked",
+            nativeQuery = true)
+    List<ParsingTask> lockDue(@Param("now") LocalDateTime now, @Param("limit") int limit);
+    long countByStatus(String status);
+    @Modifying
+    @Query("delete from ParsingTask t where t.candidateId = :candidateId and t.leaseToken = :leaseToken")
+    int deleteClaimed(@Param("candidateId") Long candidateId, @Param("leaseToken") String leaseToken);
+}
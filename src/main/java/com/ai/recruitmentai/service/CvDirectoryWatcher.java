@@ -0,0 +1,233 @@
+package com.ai.recruitmentai.service;
+import com.ai.recruitmentai.dto.BulkIngestionResultDto;
+import com.ai.recruitmentai.dto.BulkIngestionResultDto.FileResult;
+import com.ai.recruitmentai.util.FileStorageService;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+// optional drop-folder ingestion: WatchService events plus a periodic full scan (events can overflow or be missed on network mounts) feed settled PDFs into CvIngestionService
+@Component
+public class CvDirectoryWatcher {
+    private static final Logger log=LoggerFactory.getLogger(CvDirectoryWatcher.class);
+    private final CvIngestionService cvIngestionService;
+    private final FileStorageService fileStorageService;
+    private final CvParsingPipeline parsingPipeline;
+    private final boolean enabled;
+    private final Path watchDir;
+    private final long settleMillis;
+    private final long reconcileIntervalMillis;
+    private final int maxPerCycle;
+    // only touched by the watcher thread
+    private final Map<Path, FileState> pending=new LinkedHashMap<>();
+    private final Map<Path, FileState> known=new HashMap<>();
+    // stored copies of these are already in the upload directory, but their candidates never made it into the parsing queue
+    private final Set<Path> notQueued=new HashSet<>();
+    private WatchService watchService;
+    private Thread watcherThread;
+    private volatile boolean running;
+
+    @Autowired
+    public CvDirectoryWatcher(CvIngestionService cvIngestionService,
+                              FileStorageService fileStorageService,
+                              CvParsingPipeline parsingPipeline,
+                              @Value("${app.ingestion.watch.enabled:false}") boolean enabled,
+                              @Value("${app.ingestion.watch.dir:./data/input/cvs}") String watchDir,
+                              @Value("${app.ingestion.watch.settle-ms:2000}") long settleMillis,
+                              @Value("${app.ingestion.watch.reconcile-interval-ms:60000}") long reconcileIntervalMillis,
+                              @Value("${app.ingestion.watch.max-per-cycle:100}") int maxPerCycle) {
+        this.cvIngestionService=cvIngestionService;
+        this.fileStorageService=fileStorageService;
+        this.parsingPipeline=parsingPipeline;
+        this.enabled=enabled;
+        this.watchDir=Paths.get(watchDir).toAbsolutePath().normalize();
+        this.settleMillis=settleMillis;
+        this.reconcileIntervalMillis=reconcileIntervalMillis;
+        this.maxPerCycle=Math.max(1, maxPerCycle);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        if (watchDir.equals(fileStorageService.getFileStorageLocation())) {
+            log.error("CV watch directory {} is the upload directory itself; directory ingestion stays off.", watchDir);
+            return;
+        }
+        try {
+            Files.createDirectories(watchDir);
+            watchService=watchDir.getFileSystem().newWatchService();
+            watchDir.register(watchService, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+        } catch (IOException e) {
+            log.error("Could not watch CV directory {}: {}", watchDir, e.getMessage(), e);
+            return;
+        }
+        running=true;
+        watcherThread=new Thread(this::run, "CvDirectoryWatcher");
+        watcherThread.setDaemon(true);
+        watcherThread.start();
+        log.info("Watching {} for CV drops (settle {} ms, reconcile every {} ms, at most {} file(s) per cycle).",
+                watchDir, settleMillis, reconcileIntervalMillis, maxPerCycle);
+    }
+
+    @PreDestroy
+    public void stop() {
+        running=false;
+        if (watchService != null) {
+            try {
+                watchService.close();
+            } catch (IOException e) {
+                log.warn("Could not close CV directory watch service: {}", e.getMessage());
+            }
+        }
+        if (watcherThread != null) {
+            watcherThread.interrupt();
+        }
+    }
+
+    private void run() {
+        long nextReconcile=0;
+        while (running) {
+            try {
+                if (System.currentTimeMillis() >= nextReconcile) {
+                    reconcile();
+                    nextReconcile=System.currentTimeMillis() + reconcileIntervalMillis;
+                }
+                WatchKey key=watchService.poll(Math.max(100, settleMillis / 2), TimeUnit.MILLISECONDS);
+                if (key != null) {
+                    for (WatchEvent<?> event : key.pollEvents()) {
+                        if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                            nextReconcile=0;
+                        } else {
+                            note(watchDir.resolve((Path) event.context()));
+                        }
+                    }
+                    key.reset();
+                }
+                ingestSettled();
+            } catch (ClosedWatchServiceException | InterruptedException e) {
+                return;
+            } catch (RuntimeException e) {
+                log.error("CV directory watcher cycle failed: {}", e.getMessage(), e);
+            }
+        }
+    }
+
+    // the full scan is what makes missed events, overflows and files dropped while the app was down harmless
+    private void reconcile() {
+        try (DirectoryStream<Path> files=Files.newDirectoryStream(watchDir, "*.{pdf,PDF}")) {
+            for (Path file : files) {
+                note(file);
+            }
+        } catch (IOException e) {
+            log.warn("Could not scan CV directory {}: {}", watchDir, e.getMessage());
+        }
+    }
+
+    private void note(Path file) {
+        if (!file.getFileName().toString().toLowerCase(Locale.ROOT).endsWith(".pdf") || !Files.isRegularFile(file)) {
+            return;
+        }
+        FileState state=FileState.of(file);
+        if (state == null || state.sameContentAs(known.get(file))) {
+            return;
+        }
+        FileState previous=pending.get(file);
+        if (previous == null || !previous.sameContentAs(state)) {
+            pending.put(file, state);
+        }
+    }
+
+    // a file counts as fully written once its size and modification time have not moved for the settle period;
+    // never more than the parsing pipeline can admit right now, the rest waits in pending.
+    // a queued (or superseded) file becomes known, and so does a permanently rejected one until it changes; a file rejected for a
+    // transient reason or stored but not queued is picked up again by the next full scan
+    private void ingestSettled() {
+        if (pending.isEmpty()) {
+            return;
+        }
+        int capacity=Math.min(maxPerCycle, parsingPipeline.remainingCapacity());
+        Map<Path, FileState> ready=new LinkedHashMap<>();
+        long now=System.currentTimeMillis();
+        Iterator<Map.Entry<Path, FileState>> it=pending.entrySet().iterator();
+        while (it.hasNext() && ready.size() < capacity) {
+            Map.Entry<Path, FileState> entry=it.next();
+            FileState current=FileState.of(entry.getKey());
+            if (current == null) {
+                it.remove();
+                notQueued.remove(entry.getKey());
+            } else if (!current.sameContentAs(entry.getValue())) {
+                entry.setValue(current);
+            } else if (now - entry.getValue().seenAt() >= settleMillis) {
+                it.remove();
+                if (!notQueued.contains(entry.getKey()) && fileStorageService.isStoredCopy(entry.getKey())) {
+                    known.put(entry.getKey(), current);
+                } else {
+                    ready.put(entry.getKey(), current);
+                }
+            }
+        }
+        if (ready.isEmpty()) {
+            return;
+        }
+        Map<String, Path> byName=new HashMap<>();
+        ready.keySet().forEach(path -> byName.put(path.getFileName().toString(), path));
+        BulkIngestionResultDto result=cvIngestionService.ingestPaths(new ArrayList<>(ready.keySet()));
+        for (FileResult file : result.getFiles()) {
+            Path path=byName.get(file.getFileName());
+            if (path == null) {
+                continue;
+            }
+            if ("QUEUED".equals(file.getStatus()) || "SUPERSEDED".equals(file.getStatus())) {
+                known.put(path, ready.get(path));
+                notQueued.remove(path);
+            } else if ("STORED_NOT_QUEUED".equals(file.getStatus())) {
+                notQueued.add(path);
+            } else if ("REJECTED".equals(file.getStatus()) && !file.isRetryable()) {
+                known.put(path, ready.get(path));
+                log.warn("Dropped CV {} was rejected; it is ignored until the file changes: {}", path, file.getMessage());
+            } else if ("REJECTED".equals(file.getStatus())) {
+                log.warn("Dropped CV {} was rejected; retrying on the next scan: {}", path, file.getMessage());
+            }
+        }
+        log.info("Ingested {} dropped CV(s) from {}: {} queued, {} stored but not queued, {} rejected; {} still pending.",
+                ready.size(), watchDir, result.getQueued(), result.getStoredNotQueued(), result.getRejected(), pending.size());
+    }
+
+    private record FileState(long size, long lastModified, long seenAt) {
+        static FileState of(Path file) {
+            try {
+                return new FileState(Files.size(file), Files.getLastModifiedTime(file).toMillis(), System.currentTimeMillis());
+            } catch (IOException e) {
+                return null;
+            }
+        }
+        boolean sameContentAs(FileState other) {
+            return other != null && size == other.size && lastModified == other.lastModified;
+        }
+    }
+}
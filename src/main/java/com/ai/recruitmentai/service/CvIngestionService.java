@@ -0,0 +1,224 @@
+package com.ai.recruitmentai.service;
+import com.ai.recruitmentai.dto.BulkIngestionResultDto;
+import com.ai.recruitmentai.dto.BulkIngestionResultDto.FileResult;
+import com.ai.recruitmentai.entity.Candidate;
+import com.ai.recruitmentai.exception.FileStorageException;
+import com.ai.recruitmentai.util.FileStorageService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+// bulk CV upload: every PDF (loose or inside a ZIP) is streamed to disk one at a time, registered in groups and recorded in the parsing outbox
+@Service
+public class CvIngestionService {
+    private static final Logger log=LoggerFactory.getLogger(CvIngestionService.class);
+    private static final byte[] PDF_MAGIC="%PDF-".getBytes(StandardCharsets.US_ASCII);
+    private final CandidateService candidateService;
+    private final CvParsingPipeline parsingPipeline;
+    private final FileStorageService fileStorageService;
+    private final long maxFileBytes;
+    private final int registerBatchSize;
+    @Autowired
+    public CvIngestionService(CandidateService candidateService,
+                              CvParsingPipeline parsingPipeline,
+                              FileStorageService fileStorageService,
+                              @Value("${app.ingestion.max-file-bytes:10485760}") long maxFileBytes,
+                              @Value("${app.ingestion.register-batch-size:100}") int registerBatchSize) {
+        this.candidateService=candidateService;
+        this.parsingPipeline=parsingPipeline;
+        this.fileStorageService=fileStorageService;
+        this.maxFileBytes=maxFileBytes;
+        this.registerBatchSize=Math.max(1, registerBatchSize);
+    }
+
+    // a part named *.zip is expanded entry by entry; everything else is treated as a single CV
+    public BulkIngestionResultDto ingestFiles(List<MultipartFile> files) {
+        Ingestion ingestion=new Ingestion();
+        for (MultipartFile file : files) {
+            String name=file.getOriginalFilename() != null ? file.getOriginalFilename() : "";
+            try (InputStream in=file.getInputStream()) {
+                if (name.toLowerCase(Locale.ROOT).endsWith(".zip")) {
+                    ingestZipEntries(in, ingestion);
+                } else {
+                    ingestion.accept(name, in);
+                }
+            } catch (IOException e) {
+                ingestion.reject(name, null, "Could not read upload: " + e.getMessage());
+            }
+        }
+        return ingestion.finish();
+    }
+
+    // the body is read as it arrives; the archive is never buffered as a whole
+    public BulkIngestionResultDto ingestZip(InputStream body) {
+        Ingestion ingestion=new Ingestion();
+        try {
+            ingestZipEntries(body, ingestion);
+        } catch (IOException e) {
+            ingestion.reject("(archive)", null, "Could not read ZIP stream: " + e.getMessage());
+        }
+        return ingestion.finish();
+    }
+
+    // files picked up from disk go through the same store/register/queue path as uploads; results are in input order
+    public BulkIngestionResultDto ingestPaths(List<Path> paths) {
+        Ingestion ingestion=new Ingestion();
+        for (Path path : paths) {
+            String name=path.getFileName().toString();
+            InputStream in;
+            try {
+                in=Files.newInputStream(path);
+            } catch (IOException e) {
+                ingestion.reject(name, null, "Could not read file: " + e.getMessage());
+                continue;
+            }
+            try (in) {
+                ingestion.accept(name, in);
+            } catch (IOException e) {
+                log.debug("Could not close {}: {}", path, e.getMessage());
+            }
+        }
+        return ingestion.finish();
+    }
+
+    private void ingestZipEntries(InputStream in, Ingestion ingestion) throws IOException {
+        ZipInputStream zip=new ZipInputStream(in);
+        ZipEntry entry;
+        while ((entry=zip.getNextEntry()) != null) {
+            String name=entry.getName();
+            String baseName=name.substring(name.lastIndexOf('/') + 1);
+            if (entry.isDirectory() || name.startsWith("__MACOSX/") || baseName.isEmpty() || baseName.startsWith(".")) {
+                continue;
+            }
+            ingestion.accept(baseName, zip);
+        }
+    }
+
+    private static boolean startsWithPdfMagic(BufferedInputStream in) throws IOException {
+        in.mark(PDF_MAGIC.length);
+        byte[] head=in.readNBytes(PDF_MAGIC.length);
+        in.reset();
+        return Arrays.equals(head, PDF_MAGIC);
+    }
+
+    // per-request state: the manifest plus stored files waiting for their group to be registered
+    private class Ingestion {
+        private final long start=System.nanoTime();
+        private final BulkIngestionResultDto result=new BulkIngestionResultDto();
+        private final Map<String, Path> pendingPaths=new LinkedHashMap<>();
+        private final Map<String, FileResult> pendingResults=new LinkedHashMap<>();
+
+        void accept(String fileName, InputStream in) {
+            result.setReceived(result.getReceived() + 1);
+            String candidateIdFromFile=CandidateService.extractCandidateIdFromFilename(fileName);
+            if (!fileName.toLowerCase(Locale.ROOT).endsWith(".pdf")) {
+                reject(fileName, candidateIdFromFile, "Not a PDF file.", false);
+                return;
+            }
+            if (candidateIdFromFile == null) {
+                reject(fileName, null, "Could not extract required Candidate ID (e.g., Cxxxx) from filename.", false);
+                return;
+            }
+            try {
+                BufferedInputStream buffered=new BufferedInputStream(in);
+                if (!startsWithPdfMagic(buffered)) {
+                    reject(fileName, candidateIdFromFile, "File content is not a PDF.", false);
+                    return;
+                }
+                Path path=fileStorageService.storeStream(fileName, buffered, maxFileBytes);
+                FileResult entry=new FileResult(fileName, candidateIdFromFile, null, "STORED", null, false);
+                result.getFiles().add(entry);
+                FileResult superseded=pendingResults.put(candidateIdFromFile, entry);
+                if (superseded != null) {
+                    superseded.setStatus("SUPERSEDED");
+                    superseded.setMessage("A later file in this upload carries the same Candidate ID.");
+                }
+                Path supersededPath=pendingPaths.put(candidateIdFromFile, path);
+                if (supersededPath != null && !supersededPath.equals(path)) {
+                    // the earlier file will never be registered; a same-named one was already overwritten in place
+                    fileStorageService.deleteStored(supersededPath);
+                }
+                if (pendingPaths.size() >= registerBatchSize) {
+                    register();
+                }
+            } catch (IOException e) {
+                reject(fileName, candidateIdFromFile, e.getMessage(), true);
+            } catch (FileStorageException e) {
+                // only a failed write wraps an I/O error; an empty, oversize or badly named file is refused without one
+                reject(fileName, candidateIdFromFile, e.getMessage(), e.getCause() instanceof IOException);
+            }
+        }
+
+        void reject(String fileName, String candidateIdFromFile, String message) {
+            reject(fileName, candidateIdFromFile, message, true);
+        }
+
+        void reject(String fileName, String candidateIdFromFile, String message, boolean retryable) {
+            log.warn("Rejected CV {} from bulk upload: {}", fileName, message);
+            result.getFiles().add(new FileResult(fileName, candidateIdFromFile, null, "REJECTED", message, retryable));
+            result.setRejected(result.getRejected() + 1);
+        }
+
+        BulkIngestionResultDto finish() {
+            register();
+            result.setElapsedMs((System.nanoTime() - start) / 1_000_000);
+            log.info("Bulk CV ingestion finished in {} ms: {} received, {} queued for parsing, {} stored but not queued, {} rejected.",
+                    result.getElapsedMs(), result.getReceived(), result.getQueued(), result.getStoredNotQueued(), result.getRejected());
+            return result;
+        }
+
+        // a full parsing backlog leaves the candidate UPLOADED instead of failing the rest of the upload
+        private void register() {
+            if (pendingPaths.isEmpty()) {
+                return;
+            }
+            Map<String, Candidate> registered;
+            try {
+                registered=candidateService.registerStoredCvs(pendingPaths);
+            } catch (RuntimeException e) {
+                log.error("Could not register {} stored CV(s): {}", pendingPaths.size(), e.getMessage(), e);
+                pendingResults.values().forEach(entry -> {
+                    entry.setStatus("REJECTED");
+                    entry.setRetryable(true);
+                    entry.setMessage("Could not register candidate: " + e.getMessage());
+                });
+                result.setRejected(result.getRejected() + pendingResults.size());
+                pendingPaths.clear();
+                pendingResults.clear();
+                return;
+            }
+            Set<Long> queued=new HashSet<>(parsingPipeline.submitAll(registered.values().stream().map(Candidate::getId).toList()));
+            registered.forEach((candidateIdFromFile, candidate) -> {
+                FileResult entry=pendingResults.get(candidateIdFromFile);
+                entry.setCandidateId(candidate.getId());
+                if (queued.contains(candidate.getId())) {
+                    entry.setStatus("QUEUED");
+                    result.setQueued(result.getQueued() + 1);
+                } else {
+                    entry.setStatus("STORED_NOT_QUEUED");
+                    entry.setMessage("Parsing backlog is full; the candidate was stored with status UPLOADED.");
+                    result.setStoredNotQueued(result.getStoredNotQueued() + 1);
+                }
+            });
+            pendingPaths.clear();
+            pendingResults.clear();
+        }
+    }
+}
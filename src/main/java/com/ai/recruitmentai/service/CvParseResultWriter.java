@@ -0,0 +1,129 @@
+package com.ai.recruitmentai.service;
+import com.ai.recruitmentai.dto.CvDataDto;
+import com.ai.recruitmentai.entity.Candidate;
+import com.ai.recruitmentai.index.CandidateVectorIndex;
+import com.ai.recruitmentai.index.SkillIndex;
+import com.ai.recruitmentai.repository.CandidateRepository;
+import com.ai.recruitmentai.service.ParsingOutbox.Claim;
+import com.ai.recruitmentai.util.EmbeddingVectors;
+import jakarta.annotation.PreDestroy;
+import org.apache.commons.lang3.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+// last stage of the CV parsing pipeline: parse results are written back in batches, one transaction per batch that also removes the finished
+// outbox tasks, and the skill and vector indexes follow after commit
+@Component
+public class CvParseResultWriter {
+    private static final Logger log=LoggerFactory.getLogger(CvParseResultWriter.class);
+    private final CandidateRepository candidateRepository;
+    private final SkillIndex skillIndex;
+    private final CandidateVectorIndex vectorIndex;
+    private final ParsingOutbox outbox;
+    private final TransactionTemplate transactionTemplate;
+    private final WriteBehindBuffer<ParseOutcome> buffer;
+
+    public CvParseResultWriter(CandidateRepository candidateRepository,
+                               SkillIndex skillIndex,
+                               CandidateVectorIndex vectorIndex,
+                               ParsingOutbox outbox,
+                               TransactionTemplate transactionTemplate,
+                               @Value("${app.parsing.write-behind.batch-size:20}") int batchSize) {
+        this.candidateRepository=candidateRepository;
+        this.skillIndex=skillIndex;
+        this.vectorIndex=vectorIndex;
+        this.outbox=outbox;
+        this.transactionTemplate=transactionTemplate;
+        this.buffer=new WriteBehindBuffer<>("parse results", batchSize, this::write, (single, e) ->
+                log.error("Could not store parse result for Candidate ID {}: {}", single.candidateId(), e.getMessage()));
+    }
+
+    public void submit(ParseOutcome outcome) {
+        buffer.submit(outcome);
+    }
+
+    // a short interval keeps a lone upload from waiting long for its result to become visible
+    @Scheduled(fixedDelayString="${app.parsing.write-behind.flush-interval-ms:1000}")
+    public void flush() {
+        buffer.flush();
+    }
+
+    @PreDestroy
+    public void close() {
+        flush();
+    }
+
+    public Map<String, Object> getStats() {
+        return buffer.stats();
+    }
+
+    // an outcome whose claim was superseded (lease expired and re-claimed, or the candidate re-uploaded) is dropped, not written
+    private int write(List<ParseOutcome> batch) {
+        List<ParseOutcome> applied=transactionTemplate.execute(status -> {
+            Map<Long, ParseOutcome> current=new LinkedHashMap<>();
+            for (ParseOutcome outcome : batch) {
+                if (outcome.claim() != null && !outbox.complete(outcome.claim())) {
+                    log.info("Dropping parse result for Candidate ID {}: its parsing task was claimed again or re-enqueued.", outcome.candidateId());
+                    continue;
+                }
+                if (outcome.status() != null) {
+                    current.put(outcome.candidateId(), outcome);
+                }
+            }
+            for (Candidate candidate : candidateRepository.findAllById(current.keySet())) {
+                current.get(candidate.getId()).applyTo(candidate);
+            }
+            return new ArrayList<>(current.values());
+        });
+        applied.forEach(outcome -> {
+            if (outcome.isParsed()) {
+                skillIndex.indexCandidate(outcome.candidateId(), outcome.skills());
+                if (outcome.cvEmbedding() != null) {
+                    vectorIndex.upsert(outcome.candidateId(), outcome.cvEmbeddingHash(), EmbeddingVectors.fromBytes(outcome.cvEmbedding()));
+                } else {
+                    vectorIndex.remove(outcome.candidateId());
+                }
+            } else {
+                skillIndex.removeCandidate(outcome.candidateId());
+            }
+        });
+        return applied.size();
+    }
+
+    public record ParseOutcome(Long candidateId, String status, String name, String email, String phone, String extractedCvJson,
+                               byte[] cvEmbedding, String cvEmbeddingHash, List<String> skills, Claim claim) {
+        // the candidate carries the cleaned JSON and, when embeddings are on, its freshly computed embedding
+        public static ParseOutcome parsed(Candidate candidate, CvDataDto cvData, Claim claim) {
+            return new ParseOutcome(candidate.getId(), "PARSED", cvData.getName(), cvData.getEmail(), cvData.getPhone(),
+                    candidate.getExtractedCvJson(), candidate.getCvEmbedding(), candidate.getCvEmbeddingHash(), cvData.getSkills(), claim);
+        }
+        public static ParseOutcome failed(Long candidateId, String errorJsonOrMsg, Claim claim) {
+            return new ParseOutcome(candidateId, "ERROR_PARSING", null, null, null, StringUtils.abbreviate(errorJsonOrMsg, 1000), null, null, null, claim);
+        }
+        // nothing to store for the candidate; only its task is finished
+        public static ParseOutcome skipped(Claim claim) {
+            return new ParseOutcome(claim.candidateId(), null, null, null, null, null, null, null, null, claim);
+        }
+        public boolean isParsed() {
+            return "PARSED".equals(status);
+        }
+        public void applyTo(Candidate candidate) {
+            candidate.setStatus(status);
+            candidate.setName(name);
+            candidate.setEmail(email);
+            candidate.setPhone(phone);
+            candidate.setExtractedCvJson(extractedCvJson);
+            if (isParsed()) {
+                candidate.setCvEmbedding(cvEmbedding);
+                candidate.setCvEmbeddingHash(cvEmbeddingHash);
+            }
+        }
+    }
+}
@@ -0,0 +1,337 @@
+package com.ai.recruitmentai.service;
+import com.ai.recruitmentai.config.AsyncConfig;
+import com.ai.recruitmentai.dto.CvDataDto;
+import com.ai.recruitmentai.entity.Candidate;
+import com.ai.recruitmentai.exception.FileParsingException;
+import com.ai.recruitmentai.exception.LlmInteractionException;
+import com.ai.recruitmentai.llm.OllamaClient;
+import com.ai.recruitmentai.llm.PromptFactory;
+import com.ai.recruitmentai.llm.PromptType;
+import com.ai.recruitmentai.repository.CandidateRepository;
+import com.ai.recruitmentai.service.CvParseResultWriter.ParseOutcome;
+import com.ai.recruitmentai.service.ParsingOutbox.Claim;
+import com.ai.recruitmentai.util.CvTextCompactor;
+import com.ai.recruitmentai.util.CvTextCompactor.CompactionResult;
+import com.ai.recruitmentai.util.PdfParserUtil;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import java.io.File;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicLong;
+// staged CV parsing: work is recorded durably in the ParsingOutbox, claimed from there as stage capacity frees up, then runs
+// PDF text on a CPU-sized pool, LLM extraction on its own pool and batched write-back through CvParseResultWriter;
+// a backlog beyond maxBacklog is reported to the caller rather than thrown
+@Component
+public class CvParsingPipeline {
+    private static final Logger log=LoggerFactory.getLogger(CvParsingPipeline.class);
+    private final CandidateRepository candidateRepository;
+    private final OllamaClient ollamaClient;
+    private final ObjectMapper objectMapper;
+    private final EmbeddingService embeddingService;
+    private final CvParseResultWriter resultWriter;
+    private final ParsingOutbox outbox;
+    private final Executor textExecutor;
+    private final Executor llmExecutor;
+    private final int capacity;
+    private final long maxBacklog;
+    private final int llmThreads;
+    private final boolean cvCompactionEnabled;
+    private final int cvTokenBudget;
+    // off by default: embeddings are only needed for pre-retrieval and nearest-candidate search, which compute missing ones on first use
+    private final boolean embedOnParse;
+    private final Semaphore stageSlots;
+    private final Map<Long, Claim> inFlight=new ConcurrentHashMap<>();
+    private final AtomicLong backlog=new AtomicLong();
+    private final AtomicLong admitted=new AtomicLong();
+    private final AtomicLong turnedAway=new AtomicLong();
+    private final AtomicLong parsed=new AtomicLong();
+    private final AtomicLong failed=new AtomicLong();
+    private final AtomicLong retried=new AtomicLong();
+    private volatile boolean recovered;
+    private volatile double avgLlmMillis;
+
+    @Autowired
+    public CvParsingPipeline(CandidateRepository candidateRepository,
+                             OllamaClient ollamaClient,
+                             ObjectMapper objectMapper,
+                             EmbeddingService embeddingService,
+                             CvParseResultWriter resultWriter,
+                             ParsingOutbox outbox,
+                             @Qualifier(AsyncConfig.CV_TEXT_EXECUTOR_BEAN_NAME) Executor textExecutor,
+                             @Qualifier(AsyncConfig.CV_LLM_EXECUTOR_BEAN_NAME) Executor llmExecutor,
+                             @Value("${app.parsing.pipeline.capacity:32}") int capacity,
+                             @Value("${app.parsing.outbox.max-backlog:10000}") long maxBacklog,
+                             @Value("${app.parsing.llm-threads:4}") int llmThreads,
+                             @Value("${app.cv-compaction.enabled:true}") boolean cvCompactionEnabled,
+                             @Value("${app.cv-compaction.token-budget:4000}") int cvTokenBudget,
+                             @Value("${app.embeddings.embed-on-parse:false}") boolean embedOnParse) {
+        this.candidateRepository=candidateRepository;
+        this.ollamaClient=ollamaClient;
+        this.objectMapper=objectMapper;
+        this.embeddingService=embeddingService;
+        this.resultWriter=resultWriter;
+        this.outbox=outbox;
+        this.textExecutor=textExecutor;
+        this.llmExecutor=llmExecutor;
+        this.capacity=Math.max(1, capacity);
+        this.maxBacklog=Math.max(1, maxBacklog);
+        this.llmThreads=Math.max(1, llmThreads);
+        this.cvCompactionEnabled=cvCompactionEnabled;
+        this.cvTokenBudget=cvTokenBudget;
+        this.embedOnParse=embedOnParse;
+        this.stageSlots=new Semaphore(this.capacity);
+    }
+
+    // returns immediately once the work is recorded; false means the backlog is full and the candidate was left as it is
+    public boolean submit(Long candidateId) {
+        return submitAll(List.of(candidateId)).size() == 1;
+    }
+
+    // accepts a prefix of candidateIds up to the backlog limit, in one transaction; the room is reserved before enqueueing so
+    // concurrent submitters cannot both see the same free space
+    public List<Long> submitAll(List<Long> candidateIds) {
+        int room=reserve(candidateIds.size());
+        List<Long> accepted=candidateIds.subList(0, room);
+        try {
+            outbox.enqueue(accepted);
+        } catch (RuntimeException e) {
+            backlog.addAndGet(-room);
+            throw e;
+        }
+        turnedAway.addAndGet(candidateIds.size() - room);
+        return accepted;
+    }
+
+    private int reserve(int wanted) {
+        while (true) {
+            long current=backlog.get();
+            int room=(int) Math.max(0, Math.min(wanted, maxBacklog - current));
+            if (room == 0 || backlog.compareAndSet(current, current + room)) {
+                return room;
+            }
+        }
+    }
+
+    public int remainingCapacity() {
+        return (int) Math.max(0, Math.min(Integer.MAX_VALUE, maxBacklog - backlog.get()));
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void recover() {
+        outbox.recover();
+        backlog.set(outbox.backlog());
+        recovered=true;
+    }
+
+    // claims only as many tasks as the stages can take right now, so claimed work never waits behind its own lease
+    @Scheduled(fixedDelayString="${app.parsing.outbox.poll-interval-ms:1000}")
+    public void dispatch() {
+        if (!recovered) {
+            return;
+        }
+        int permits=stageSlots.drainPermits();
+        List<Claim> claims;
+        try {
+            backlog.set(outbox.backlog());
+            claims=outbox.claimDue(permits, inFlight.keySet());
+        } catch (RuntimeException e) {
+            stageSlots.release(permits);
+            log.error("Could not claim CV parsing tasks: {}", e.getMessage(), e);
+            return;
+        }
+        stageSlots.release(permits - claims.size());
+        for (Claim claim : claims) {
+            inFlight.put(claim.candidateId(), claim);
+            try {
+                textExecutor.execute(() -> extractText(claim));
+                admitted.incrementAndGet();
+            } catch (TaskRejectedException e) {
+                // the lease expires and the task is claimed again later
+                inFlight.remove(claim.candidateId());
+                stageSlots.release();
+            }
+        }
+    }
+
+    // keeps the leases of everything this node is extracting or waiting on the LLM for from expiring under it
+    @Scheduled(fixedDelayString="${app.cluster.heartbeat-interval-ms:15000}")
+    public void heartbeat() {
+        try {
+            outbox.extendLeases(List.copyOf(inFlight.values()));
+        } catch (RuntimeException e) {
+            log.error("Could not extend CV parsing leases: {}", e.getMessage(), e);
+        }
+    }
+
+    // roughly how long until an LLM worker frees a slot, from the observed LLM stage time
+    public long retryAfterSeconds() {
+        double millis=avgLlmMillis > 0 ? avgLlmMillis / llmThreads : 5000;
+        return Math.max(1, Math.min(120, (long) Math.ceil(millis / 1000)));
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats=new LinkedHashMap<>();
+        stats.put("capacity", capacity);
+        stats.put("inFlight", inFlight.size());
+        stats.put("backlog", backlog.get());
+        stats.put("maxBacklog", maxBacklog);
+        stats.put("admitted", admitted.get());
+        stats.put("turnedAway", turnedAway.get());
+        stats.put("parsed", parsed.get());
+        stats.put("failed", failed.get());
+        stats.put("retriesScheduled", retried.get());
+        stats.put("avgLlmStageMillis", Math.round(avgLlmMillis));
+        stats.put("retryAfterSeconds", retryAfterSeconds());
+        stats.put("outbox", outbox.getStats());
+        stats.put("writer", resultWriter.getStats());
+        return stats;
+    }
+
+    private void extractText(Claim claim) {
+        Long candidateId=claim.candidateId();
+        log.info("[Async] Starting CV parsing task for Candidate ID: {} (attempt {})", candidateId, claim.attempt());
+        try {
+            Candidate candidate=candidateRepository.findById(candidateId).orElse(null);
+            if (candidate == null) {
+                log.error("[Async] Candidate {} not found for async parsing.", candidateId);
+                complete(null, claim);
+                return;
+            }
+            if ("PARSED".equals(candidate.getStatus())) {
+                log.warn("[Async] Candidate {} already parsed successfully. Skipping.", candidateId);
+                complete(null, claim);
+                return;
+            }
+            candidate.setStatus("PARSING");
+            Candidate parsing=candidateRepository.save(candidate);
+            File cvFile=new File(parsing.getOriginalFilePath());
+            if (!cvFile.exists()) {
+                throw new FileParsingException("CV file not found at path: " + parsing.getOriginalFilePath());
+            }
+            log.info("[Async] Parsing PDF file: {}", cvFile.getPath());
+            String cvText=extractCvText(cvFile, candidateId);
+            llmExecutor.execute(() -> extractCvData(parsing, cvText, claim));
+        } catch (Exception e) {
+            log.error("[Async] Error during async parsing process for candidate {}: {}", candidateId, e.getMessage(), e);
+            fail(claim, e, "Error: " + e.getMessage());
+        }
+    }
+
+    private void extractCvData(Candidate candidate, String cvText, Claim claim) {
+        Long candidateId=candidate.getId();
+        String cleanedJson=null;
+        String rawLlmResponse=null;
+        long start=System.nanoTime();
+        try {
+            String prompt=PromptFactory.createCvExtractionPrompt(cvText);
+            log.info("[Async] Sending CV text to LLM for extraction...");
+            rawLlmResponse=ollamaClient.generateJson(PromptType.CV_EXTRACTION, prompt);
+            cleanedJson=cleanLlmJsonResponse(rawLlmResponse);
+            CvDataDto cvData=parseAndValidateCvJson(cleanedJson, candidateId);
+            candidate.setExtractedCvJson(cleanedJson);
+            if (embedOnParse) {
+                embeddingService.candidateEmbedding(candidate);
+            } else {
+                embeddingService.clearStaleEmbedding(candidate);
+            }
+            log.info("[Async] Successfully parsed Candidate ID: {}", candidateId);
+            complete(ParseOutcome.parsed(candidate, cvData, claim), claim);
+        } catch (Exception e) {
+            log.error("[Async] Error during async parsing process for candidate {}: {}", candidateId, e.getMessage(), e);
+            fail(claim, e, Objects.requireNonNullElse(cleanedJson, Objects.requireNonNullElse(rawLlmResponse, "Error: " + e.getMessage())));
+        } finally {
+            double millis=(System.nanoTime() - start) / 1_000_000.0;
+            avgLlmMillis=avgLlmMillis == 0 ? millis : avgLlmMillis * 0.8 + millis * 0.2;
+        }
+    }
+
+    // a missing or unreadable PDF will not get better by waiting; LLM and transient failures are retried with backoff until attempts run out
+    private void fail(Claim claim, Exception e, String errorData) {
+        if (!(e instanceof FileParsingException) && outbox.canRetry(claim)) {
+            try {
+                outbox.retryLater(claim, e.getMessage());
+                retried.incrementAndGet();
+            } catch (RuntimeException retryError) {
+                log.error("Could not reschedule parsing of Candidate ID {}; its lease will expire instead: {}", claim.candidateId(), retryError.getMessage());
+            }
+            release(claim);
+            return;
+        }
+        complete(ParseOutcome.failed(claim.candidateId(), errorData, claim), claim);
+    }
+
+    // outcome is null when there is nothing to write and the task only has to be removed
+    private void complete(ParseOutcome outcome, Claim claim) {
+        try {
+            resultWriter.submit(outcome != null ? outcome : ParseOutcome.skipped(claim));
+        } finally {
+            if (outcome != null) {
+                (outcome.isParsed() ? parsed : failed).incrementAndGet();
+            }
+            release(claim);
+        }
+    }
+
+    private void release(Claim claim) {
+        inFlight.remove(claim.candidateId());
+        stageSlots.release();
+    }
+
+    private String extractCvText(File cvFile, Long candidateId) {
+        if (!cvCompactionEnabled) {
+            String rawCvText=PdfParserUtil.extractText(cvFile);
+            if (rawCvText == null || rawCvText.isBlank()) {
+                throw new FileParsingException("Extracted empty text from PDF: " + cvFile.getName());
+            }
+            log.info("[Async] Extracted {} characters from PDF for Candidate ID: {}", rawCvText.length(), candidateId);
+            return rawCvText;
+        }
+        CompactionResult result=CvTextCompactor.compact(PdfParserUtil.extractPages(cvFile), cvTokenBudget);
+        if (result.text().isBlank()) {
+            throw new FileParsingException("Extracted empty text from PDF: " + cvFile.getName());
+        }
+        log.info("[Async] Compacted CV text for Candidate ID {}: {} -> {} chars, ~{} -> ~{} tokens (saved {} chars / ~{} tokens{})",
+                candidateId, result.originalChars(), result.compactedChars(), result.originalTokens(), result.compactedTokens(),
+                result.savedChars(), result.savedTokens(), result.truncated() ? ", truncated to budget of " + cvTokenBudget : "");
+        return result.text();
+    }
+    private String cleanLlmJsonResponse(String rawResponse) throws LlmInteractionException {
+        if (rawResponse == null) throw new LlmInteractionException("LLM returned null response.");
+        String cleaned=rawResponse.trim();
+        if (cleaned.startsWith("```json")) cleaned=cleaned.substring(7);
+        if (cleaned.endsWith("```")) cleaned=cleaned.substring(0, cleaned.length() - 3);
+        cleaned=cleaned.trim();
+        if (cleaned.isEmpty() || !cleaned.startsWith("{") || !cleaned.endsWith("}")) {
+            log.warn("LLM response not JSON-like after cleaning. Raw: '{}'", rawResponse);
+            throw new LlmInteractionException("LLM response empty/not JSON-like after cleaning. Cleaned: '" + cleaned + "'");
+        }
+        log.debug("Cleaned LLM response: {}", cleaned);
+        return cleaned;
+    }
+    private CvDataDto parseAndValidateCvJson(String jsonString, Long id) throws JsonProcessingException {
+        try {
+            CvDataDto cvData=objectMapper.readValue(jsonString, CvDataDto.class);
+            log.debug("LLM CV JSON parsed and validated successfully for ID: {}", id);
+            return cvData;
+        } catch (JsonProcessingException jsonEx) {
+            log.error("LLM CV response is not valid JSON or doesn't match DTO for ID {}. JSON: '{}'", id, jsonString, jsonEx);
+            throw jsonEx;
+        }
+    }
+}
@@ -0,0 +1,238 @@
+package com.ai.recruitmentai.service;
+import com.ai.recruitmentai.dto.CandidateSimilarityDto;
+import com.ai.recruitmentai.entity.Candidate;
+import com.ai.recruitmentai.entity.JobDescription;
+import com.ai.recruitmentai.exception.LlmInteractionException;
+import com.ai.recruitmentai.index.CandidateVectorIndex;
+import com.ai.recruitmentai.index.CandidateVectorIndex.Neighbour;
+import com.ai.recruitmentai.llm.OllamaClient;
+import com.ai.recruitmentai.repository.CandidateRepository;
+import com.ai.recruitmentai.repository.JobDescriptionRepository;
+import com.ai.recruitmentai.util.EmbeddingVectors;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.function.Predicate;
+@Service
+public class EmbeddingService {
+    private static final Logger log=LoggerFactory.getLogger(EmbeddingService.class);
+    private static final int LOAD_CHUNK_SIZE=200;
+    private final OllamaClient ollamaClient;
+    private final CandidateRepository candidateRepository;
+    private final JobDescriptionRepository jobDescriptionRepository;
+    private final CandidateVectorIndex vectorIndex;
+    @Value("${app.embeddings.enabled:true}")
+    private boolean enabled;
+    @Value("${app.cluster.enabled:false}")
+    private boolean clusterEnabled;
+    @Autowired
+    public EmbeddingService(OllamaClient ollamaClient,
+                            CandidateRepository candidateRepository,
+                            JobDescriptionRepository jobDescriptionRepository,
+                            CandidateVectorIndex vectorIndex) {
+        this.ollamaClient=ollamaClient;
+        this.candidateRepository=candidateRepository;
+        this.jobDescriptionRepository=jobDescriptionRepository;
+        this.vectorIndex=vectorIndex;
+    }
+    public boolean isEnabled() {
+        return enabled;
+    }
+    // returns the stored vector while the CV JSON it was computed from is unchanged; otherwise re-embeds and sets it on the entity. The caller
+    // saves it and then indexes it, so the vector index never holds a vector for CV JSON that was not stored
+    public Optional<float[]> candidateEmbedding(Candidate candidate) {
+        if (!enabled || candidate.getExtractedCvJson() == null || candidate.getExtractedCvJson().isBlank()) {
+            return Optional.empty();
+        }
+        String fingerprint=EmbeddingVectors.fingerprint(ollamaClient.getEmbeddingModelName(), candidate.getExtractedCvJson());
+        if (fingerprint.equals(candidate.getCvEmbeddingHash()) && candidate.getCvEmbedding() != null) {
+            return Optional.of(EmbeddingVectors.fromBytes(candidate.getCvEmbedding()));
+        }
+        return embed(candidate.getExtractedCvJson(), "Candidate", candidate.getId()).map(vector -> {
+            candidate.setCvEmbedding(EmbeddingVectors.toBytes(vector));
+            candidate.setCvEmbeddingHash(fingerprint);
+            return vector;
+        });
+    }
+    // drops a stored vector computed from other CV JSON, so a parse that does not embed never carries a stale one into the index
+    public void clearStaleEmbedding(Candidate candidate) {
+        String hash=candidate.getCvEmbeddingHash();
+        if (hash != null && (candidate.getExtractedCvJson() == null
+                || !hash.equals(EmbeddingVectors.fingerprint(ollamaClient.getEmbeddingModelName(), candidate.getExtractedCvJson())))) {
+            candidate.setCvEmbedding(null);
+            candidate.setCvEmbeddingHash(null);
+        }
+    }
+    public Optional<float[]> jobEmbedding(JobDescription job) {
+        if (!enabled || job.getStructuredSummaryJson() == null || job.getStructuredSummaryJson().isBlank()) {
+            return Optional.empty();
+        }
+        String fingerprint=EmbeddingVectors.fingerprint(ollamaClient.getEmbeddingModelName(), job.getStructuredSummaryJson());
+        if (fingerprint.equals(job.getSummaryEmbeddingHash()) && job.getSummaryEmbedding() != null) {
+            return Optional.of(EmbeddingVectors.fromBytes(job.getSummaryEmbedding()));
+        }
+        return embed(job.getStructuredSummaryJson(), "Job", job.getId()).map(vector -> {
+            job.setSummaryEmbedding(EmbeddingVectors.toBytes(vector));
+            job.setSummaryEmbeddingHash(fingerprint);
+            return vector;
+        });
+    }
+    // keeps the topN candidate IDs closest to the job by cosine similarity; candidates that cannot be embedded are kept rather than silently dropped
+    public List<Long> retrieveTopCandidateIds(JobDescription job, List<Long> candidateIds, int topN) {
+        if (!enabled || topN <= 0 || candidateIds.size() <= topN) {
+            return candidateIds;
+        }
+        Optional<float[]> jobVector=storedJobEmbedding(job);
+        if (jobVector.isEmpty()) {
+            log.warn("No embedding available for Job ID {}; skipping pre-retrieval and matching all {} candidates.", job.getId(), candidateIds.size());
+            return candidateIds;
+        }
+        return vectorIndex.isAvailable()
+                ? rankByIndex(job, jobVector.get(), candidateIds, topN)
+                : rankByScan(job, jobVector.get(), candidateIds, topN);
+    }
+    // answered from the vector index alone, which is turned off in cluster mode because each node's copy only holds its own embeddings
+    public List<CandidateSimilarityDto> nearestCandidates(JobDescription job, int k) {
+        if (clusterEnabled) {
+            throw new IllegalStateException("Nearest-candidate search relies on the node-local vector index and is not available with app.cluster.enabled=true.");
+        }
+        Optional<float[]> jobVector=storedJobEmbedding(job);
+        if (jobVector.isEmpty() || !vectorIndex.isAvailable()) {
+            return List.of();
+        }
+        Map<Long, Double> similarities=new HashMap<>();
+        List<Neighbour> neighbours=searchIndex(jobVector.get(), k * 2, id -> true);
+        neighbours.forEach(neighbour -> similarities.put(neighbour.candidateId(), neighbour.similarity()));
+        return candidateRepository.findAllById(similarities.keySet()).stream()
+                .filter(candidate -> "PARSED".equals(candidate.getStatus()))
+                .map(candidate -> CandidateSimilarityDto.fromEntity(candidate, similarities.get(candidate.getId())))
+                .sorted(Comparator.comparingDouble(CandidateSimilarityDto::getSimilarity).reversed())
+                .limit(k)
+                .toList();
+    }
+    private Optional<float[]> storedJobEmbedding(JobDescription job) {
+        String jobHash=job.getSummaryEmbeddingHash();
+        Optional<float[]> jobVector=jobEmbedding(job);
+        if (jobVector.isPresent() && !Objects.equals(jobHash, job.getSummaryEmbeddingHash())) {
+            jobDescriptionRepository.save(job);
+        }
+        return jobVector;
+    }
+    // candidates already in the ANN index are never loaded; only ones missing from it are fetched (a chunk at a time), embedded and indexed on the way
+    private List<Long> rankByIndex(JobDescription job, float[] jobVector, List<Long> candidateIds, int topN) {
+        Set<Long> eligible=new HashSet<>();
+        List<Long> missing=new ArrayList<>();
+        for (Long candidateId : candidateIds) {
+            if (vectorIndex.contains(candidateId)) {
+                eligible.add(candidateId);
+            } else {
+                missing.add(candidateId);
+            }
+        }
+        List<Long> unranked=new ArrayList<>();
+        int refreshed=0;
+        for (int from=0; from < missing.size(); from += LOAD_CHUNK_SIZE) {
+            List<Candidate> chunk=candidateRepository.findAllById(missing.subList(from, Math.min(missing.size(), from + LOAD_CHUNK_SIZE)));
+            refreshed += refreshEmbeddings(chunk, (candidate, vector) -> {
+                if (vectorIndex.contains(candidate.getId())) {
+                    eligible.add(candidate.getId());
+                } else {
+                    unranked.add(candidate.getId());
+                }
+            });
+        }
+        List<Long> retrieved=new ArrayList<>();
+        for (Neighbour neighbour : searchIndex(jobVector, topN, eligible::contains)) {
+            retrieved.add(neighbour.candidateId());
+        }
+        int ranked=retrieved.size();
+        retrieved.addAll(unranked);
+        log.info("ANN pre-retrieval for Job ID {}: kept {} of {} candidates (top {} from the vector index, {} without usable embeddings, {} embeddings refreshed).",
+                job.getId(), retrieved.size(), candidateIds.size(), ranked, unranked.size(), refreshed);
+        return retrieved;
+    }
+    // the index also holds candidates outside the requested set, so the search widens until topN accepted hits are found or the index is exhausted
+    private List<Neighbour> searchIndex(float[] jobVector, int topN, Predicate<Long> accept) {
+        int k=topN;
+        while (true) {
+            List<Neighbour> neighbours=vectorIndex.search(jobVector, k);
+            List<Neighbour> accepted=neighbours.stream().filter(neighbour -> accept.test(neighbour.candidateId())).limit(topN).toList();
+            if (accepted.size() >= topN || neighbours.size() < k || k >= vectorIndex.size()) {
+                return accepted;
+            }
+            k=Math.min(k * 2, vectorIndex.size());
+        }
+    }
+    private List<Long> rankByScan(JobDescription job, float[] jobVector, List<Long> candidateIds, int topN) {
+        PriorityQueue<ScoredCandidate> best=new PriorityQueue<>(Comparator.comparingDouble(ScoredCandidate::score));
+        List<Long> unranked=new ArrayList<>();
+        int refreshed=0;
+        for (int from=0; from < candidateIds.size(); from += LOAD_CHUNK_SIZE) {
+            List<Candidate> chunk=candidateRepository.findAllById(candidateIds.subList(from, Math.min(candidateIds.size(), from + LOAD_CHUNK_SIZE)));
+            refreshed += refreshEmbeddings(chunk, (candidate, vector) -> {
+                if (vector.isEmpty() || vector.get().length != jobVector.length) {
+                    unranked.add(candidate.getId());
+                    return;
+                }
+                best.add(new ScoredCandidate(candidate.getId(), EmbeddingVectors.dot(jobVector, vector.get())));
+                if (best.size() > topN) {
+                    best.poll();
+                }
+            });
+        }
+        List<ScoredCandidate> ranked=new ArrayList<>(best);
+        ranked.sort(Comparator.comparingDouble(ScoredCandidate::score).reversed());
+        List<Long> retrieved=new ArrayList<>(ranked.size() + unranked.size());
+        ranked.forEach(scored -> retrieved.add(scored.candidateId()));
+        retrieved.addAll(unranked);
+        log.info("Embedding pre-retrieval for Job ID {}: kept {} of {} candidates (top {} by cosine similarity, {} without usable embeddings, {} embeddings refreshed).",
+                job.getId(), retrieved.size(), candidateIds.size(), ranked.size(), unranked.size(), refreshed);
+        return retrieved;
+    }
+    // brings each candidate's stored embedding up to date, saves and indexes the ones that changed, then hands every candidate on;
+    // returns how many were re-embedded
+    private int refreshEmbeddings(List<Candidate> candidates, BiConsumer<Candidate, Optional<float[]>> then) {
+        List<Candidate> refreshed=new ArrayList<>();
+        Map<Long, Optional<float[]>> vectors=new HashMap<>();
+        for (Candidate candidate : candidates) {
+            String candidateHash=candidate.getCvEmbeddingHash();
+            Optional<float[]> vector=candidateEmbedding(candidate);
+            if (!Objects.equals(candidateHash, candidate.getCvEmbeddingHash())) {
+                refreshed.add(candidate);
+            }
+            vectors.put(candidate.getId(), vector);
+        }
+        if (!refreshed.isEmpty()) {
+            candidateRepository.saveAll(refreshed);
+            refreshed.forEach(candidate -> vectors.get(candidate.getId())
+                    .ifPresent(vector -> vectorIndex.upsert(candidate.getId(), candidate.getCvEmbeddingHash(), vector)));
+        }
+        candidates.forEach(candidate -> then.accept(candidate, vectors.get(candidate.getId())));
+        return refreshed.size();
+    }
+    private Optional<float[]> embed(String text, String kind, Long id) {
+        try {
+            float[] vector=EmbeddingVectors.normalize(ollamaClient.embed(text));
+            log.debug("Computed {}-dimensional embedding for {} ID {}", vector.length, kind, id);
+            return Optional.of(vector);
+        } catch (LlmInteractionException e) {
+            log.warn("Could not compute embedding for {} ID {}: {}", kind, id, e.getMessage());
+            return Optional.empty();
+        }
+    }
+    private record ScoredCandidate(Long candidateId, float score) {
+    }
+}
@@ -6,6 +6,7 @@ import com.ai.recruitmentai.exception.LlmInteractionException;
 import com.ai.recruitmentai.exception.ResourceNotFoundException;
 import com.ai.recruitmentai.llm.OllamaClient;
 import com.ai.recruitmentai.llm.PromptFactory;
+import com.ai.recruitmentai.llm.PromptType;
 import com.ai.recruitmentai.repository.ApplicationRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -83,7 +84,7 @@ public class InterviewService {
         try {
             log.debug("Generating email draft for Application ID {}", appId);
             String draftPrompt=PromptFactory.createInterviewEmailDraftPrompt(candidateName, jobTitle);
-            String emailBodyDraft=ollamaClient.generate(draftPrompt);
+            String emailBodyDraft=ollamaClient.generate(PromptType.INTERVIEW_DRAFT, draftPrompt);
             if (!StringUtils.hasText(emailBodyDraft)) {
                 throw new LlmInteractionException("LLM returned empty email body draft for Application ID " + appId);
             }
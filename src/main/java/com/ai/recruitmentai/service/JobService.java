@@ -1,10 +1,12 @@
 package com.ai.recruitmentai.service;
+import com.ai.recruitmentai.dto.CandidateSimilarityDto;
 import com.ai.recruitmentai.entity.JobDescription;
 import com.ai.recruitmentai.exception.FileParsingException;
 import com.ai.recruitmentai.exception.LlmInteractionException;
 import com.ai.recruitmentai.exception.ResourceNotFoundException;
 import com.ai.recruitmentai.llm.OllamaClient;
 import com.ai.recruitmentai.llm.PromptFactory;
+import com.ai.recruitmentai.llm.PromptType;
 import com.ai.recruitmentai.repository.JobDescriptionRepository;
 import com.ai.recruitmentai.util.CsvParserUtil;
 import com.fasterxml.jackson.core.JsonProcessingException;
@@ -24,13 +26,16 @@ public class JobService {
     private final JobDescriptionRepository jobDescriptionRepository;
     private final OllamaClient ollamaClient;
     private final ObjectMapper objectMapper;
+    private final EmbeddingService embeddingService;
     @Autowired
     public JobService(JobDescriptionRepository jobDescriptionRepository,
                       OllamaClient ollamaClient,
-                      ObjectMapper objectMapper) {
+                      ObjectMapper objectMapper,
+                      EmbeddingService embeddingService) {
         this.jobDescriptionRepository=jobDescriptionRepository;
         this.ollamaClient=ollamaClient;
         this.objectMapper=objectMapper;
+        this.embeddingService=embeddingService;
     }
     @Transactional
     public List<JobDescription> loadJobsFromCsv(InputStream csvInputStream) {
@@ -41,8 +46,12 @@ public class JobService {
                 log.warn("No valid job descriptions found in the provided CSV stream.");
                 return List.of();
             }
+            long start=System.nanoTime();
             List<JobDescription> savedJobs=jobDescriptionRepository.saveAll(jobDescriptions);
-            log.info("Successfully saved {} new job descriptions from CSV.", savedJobs.size());
+            jobDescriptionRepository.flush();
+            long elapsed=Math.max(1, System.nanoTime() - start);
+            log.info("Successfully saved {} new job descriptions from CSV in {} ms ({} rows/s).",
+                    savedJobs.size(), elapsed / 1_000_000, Math.round(savedJobs.size() * 1_000_000_000.0 / elapsed));
             return savedJobs;
         } catch (FileParsingException e) {
             log.error("Failed to parse CSV file.", e);
@@ -77,12 +86,13 @@ public class JobService {
         try {
             String prompt=PromptFactory.createJdSummaryPrompt(job.getRawDescription());
             log.info("Sending JD summarization prompt to LLM for Job ID: {}", jobId);
-            String rawLlmResponse=ollamaClient.generate(prompt);
+            String rawLlmResponse=ollamaClient.generateJson(PromptType.JD_SUMMARY, prompt);
             cleanedJson=cleanLlmJsonResponse(rawLlmResponse);
             validateJsonStructure(cleanedJson, jobId, "summary");
             log.debug("Setting structuredSummaryJson for Job ID {} to: {}", jobId, cleanedJson);
             job.setStructuredSummaryJson(cleanedJson);
             job.setStatus("SUMMARIZED");
+            embeddingService.jobEmbedding(job);
             log.info("Successfully summarized job description ID: {}.", jobId);
         } catch (LlmInteractionException | JsonProcessingException e) {
             log.error("LLM interaction or JSON validation failed while summarizing job ID: {}", jobId, e);
@@ -140,6 +150,14 @@ public class JobService {
         }
         return jobDescriptionRepository.findById(jobId);
     }
+    public List<CandidateSimilarityDto> findNearestCandidates(Long jobId, int k) {
+        JobDescription job=jobDescriptionRepository.findById(jobId)
+                .orElseThrow(() -> new ResourceNotFoundException("JobDescription not found with ID: " + jobId));
+        if (job.getStructuredSummaryJson() == null || job.getStructuredSummaryJson().isBlank()) {
+            throw new IllegalStateException("JobDescription ID " + jobId + " has not been summarized yet.");
+        }
+        return embeddingService.nearestCandidates(job, k);
+    }
     public List<JobDescription> getAllJobs() {
         log.debug("Fetching all job descriptions");
         return jobDescriptionRepository.findAll();
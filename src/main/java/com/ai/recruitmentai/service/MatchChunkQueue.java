@@ -0,0 +1,135 @@
+package com.ai.recruitmentai.service;
+import com.ai.recruitmentai.config.DatabaseClock;
+import com.ai.recruitmentai.config.NodeIdentity;
+import com.ai.recruitmentai.entity.MatchChunk;
+import com.ai.recruitmentai.repository.MatchChunkRepository;
+import com.ai.recruitmentai.repository.MatchChunkRepository.RunTotals;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+// DB-backed work queue for cluster match-all runs: the coordinating node publishes a run's candidates as chunks, every node claims due chunks
+// with SKIP LOCKED under a lease, and a chunk whose owner stops heartbeating is picked up again by another node
+@Component
+public class MatchChunkQueue {
+    private static final Logger log=LoggerFactory.getLogger(MatchChunkQueue.class);
+    private final MatchChunkRepository matchChunkRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final WorkLeases leases;
+    private final int chunkSize;
+
+    public MatchChunkQueue(MatchChunkRepository matchChunkRepository,
+                           TransactionTemplate transactionTemplate,
+                           DatabaseClock databaseClock,
+                           NodeIdentity nodeIdentity,
+                           @Value("${app.cluster.match-chunk-size:50}") int chunkSize,
+                           @Value("${app.cluster.match-chunk-lease-seconds:120}") long leaseSeconds) {
+        this.matchChunkRepository=matchChunkRepository;
+        this.transactionTemplate=transactionTemplate;
+        this.leases=new WorkLeases(matchChunkRepository, transactionTemplate, databaseClock, nodeIdentity.getNodeId(), Duration.ofSeconds(leaseSeconds));
+        this.chunkSize=Math.max(1, chunkSize);
+    }
+
+    public int publish(Long runId, Long jobId, List<Long> candidateIds, boolean force) {
+        LocalDateTime now=LocalDateTime.now();
+        List<MatchChunk> chunks=new ArrayList<>();
+        for (int from=0; from < candidateIds.size(); from += chunkSize) {
+            MatchChunk chunk=new MatchChunk();
+            chunk.setRunId(runId);
+            chunk.setJobId(jobId);
+            chunk.setCandidateIds(candidateIds.subList(from, Math.min(candidateIds.size(), from + chunkSize)).stream()
+                    .map(String::valueOf)
+                    .collect(Collectors.joining(",")));
+            chunk.setForceRematch(force);
+            chunk.setStatus("PENDING");
+            chunk.setCreatedAt(now);
+            chunks.add(chunk);
+        }
+        transactionTemplate.executeWithoutResult(status -> matchChunkRepository.saveAll(chunks));
+        return chunks.size();
+    }
+
+    // the row locks only last for this transaction; from then on the lease keeps other nodes off the chunk
+    public List<ChunkClaim> claimDue(int limit) {
+        if (limit <= 0) {
+            return List.of();
+        }
+        return transactionTemplate.execute(status -> {
+            LocalDateTime now=leases.now();
+            List<ChunkClaim> claims=new ArrayList<>();
+            for (MatchChunk chunk : matchChunkRepository.lockDue(now, limit)) {
+                String previousOwner=chunk.getLeaseOwner();
+                if (leases.claim(chunk, now)) {
+                    log.warn("Match chunk {} of run {} was leased by node {} which stopped heartbeating; reclaiming.",
+                            chunk.getId(), chunk.getRunId(), previousOwner);
+                }
+                List<Long> candidateIds=Arrays.stream(chunk.getCandidateIds().split(",")).map(Long::valueOf).toList();
+                claims.add(new ChunkClaim(chunk.getId(), chunk.getRunId(), chunk.getJobId(), candidateIds, chunk.isForceRematch(), chunk.getLeaseToken()));
+            }
+            return claims;
+        });
+    }
+
+    // heartbeat; returns the lease tokens of chunks whose run was cancelled in the meantime
+    public Set<String> extendLeases(Collection<ChunkClaim> claims) {
+        if (claims.isEmpty()) {
+            return Set.of();
+        }
+        List<String> tokens=claims.stream().map(ChunkClaim::leaseToken).toList();
+        leases.extend(tokens);
+        return new HashSet<>(matchChunkRepository.findCancelledTokens(tokens));
+    }
+
+    // the counters are kept even for a cancelled chunk, since its results were written; a chunk taken over by another node is left to that node
+    public void complete(ChunkClaim claim, MatchProgress progress, String error) {
+        boolean recorded=Boolean.TRUE.equals(transactionTemplate.execute(status -> matchChunkRepository.findByLeaseToken(claim.leaseToken())
+                .map(chunk -> {
+                    chunk.setMatchedCandidates(progress.getMatched());
+                    chunk.setSkippedCandidates(progress.getSkipped());
+                    chunk.setUnsavedResults(progress.getUnsaved());
+                    chunk.setFailedCandidates(error == null ? progress.getFailed()
+                            : claim.candidateIds().size() - progress.getMatched() - progress.getSkipped());
+                    if ("IN_PROGRESS".equals(chunk.getStatus())) {
+                        chunk.setStatus(error == null ? "DONE" : "FAILED");
+                        chunk.setFinishedAt(LocalDateTime.now());
+                    }
+                    chunk.setLeaseExpiresAt(null);
+                    return true;
+                })
+                .orElse(false)));
+        if (!recorded) {
+            log.warn("Match chunk {} of run {} was taken over by another node before it finished here; its counters are left to that node.",
+                    claim.chunkId(), claim.runId());
+        }
+    }
+
+    public int cancelOpen(Long runId) {
+        Integer cancelled=transactionTemplate.execute(status -> matchChunkRepository.cancelOpen(runId, LocalDateTime.now()));
+        return cancelled != null ? cancelled : 0;
+    }
+
+    public RunTotals totals(Long runId) {
+        return matchChunkRepository.sumByRunId(runId);
+    }
+
+    // after a restart this node holds no chunks, so leases still under its name can be handed out again straight away
+    public void recover() {
+        int released=leases.releaseOwn();
+        if (released > 0) {
+            log.info("Released {} match chunk lease(s) held by node {} before it restarted.", released, leases.nodeId());
+        }
+    }
+
+    public record ChunkClaim(Long chunkId, Long runId, Long jobId, List<Long> candidateIds, boolean force, String leaseToken) {
+    }
+}
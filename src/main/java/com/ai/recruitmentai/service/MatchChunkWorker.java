@@ -0,0 +1,123 @@
+package com.ai.recruitmentai.service;
+import com.ai.recruitmentai.config.AsyncConfig;
+import com.ai.recruitmentai.service.MatchChunkQueue.ChunkClaim;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Semaphore;
+// cluster mode: pulls match chunks published by any node's match-all run and scores them here, at most chunksPerNode at a time
+@Component
+public class MatchChunkWorker {
+    private static final Logger log=LoggerFactory.getLogger(MatchChunkWorker.class);
+    private final MatchChunkQueue matchChunkQueue;
+    private final MatchingService matchingService;
+    private final Executor chunkExecutor;
+    private final boolean enabled;
+    private final Semaphore slots;
+    private final Map<String, RunningChunk> inFlight=new ConcurrentHashMap<>();
+    private volatile boolean recovered;
+
+    @Autowired
+    public MatchChunkWorker(MatchChunkQueue matchChunkQueue,
+                            MatchingService matchingService,
+                            @Qualifier(AsyncConfig.MATCH_CHUNK_EXECUTOR_BEAN_NAME) Executor chunkExecutor,
+                            @Value("${app.cluster.enabled:false}") boolean enabled,
+                            @Value("${app.cluster.match-chunks-per-node:2}") int chunksPerNode) {
+        this.matchChunkQueue=matchChunkQueue;
+        this.matchingService=matchingService;
+        this.chunkExecutor=chunkExecutor;
+        this.enabled=enabled;
+        this.slots=new Semaphore(Math.max(1, chunksPerNode));
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void recover() {
+        if (!enabled) {
+            return;
+        }
+        matchChunkQueue.recover();
+        recovered=true;
+    }
+
+    @Scheduled(fixedDelayString="${app.cluster.match-poll-interval-ms:2000}")
+    public void poll() {
+        if (!recovered) {
+            return;
+        }
+        int permits=slots.drainPermits();
+        List<ChunkClaim> claims;
+        try {
+            claims=matchChunkQueue.claimDue(permits);
+        } catch (RuntimeException e) {
+            slots.release(permits);
+            log.error("Could not claim match chunks: {}", e.getMessage(), e);
+            return;
+        }
+        slots.release(permits - claims.size());
+        for (ChunkClaim claim : claims) {
+            RunningChunk running=new RunningChunk(claim, new MatchProgress());
+            inFlight.put(claim.leaseToken(), running);
+            try {
+                chunkExecutor.execute(() -> run(running));
+            } catch (TaskRejectedException e) {
+                // the lease expires and the chunk is claimed again later
+                inFlight.remove(claim.leaseToken());
+                slots.release();
+            }
+        }
+    }
+
+    // keeps this node's chunk leases alive and stops chunks whose run was cancelled on whichever node coordinates it
+    @Scheduled(fixedDelayString="${app.cluster.heartbeat-interval-ms:15000}")
+    public void heartbeat() {
+        if (inFlight.isEmpty()) {
+            return;
+        }
+        try {
+            Set<String> cancelled=matchChunkQueue.extendLeases(inFlight.values().stream().map(RunningChunk::claim).toList());
+            cancelled.forEach(token -> {
+                RunningChunk running=inFlight.get(token);
+                if (running != null) {
+                    running.progress().cancel();
+                }
+            });
+        } catch (RuntimeException e) {
+            log.error("Could not extend match chunk leases: {}", e.getMessage(), e);
+        }
+    }
+
+    private void run(RunningChunk running) {
+        ChunkClaim claim=running.claim();
+        String error=null;
+        try {
+            matchingService.matchCandidateChunk(claim.jobId(), claim.candidateIds(), claim.force(), running.progress());
+        } catch (Exception e) {
+            log.error("Match chunk {} of run {} (Job ID {}) failed: {}", claim.chunkId(), claim.runId(), claim.jobId(), e.getMessage(), e);
+            error=e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName();
+        }
+        try {
+            matchChunkQueue.complete(claim, running.progress(), error);
+        } catch (RuntimeException e) {
+            log.error("Could not record match chunk {} of run {}; it will be claimed again once its lease expires: {}",
+                    claim.chunkId(), claim.runId(), e.getMessage(), e);
+        } finally {
+            inFlight.remove(claim.leaseToken());
+            slots.release();
+        }
+    }
+
+    private record RunningChunk(ChunkClaim claim, MatchProgress progress) {
+    }
+}
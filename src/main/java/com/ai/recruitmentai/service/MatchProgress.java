@@ -0,0 +1,67 @@
+package com.ai.recruitmentai.service;
+import java.util.concurrent.atomic.AtomicInteger;
+// live counters of one match-all run, shared by the matching workers and whoever reports on the run
+public class MatchProgress {
+    private final AtomicInteger total=new AtomicInteger();
+    private final AtomicInteger matched=new AtomicInteger();
+    private final AtomicInteger failed=new AtomicInteger();
+    private final AtomicInteger skipped=new AtomicInteger();
+    private final AtomicInteger unsaved=new AtomicInteger();
+    private volatile boolean cancelled;
+
+    public void planned(int candidates) {
+        total.set(candidates);
+    }
+
+    public void recordSkipped(int unchanged) {
+        skipped.addAndGet(unchanged);
+    }
+
+    // counted by the result writer once the outcome is stored, so a run never reports results that are not in the database
+    public void recordResult(boolean success) {
+        (success ? matched : failed).incrementAndGet();
+    }
+
+    // the candidate was scored but its result could not be stored; it counts as failed
+    public void recordUnsaved() {
+        failed.incrementAndGet();
+        unsaved.incrementAndGet();
+    }
+
+    // a cluster run's counters live in its chunks; the coordinator copies their sums in here
+    public void syncFromChunks(long matchedSoFar, long failedSoFar, long skippedSoFar, long unsavedSoFar) {
+        matched.set((int) matchedSoFar);
+        failed.set((int) failedSoFar);
+        skipped.set((int) skippedSoFar);
+        unsaved.set((int) unsavedSoFar);
+    }
+
+    // work that has not started yet is skipped; matches already talking to the LLM finish normally
+    public void cancel() {
+        cancelled=true;
+    }
+
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    public int getTotal() {
+        return total.get();
+    }
+
+    public int getMatched() {
+        return matched.get();
+    }
+
+    public int getFailed() {
+        return failed.get();
+    }
+
+    public int getSkipped() {
+        return skipped.get();
+    }
+
+    public int getUnsaved() {
+        return unsaved.get();
+    }
+}
@@ -0,0 +1,115 @@
+package com.ai.recruitmentai.service;
+import com.ai.recruitmentai.entity.Application;
+import com.ai.recruitmentai.repository.ApplicationRepository;
+import com.ai.recruitmentai.repository.CandidateRepository;
+import com.ai.recruitmentai.repository.JobDescriptionRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+// write-behind buffer for match-all results: workers hand over outcomes, and a full buffer, the periodic flush or an explicit flush() writes them as one batched transaction
+@Component
+public class MatchResultWriter {
+    private static final Logger log=LoggerFactory.getLogger(MatchResultWriter.class);
+    private final ApplicationRepository applicationRepository;
+    private final JobDescriptionRepository jobDescriptionRepository;
+    private final CandidateRepository candidateRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final WriteBehindBuffer<PendingOutcome> buffer;
+
+    public MatchResultWriter(ApplicationRepository applicationRepository,
+                             JobDescriptionRepository jobDescriptionRepository,
+                             CandidateRepository candidateRepository,
+                             TransactionTemplate transactionTemplate,
+                             @Value("${app.matching.write-behind.batch-size:50}") int batchSize) {
+        this.applicationRepository=applicationRepository;
+        this.jobDescriptionRepository=jobDescriptionRepository;
+        this.candidateRepository=candidateRepository;
+        this.transactionTemplate=transactionTemplate;
+        this.buffer=new WriteBehindBuffer<>("match results", batchSize, this::write, (single, e) -> {
+            single.progress().recordUnsaved();
+            log.error("Could not store match result for Candidate ID {} / Job ID {}: {}",
+                    single.outcome().candidateId(), single.outcome().jobId(), e.getMessage());
+        });
+    }
+
+    // progress is updated once the outcome is written (or has finally failed to be)
+    public void submit(MatchOutcome outcome, MatchProgress progress) {
+        buffer.submit(new PendingOutcome(outcome, progress));
+    }
+
+    // blocks until everything submitted before the call is written
+    @Scheduled(fixedDelayString="${app.matching.write-behind.flush-interval-ms:2000}")
+    public void flush() {
+        buffer.flush();
+    }
+
+    @PreDestroy
+    public void close() {
+        flush();
+    }
+
+    public Map<String, Object> getStats() {
+        return buffer.stats();
+    }
+
+    // existing rows are loaded in one query per job and updated by dirty checking; with pooled sequence IDs the new rows go out as JDBC batches too
+    private int write(List<PendingOutcome> batch) {
+        Map<Long, Map<Long, MatchOutcome>> byJob=new HashMap<>();
+        for (PendingOutcome pendingOutcome : batch) {
+            MatchOutcome outcome=pendingOutcome.outcome();
+            byJob.computeIfAbsent(outcome.jobId(), id -> new LinkedHashMap<>()).put(outcome.candidateId(), outcome);
+        }
+        transactionTemplate.executeWithoutResult(status -> byJob.forEach((jobId, outcomes) -> {
+            Map<Long, Application> existing=new HashMap<>();
+            for (Application application : applicationRepository.findByJobDescriptionIdAndCandidateIdIn(jobId, outcomes.keySet())) {
+                existing.put(application.getCandidate().getId(), application);
+            }
+            outcomes.forEach((candidateId, outcome) -> {
+                Application application=existing.get(candidateId);
+                if (application == null) {
+                    application=new Application();
+                    application.setJobDescription(jobDescriptionRepository.getReferenceById(jobId));
+                    application.setCandidate(candidateRepository.getReferenceById(candidateId));
+                    outcome.applyTo(application);
+                    applicationRepository.save(application);
+                } else {
+                    outcome.applyTo(application);
+                }
+            });
+        }));
+        batch.forEach(PendingOutcome::written);
+        return batch.size();
+    }
+
+    private record PendingOutcome(MatchOutcome outcome, MatchProgress progress) {
+        void written() {
+            progress.recordResult(outcome.isMatched());
+        }
+    }
+
+    public record MatchOutcome(Long jobId, Long candidateId, String status, Double matchScore, String justification, String inputFingerprint) {
+        public static MatchOutcome matched(Long jobId, Long candidateId, double matchScore, String justification, String inputFingerprint) {
+            return new MatchOutcome(jobId, candidateId, "MATCHED", matchScore, justification, inputFingerprint);
+        }
+        public static MatchOutcome failed(Long jobId, Long candidateId, String reason) {
+            return new MatchOutcome(jobId, candidateId, "ERROR_MATCHING", null, reason, null);
+        }
+        public boolean isMatched() {
+            return "MATCHED".equals(status);
+        }
+        public void applyTo(Application application) {
+            application.setStatus(status);
+            application.setMatchScore(matchScore);
+            application.setMatchJustification(justification);
+            application.setInputFingerprint(inputFingerprint);
+        }
+    }
+}
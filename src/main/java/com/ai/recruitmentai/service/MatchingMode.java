@@ -0,0 +1,18 @@
+package com.ai.recruitmentai.service;
+import java.util.Locale;
+public enum MatchingMode {
+    // every (pre-retrieved) candidate is scored by the LLM
+    LLM,
+    // deterministic skill-overlap score only, no LLM calls
+    SKILLS,
+    // skill overlap drops weak candidates, the rest are scored by the LLM
+    SKILLS_PREFILTER;
+
+    public static MatchingMode fromString(String value) {
+        try {
+            return MatchingMode.valueOf(value.trim().replace('-', '_').toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown matching mode '" + value + "'. Expected one of: llm, skills, skills-prefilter.");
+        }
+    }
+}
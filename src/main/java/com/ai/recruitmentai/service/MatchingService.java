@@ -1,27 +1,51 @@
 package com.ai.recruitmentai.service;
+import com.ai.recruitmentai.config.AsyncConfig;
+import com.ai.recruitmentai.dto.BatchMatchResultDto;
+import com.ai.recruitmentai.dto.CandidateMatchResultDto;
+import com.ai.recruitmentai.dto.JobSummaryDto;
 import com.ai.recruitmentai.dto.MatchResultDto;
 import com.ai.recruitmentai.entity.Application;
 import com.ai.recruitmentai.entity.Candidate;
 import com.ai.recruitmentai.entity.JobDescription;
 import com.ai.recruitmentai.exception.LlmInteractionException;
 import com.ai.recruitmentai.exception.ResourceNotFoundException;
+import com.ai.recruitmentai.index.SkillIndex;
+import com.ai.recruitmentai.index.SkillIndex.SkillMatch;
+import com.ai.recruitmentai.index.SkillIndex.SkillOverlap;
 import com.ai.recruitmentai.llm.OllamaClient;
 import com.ai.recruitmentai.llm.PromptFactory;
+import com.ai.recruitmentai.llm.PromptType;
+import com.ai.recruitmentai.llm.cache.LlmResponseCache;
 import com.ai.recruitmentai.repository.ApplicationRepository;
+import com.ai.recruitmentai.repository.ApplicationRepository.MatchFingerprintRef;
 import com.ai.recruitmentai.repository.CandidateRepository;
 import com.ai.recruitmentai.repository.JobDescriptionRepository;
+import com.ai.recruitmentai.service.MatchResultWriter.MatchOutcome;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.Optional;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 @Service
 public class MatchingService {
     private static final Logger log=LoggerFactory.getLogger(MatchingService.class);
+    private static final int ID_PAGE_SIZE=5000;
     @Autowired
     private ApplicationRepository applicationRepository;
     @Autowired
@@ -32,7 +56,31 @@ public class MatchingService {
     private OllamaClient ollamaClient;
     @Autowired
     private ObjectMapper objectMapper;
-    @Transactional
+    @Autowired
+    private EmbeddingService embeddingService;
+    @Autowired
+    private SkillIndex skillIndex;
+    @Autowired
+    private MatchResultWriter resultWriter;
+    @Autowired
+    @Qualifier(AsyncConfig.MATCHING_EXECUTOR_BEAN_NAME)
+    private Executor matchingExecutor;
+    @Value("${app.matching.mode:llm}")
+    private String defaultMatchingMode;
+    @Value("${app.matching.skills.prefilter-min-score:25}")
+    private double prefilterMinScore;
+    @Value("${app.matching.retrieval.enabled:false}")
+    private boolean retrievalEnabled;
+    @Value("${app.matching.retrieval.top-n:50}")
+    private int retrievalTopN;
+    // 1 sends one candidate per prompt; larger values are opt-in and pack several CVs into one prompt
+    @Value("${app.matching.batch-size:1}")
+    private int batchSize;
+    @Value("${app.matching.load-chunk-size:200}")
+    private int loadChunkSize;
+    @Value("${app.cluster.enabled:false}")
+    private boolean clusterEnabled;
+    // no surrounding transaction: the status change and the result are each committed by the repository, so no connection is held across the LLM call
     public Application matchCandidateToJob(Long jobId, Long candidateId) {
         log.info("Attempting to match Candidate ID {} to Job ID {}", candidateId, jobId);
         JobDescription job=jobDescriptionRepository.findById(jobId)
@@ -45,68 +93,394 @@ public class MatchingService {
         if (candidate.getExtractedCvJson() == null || candidate.getExtractedCvJson().isBlank()) {
             throw new IllegalStateException("Candidate ID " + candidateId + " CV has not been parsed yet.");
         }
-        Optional<Application> existingApplicationOpt=applicationRepository.findByJobDescriptionIdAndCandidateId(jobId, candidateId);
-        Application application=existingApplicationOpt.orElseGet(() -> {
-            Application newApp=new Application();
-            newApp.setJobDescription(job);
-            newApp.setCandidate(candidate);
-            return newApp;
-        });
+        Application application=findOrCreateApplication(job, candidate);
         application.setStatus("MATCHING_STARTED");
-        applicationRepository.save(application);
+        application=applicationRepository.save(application);
+        scoreCandidate(job, candidate).applyTo(application);
+        return applicationRepository.save(application);
+    }
+    // the LLM half of a match; failures come back as an ERROR_MATCHING outcome rather than an exception
+    private MatchOutcome scoreCandidate(JobDescription job, Candidate candidate) {
+        Long jobId=job.getId();
+        Long candidateId=candidate.getId();
         try {
-            String prompt=PromptFactory.createMatchingPrompt(job.getStructuredSummaryJson(), candidate.getExtractedCvJson());
             log.info("Sending JD/CV pair to LLM for matching analysis...");
-            String llmResponse=ollamaClient.generate(prompt);
+            String llmResponse=ollamaClient.generateJsonWithSharedPrefix(PromptType.MATCHING,
+                    PromptFactory.createMatchingPrefix(job.getStructuredSummaryJson()),
+                    PromptFactory.createMatchingSuffix(candidate.getExtractedCvJson()));
             MatchResultDto matchResult=parseMatchResult(llmResponse);
             if (matchResult == null || matchResult.getMatch_score() == null) {
                 throw new LlmInteractionException("Failed to parse match_score from LLM response.");
             }
-            application.setMatchScore(matchResult.getMatch_score().doubleValue());
-            application.setMatchJustification(matchResult.getJustification());
-            application.setStatus("MATCHED");
-            log.info("Successfully matched Candidate ID {} to Job ID {}. Score: {}", candidateId, jobId, application.getMatchScore());
+            log.info("Successfully matched Candidate ID {} to Job ID {}. Score: {}", candidateId, jobId, matchResult.getMatch_score());
+            return MatchOutcome.matched(jobId, candidateId, matchResult.getMatch_score().doubleValue(),
+                    matchResult.getJustification(), inputFingerprint(job, candidate));
         } catch (LlmInteractionException | JsonProcessingException e) {
             log.error("Failed to match Candidate ID {} to Job ID {}. Reason: {}", candidateId, jobId, e.getMessage(), e);
-            application.setStatus("ERROR_MATCHING");
-            application.setMatchJustification("Error during matching process: " + e.getMessage());
-            application.setMatchScore(null); // Ensure score is null on error
+            return MatchOutcome.failed(jobId, candidateId, "Error during matching process: " + e.getMessage());
         } catch (Exception e) {
             log.error("Unexpected error matching Candidate ID {} to Job ID {}", candidateId, jobId, e);
-            application.setStatus("ERROR_MATCHING");
-            application.setMatchJustification("Unexpected error during matching process: " + e.getMessage());
-            application.setMatchScore(null);
+            return MatchOutcome.failed(jobId, candidateId, "Unexpected error during matching process: " + e.getMessage());
         }
-        return applicationRepository.save(application);
     }
-    @Transactional
     public void matchAllCandidatesToJob(Long jobId) {
-        log.info("Starting batch matching process for Job ID: {}", jobId);
+        matchAllCandidatesToJob(jobId, null);
+    }
+    public void matchAllCandidatesToJob(Long jobId, MatchingMode requestedMode) {
+        matchAllCandidatesToJob(jobId, requestedMode, false, null, new MatchProgress());
+    }
+    // fans out over the bounded matching executor; results go through the write-behind MatchResultWriter and count as progress once stored.
+    // retrievalTopN: null follows app.matching.retrieval.*, 0 scores every candidate, N narrows to the N nearest by embedding first
+    public void matchAllCandidatesToJob(Long jobId, MatchingMode requestedMode, boolean force, Integer retrievalTopN, MatchProgress progress) {
+        MatchingMode mode=resolveMode(requestedMode);
+        log.info("Starting batch matching process for Job ID: {} (mode {})", jobId, mode);
+        JobDescription job=loadSummarizedJob(jobId);
+        if (mode == MatchingMode.SKILLS) {
+            matchBySkillOverlap(job, progress);
+            return;
+        }
+        List<Long> candidateIds=parsedCandidateIds();
+        log.info("Found {} parsed candidates to match against Job ID: {}", candidateIds.size(), jobId);
+        candidateIds=selectCandidateIds(job, mode, candidateIds, retrievalTopN);
+        progress.planned(candidateIds.size());
+        Map<Long, String> matchedFingerprints=force ? Map.of() : matchedFingerprints(job);
+        long start=System.nanoTime();
+        // CV JSON is only ever loaded one chunk at a time, for candidates that are actually about to be scored
+        for (int from=0; from < candidateIds.size() && !progress.isCancelled(); from += loadChunkSize) {
+            List<Candidate> chunk=loadParsedCandidates(candidateIds.subList(from, Math.min(candidateIds.size(), from + loadChunkSize)));
+            scoreChanged(job, chunk, matchedFingerprints, progress).join();
+        }
+        resultWriter.flush();
+        int notAttempted=progress.getTotal() - progress.getMatched() - progress.getFailed() - progress.getSkipped();
+        log.info("Finished batch matching attempt for Job ID: {} in {} ms. Matched: {}, Errors: {}, Unchanged since last match: {}, Not attempted: {}. Result writer: {}",
+                jobId, (System.nanoTime() - start) / 1_000_000, progress.getMatched(), progress.getFailed(), progress.getSkipped(), notAttempted,
+                resultWriter.getStats());
+    }
+    // the coordinator half of a cluster match-all run: candidates are selected here, the scoring is left to whichever nodes claim the chunks
+    public List<Long> planMatchAll(Long jobId, MatchingMode requestedMode, Integer retrievalTopN, MatchProgress progress) {
+        MatchingMode mode=resolveMode(requestedMode);
+        JobDescription job=loadSummarizedJob(jobId);
+        List<Long> candidateIds=selectCandidateIds(job, mode, parsedCandidateIds(), retrievalTopN);
+        progress.planned(candidateIds.size());
+        log.info("Planned cluster matching of {} candidate(s) for Job ID {} (mode {}).", candidateIds.size(), jobId, mode);
+        return candidateIds;
+    }
+    // lets a run be rejected when it is requested rather than failing once it has been queued
+    public void checkModeAvailable(MatchingMode requestedMode) {
+        resolveMode(requestedMode);
+    }
+    // skill-overlap matching is one in-memory pass over the local index, so it is not worth spreading over nodes
+    public boolean isDistributable(MatchingMode requestedMode) {
+        return resolveMode(requestedMode) != MatchingMode.SKILLS;
+    }
+    // one claimed chunk of a cluster run; the results are flushed before returning so the chunk is only reported done once they are stored
+    public void matchCandidateChunk(Long jobId, List<Long> candidateIds, boolean force, MatchProgress progress) {
+        JobDescription job=loadSummarizedJob(jobId);
+        Map<Long, String> matchedFingerprints=force ? Map.of()
+                : toFingerprintMap(applicationRepository.findMatchedFingerprints(jobId, candidateIds));
+        for (int from=0; from < candidateIds.size() && !progress.isCancelled(); from += loadChunkSize) {
+            List<Candidate> chunk=loadParsedCandidates(candidateIds.subList(from, Math.min(candidateIds.size(), from + loadChunkSize)));
+            scoreChanged(job, chunk, matchedFingerprints, progress).join();
+        }
+        resultWriter.flush();
+    }
+    // every job x candidate pair, drawn round-robin across jobs so one large job cannot starve the others; returns the jobs that could not be planned, with the reason
+    public Map<Long, String> matchMatrix(Map<Long, MatchProgress> progressByJob, List<Long> candidateIds, MatchingMode requestedMode, boolean force,
+                                         Integer retrievalTopN) {
+        MatchingMode mode=resolveMode(requestedMode);
+        Map<Long, String> failures=new LinkedHashMap<>();
+        List<Long> parsedIds=parsedCandidateIds();
+        if (candidateIds != null) {
+            Set<Long> requested=new HashSet<>(candidateIds);
+            parsedIds=parsedIds.stream().filter(requested::contains).toList();
+        }
+        log.info("Starting matrix matching of {} job(s) x {} parsed candidate(s) (mode {}).", progressByJob.size(), parsedIds.size(), mode);
+        List<MatrixJob> jobs=new ArrayList<>();
+        for (Map.Entry<Long, MatchProgress> entry : progressByJob.entrySet()) {
+            try {
+                JobDescription job=loadSummarizedJob(entry.getKey());
+                if (mode == MatchingMode.SKILLS) {
+                    matchBySkillOverlap(job, entry.getValue());
+                    continue;
+                }
+                List<Long> selected=selectCandidateIds(job, mode, parsedIds, retrievalTopN);
+                entry.getValue().planned(selected.size());
+                jobs.add(new MatrixJob(job, selected, force ? Map.of() : matchedFingerprints(job), entry.getValue()));
+            } catch (RuntimeException e) {
+                log.error("Could not plan matrix matching for Job ID {}: {}", entry.getKey(), e.getMessage());
+                failures.put(entry.getKey(), e.getMessage());
+            }
+        }
+        long start=System.nanoTime();
+        int[] cursors=new int[jobs.size()];
+        while (true) {
+            Map<Integer, List<Long>> slice=new LinkedHashMap<>();
+            int taken=0;
+            boolean more=true;
+            while (taken < loadChunkSize && more) {
+                more=false;
+                for (int i=0; i < jobs.size() && taken < loadChunkSize; i++) {
+                    MatrixJob job=jobs.get(i);
+                    if (cursors[i] < job.candidateIds().size() && !job.progress().isCancelled()) {
+                        slice.computeIfAbsent(i, index -> new ArrayList<>()).add(job.candidateIds().get(cursors[i]++));
+                        taken++;
+                        more=true;
+                    }
+                }
+            }
+            if (slice.isEmpty()) {
+                break;
+            }
+            // one load for the whole slice, then every job's share is scored concurrently
+            Map<Long, Candidate> loaded=loadParsedCandidates(slice.values().stream().flatMap(List::stream).distinct().toList()).stream()
+                    .collect(Collectors.toMap(Candidate::getId, Function.identity()));
+            List<CompletableFuture<Void>> work=new ArrayList<>(slice.size());
+            slice.forEach((index, ids) -> {
+                MatrixJob job=jobs.get(index);
+                List<Candidate> chunk=ids.stream().map(loaded::get).filter(Objects::nonNull).toList();
+                work.add(scoreChanged(job.job(), chunk, job.matchedFingerprints(), job.progress()));
+            });
+            CompletableFuture.allOf(work.toArray(CompletableFuture[]::new)).join();
+        }
+        resultWriter.flush();
+        log.info("Finished matrix matching of {} job(s) in {} ms. Result writer: {}",
+                jobs.size(), (System.nanoTime() - start) / 1_000_000, resultWriter.getStats());
+        return failures;
+    }
+    // the skill index only sees CVs parsed or reset on this node, so with several nodes it would silently miss or misjudge candidates
+    private MatchingMode resolveMode(MatchingMode requestedMode) {
+        MatchingMode mode=requestedMode != null ? requestedMode : MatchingMode.fromString(defaultMatchingMode);
+        if (clusterEnabled && mode != MatchingMode.LLM) {
+            throw new IllegalStateException("Matching mode " + mode + " relies on the node-local skill index and is not available with app.cluster.enabled=true; use llm.");
+        }
+        return mode;
+    }
+    private JobDescription loadSummarizedJob(Long jobId) {
         JobDescription job=jobDescriptionRepository.findById(jobId)
                 .orElseThrow(() -> new ResourceNotFoundException("JobDescription not found with ID: " + jobId));
         if (job.getStructuredSummaryJson() == null || job.getStructuredSummaryJson().isBlank()) {
             throw new IllegalStateException("Cannot run batch match: JobDescription ID " + jobId + " has not been summarized.");
         }
-        List<Candidate> parsedCandidates=candidateRepository.findAll().stream()
-                .filter(c -> "PARSED".equals(c.getStatus()) && c.getExtractedCvJson() != null && !c.getExtractedCvJson().isBlank())
+        return job;
+    }
+    private List<Long> selectCandidateIds(JobDescription job, MatchingMode mode, List<Long> candidateIds, Integer requestedTopN) {
+        if (mode == MatchingMode.SKILLS_PREFILTER) {
+            candidateIds=prefilterBySkillOverlap(job, candidateIds);
+        }
+        int topN=resolveRetrievalTopN(requestedTopN);
+        if (topN > 0) {
+            candidateIds=embeddingService.retrieveTopCandidateIds(job, candidateIds, topN);
+        }
+        return candidateIds;
+    }
+    // 0 means no pre-retrieval; the configured default only applies when the run did not choose
+    public int resolveRetrievalTopN(Integer requestedTopN) {
+        if (requestedTopN != null) {
+            return Math.max(0, requestedTopN);
+        }
+        return retrievalEnabled ? retrievalTopN : 0;
+    }
+    // candidates whose JD/CV/prompt inputs are unchanged since their last successful match are counted as skipped, not re-sent
+    private CompletableFuture<Void> scoreChanged(JobDescription job, List<Candidate> candidates, Map<Long, String> matchedFingerprints, MatchProgress progress) {
+        List<Candidate> changed=candidates.stream()
+                .filter(c -> !inputFingerprint(job, c, batchSize).equals(matchedFingerprints.get(c.getId())))
                 .toList();
-        log.info("Found {} parsed candidates to match against Job ID: {}", parsedCandidates.size(), jobId);
-        int successCount=0;
-        int errorCount=0;
-        for (Candidate candidate : parsedCandidates) {
-            try {
-                matchCandidateToJob(jobId, candidate.getId());
-                successCount++;
-            } catch (Exception e) {
-                log.error("Error initiating match for candidate ID {} to job ID {}. Skipping. Reason: {}",
-                        candidate.getId(), jobId, e.getMessage());
-                errorCount++;
+        progress.recordSkipped(candidates.size() - changed.size());
+        return scoreAsync(job, changed, progress);
+    }
+    // a batch's fallback candidates are submitted from the matching thread that completed the batch (or from the caller if it is already
+    // done); with the matching queue full, CallerRunsPolicy runs that LLM call on the submitting thread, throttling fan-out as elsewhere
+    private CompletableFuture<Void> scoreAsync(JobDescription job, List<Candidate> candidates, MatchProgress progress) {
+        List<CompletableFuture<Void>> work=new ArrayList<>();
+        int batches=0;
+        int step=batchSize > 1 ? batchSize : 1;
+        for (int from=0; from < candidates.size(); from += step) {
+            List<Candidate> batch=candidates.subList(from, Math.min(candidates.size(), from + step));
+            if (batch.size() == 1) {
+                work.add(scoreOneAsync(job, batch.get(0), progress));
+                continue;
             }
+            batches++;
+            work.add(CompletableFuture.supplyAsync(() -> progress.isCancelled() ? List.<Candidate>of() : matchBatch(job, batch, progress), matchingExecutor)
+                    .thenCompose(fallback -> CompletableFuture.allOf(fallback.stream()
+                            .map(candidate -> scoreOneAsync(job, candidate, progress))
+                            .toArray(CompletableFuture[]::new))));
+        }
+        if (batches > 0) {
+            log.info("Batched matching for Job ID {}: {} prompt(s) of up to {} candidates for {} candidate(s).",
+                    job.getId(), batches, batchSize, candidates.size());
+        }
+        return CompletableFuture.allOf(work.toArray(CompletableFuture[]::new));
+    }
+    private CompletableFuture<Void> scoreOneAsync(JobDescription job, Candidate candidate, MatchProgress progress) {
+        return CompletableFuture.runAsync(() -> {
+            if (progress.isCancelled()) {
+                return;
+            }
+            MatchOutcome outcome=scoreCandidate(job, candidate);
+            resultWriter.submit(outcome, progress);
+        }, matchingExecutor);
+    }
+    // keyset-paged over the primary key, so only IDs are held for the whole parsed pool
+    private List<Long> parsedCandidateIds() {
+        List<Long> ids=new ArrayList<>();
+        long lastId=0;
+        while (true) {
+            List<Long> page=candidateRepository.findParsedIdsAfter(lastId, PageRequest.of(0, ID_PAGE_SIZE));
+            ids.addAll(page);
+            if (page.size() < ID_PAGE_SIZE) {
+                return ids;
+            }
+            lastId=page.get(page.size() - 1);
         }
-        log.info("Finished batch matching attempt for Job ID: {}. Initiated/Attempted: {}, Errors during initiation: {}", jobId, successCount, errorCount);
-
+    }
+    // keeps the requested order; a candidate that was re-uploaded or failed since selection is dropped
+    private List<Candidate> loadParsedCandidates(List<Long> ids) {
+        Map<Long, Candidate> byId=candidateRepository.findAllById(ids).stream()
+                .filter(c -> "PARSED".equals(c.getStatus()) && c.getExtractedCvJson() != null && !c.getExtractedCvJson().isBlank())
+                .collect(Collectors.toMap(Candidate::getId, Function.identity()));
+        List<Candidate> candidates=new ArrayList<>(byId.size());
+        for (Long id : ids) {
+            Candidate candidate=byId.get(id);
+            if (candidate != null) {
+                candidates.add(candidate);
+            }
+        }
+        return candidates;
     }
 
+    // scores batchSize candidates per prompt; returns the candidates whose batch answer was missing or malformed so they can be matched one by one
+    private List<Candidate> matchBatch(JobDescription job, List<Candidate> batch, MatchProgress progress) {
+        Map<Long, CandidateMatchResultDto> results;
+        try {
+            results=requestBatchMatch(job, batch);
+        } catch (Exception e) {
+            log.warn("Batched match of {} candidates for Job ID {} failed, falling back to per-candidate matching. Reason: {}",
+                    batch.size(), job.getId(), e.getMessage());
+            return batch;
+        }
+        List<Candidate> fallback=new ArrayList<>();
+        for (Candidate candidate : batch) {
+            CandidateMatchResultDto result=results.get(candidate.getId());
+            if (result == null) {
+                fallback.add(candidate);
+                continue;
+            }
+            resultWriter.submit(MatchOutcome.matched(job.getId(), candidate.getId(), result.getMatch_score().doubleValue(),
+                    result.getJustification(), inputFingerprint(job, candidate, batchSize)), progress);
+        }
+        return fallback;
+    }
+    // only well-formed answers for candidates that were actually in the batch are accepted; an ID answered twice is treated as ambiguous
+    private Map<Long, CandidateMatchResultDto> requestBatchMatch(JobDescription job, List<Candidate> batch) throws JsonProcessingException {
+        Map<Long, String> cvJsonById=new LinkedHashMap<>();
+        batch.forEach(candidate -> cvJsonById.put(candidate.getId(), candidate.getExtractedCvJson()));
+        String prompt=PromptFactory.createBatchMatchingPrompt(job.getStructuredSummaryJson(), cvJsonById);
+        log.info("Sending JD and {} CVs to LLM for batched matching analysis...", batch.size());
+        String llmResponse=ollamaClient.generateJson(PromptType.BATCH_MATCHING, prompt);
+        String cleanedJson=llmResponse.replace("```json", "").replace("```", "").trim();
+        BatchMatchResultDto batchResult=objectMapper.readValue(cleanedJson, BatchMatchResultDto.class);
+        Map<Long, CandidateMatchResultDto> results=new HashMap<>();
+        if (batchResult.getResults() == null) {
+            return results;
+        }
+        Set<Long> duplicated=new HashSet<>();
+        for (CandidateMatchResultDto result : batchResult.getResults()) {
+            Long candidateId=result.getCandidate_id();
+            Integer score=result.getMatch_score();
+            if (candidateId == null || !cvJsonById.containsKey(candidateId) || score == null || score < 0 || score > 100
+                    || result.getJustification() == null || result.getJustification().isBlank()) {
+                continue;
+            }
+            if (results.putIfAbsent(candidateId, result) != null) {
+                duplicated.add(candidateId);
+            }
+        }
+        duplicated.forEach(results::remove);
+        return results;
+    }
+    // a pair whose MATCHED score was computed from exactly these inputs would only be re-scored to the same result
+    private Map<Long, String> matchedFingerprints(JobDescription job) {
+        return toFingerprintMap(applicationRepository.findMatchedFingerprints(job.getId()));
+    }
+    private static Map<Long, String> toFingerprintMap(List<MatchFingerprintRef> refs) {
+        Map<Long, String> fingerprints=new HashMap<>();
+        for (MatchFingerprintRef ref : refs) {
+            fingerprints.put(ref.getCandidateId(), ref.getInputFingerprint());
+        }
+        return fingerprints;
+    }
+    private String inputFingerprint(JobDescription job, Candidate candidate) {
+        return inputFingerprint(job, candidate, 1);
+    }
+    // the prompt kind is part of the fingerprint, since a batched prompt does not give the score a single-pair prompt would; a run only skips
+    // pairs scored the way it scores them itself
+    private String inputFingerprint(JobDescription job, Candidate candidate, int promptBatchSize) {
+        String promptKind=promptBatchSize > 1
+                ? PromptType.BATCH_MATCHING.name() + ":v" + PromptFactory.MATCHING_PROMPT_VERSION + ":n" + promptBatchSize
+                : "MATCHING:v" + PromptFactory.MATCHING_PROMPT_VERSION;
+        return LlmResponseCache.keyFor(ollamaClient.getModelName(), promptKind, job.getStructuredSummaryJson() + '\0' + candidate.getExtractedCvJson());
+    }
+    private Application findOrCreateApplication(JobDescription job, Candidate candidate) {
+        return applicationRepository.findByJobDescriptionIdAndCandidateId(job.getId(), candidate.getId()).orElseGet(() -> {
+            Application newApp=new Application();
+            newApp.setJobDescription(job);
+            newApp.setCandidate(candidate);
+            return newApp;
+        });
+    }
+    // deterministic fast path: scores every indexed candidate from the skill bitmaps and records the overlap as a MATCHED application without a fingerprint,
+    // so a later LLM run re-scores it; pairs that already hold an LLM score are left alone
+    private void matchBySkillOverlap(JobDescription job, MatchProgress progress) {
+        List<String> requiredSkills=requiredSkills(job);
+        long start=System.nanoTime();
+        List<SkillMatch> matches=skillIndex.score(requiredSkills, 1);
+        long scoredNanos=System.nanoTime() - start;
+        Set<Long> llmScored=applicationRepository.findMatchedFingerprints(job.getId()).stream()
+                .map(MatchFingerprintRef::getCandidateId)
+                .collect(Collectors.toSet());
+        progress.planned(matches.size());
+        int kept=0;
+        for (SkillMatch match : matches) {
+            if (llmScored.contains(match.candidateId())) {
+                continue;
+            }
+            SkillOverlap overlap=skillIndex.explain(match.candidateId(), requiredSkills);
+            resultWriter.submit(MatchOutcome.matched(job.getId(), match.candidateId(), Math.round(match.score() * 10) / 10.0,
+                    String.format("Skill overlap: %d of %d required skills matched (%s). Missing: %s.",
+                            match.matched(), match.required(),
+                            overlap.matched().isEmpty() ? "none" : String.join(", ", overlap.matched()),
+                            overlap.missing().isEmpty() ? "none" : String.join(", ", overlap.missing())),
+                    null), progress);
+            kept++;
+        }
+        progress.recordSkipped(matches.size() - kept);
+        resultWriter.flush();
+        log.info("Skill-overlap matching for Job ID {}: scored all indexed candidates in {} ms, {} share at least one required skill, {} kept their LLM score.",
+                job.getId(), scoredNanos / 1_000_000, matches.size(), matches.size() - kept);
+    }
+    private List<Long> prefilterBySkillOverlap(JobDescription job, List<Long> candidateIds) {
+        List<String> requiredSkills=requiredSkills(job);
+        Set<Long> qualifying=skillIndex.score(requiredSkills, 1).stream()
+                .filter(match -> match.score() >= prefilterMinScore)
+                .map(SkillMatch::candidateId)
+                .collect(Collectors.toSet());
+        List<Long> kept=candidateIds.stream().filter(qualifying::contains).toList();
+        log.info("Skill-overlap prefilter for Job ID {}: {} of {} candidates reach {}% of the required skills.",
+                job.getId(), kept.size(), candidateIds.size(), prefilterMinScore);
+        return kept;
+    }
+    private List<String> requiredSkills(JobDescription job) {
+        try {
+            JobSummaryDto summary=objectMapper.readValue(job.getStructuredSummaryJson(), JobSummaryDto.class);
+            if (summary.getRequired_skills() == null || summary.getRequired_skills().isEmpty()) {
+                throw new IllegalStateException("JobDescription ID " + job.getId() + " summary lists no required_skills to match on.");
+            }
+            return summary.getRequired_skills();
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("JobDescription ID " + job.getId() + " summary is not valid JSON: " + e.getOriginalMessage());
+        }
+    }
     private MatchResultDto parseMatchResult(String llmJsonResponse) throws JsonProcessingException {
         if (llmJsonResponse == null || llmJsonResponse.isBlank()) {
             throw new JsonProcessingException("LLM returned empty or null response for matching.") {};
@@ -125,4 +499,6 @@ public class MatchingService {
             throw new JsonProcessingException(e.getMessage()){};
         }
     }
-}
\ No newline at end of file
+    private record MatrixJob(JobDescription job, List<Long> candidateIds, Map<Long, String> matchedFingerprints, MatchProgress progress) {
+    }
+}
@@ -0,0 +1,182 @@
+package com.ai.recruitmentai.service;
+import com.ai.recruitmentai.config.DatabaseClock;
+import com.ai.recruitmentai.config.NodeIdentity;
+import com.ai.recruitmentai.entity.ParsingTask;
+import com.ai.recruitmentai.repository.CandidateRepository;
+import com.ai.recruitmentai.repository.ParsingTaskRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+// DB-backed queue of CV parsing work shared by every node on the database: enqueue is an upsert per candidate, workers claim due rows
+// with SKIP LOCKED under a lease kept alive by heartbeats, and failures are rescheduled with exponential backoff
+@Component
+public class ParsingOutbox {
+    private static final Logger log=LoggerFactory.getLogger(ParsingOutbox.class);
+    private static final List<String> UNFINISHED_STATUSES=List.of("UPLOADED", "PARSING");
+    private final ParsingTaskRepository parsingTaskRepository;
+    private final CandidateRepository candidateRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final WorkLeases leases;
+    private final Duration backoffBase;
+    private final Duration backoffMax;
+    private final int maxAttempts;
+
+    public ParsingOutbox(ParsingTaskRepository parsingTaskRepository,
+                         CandidateRepository candidateRepository,
+                         TransactionTemplate transactionTemplate,
+                         DatabaseClock databaseClock,
+                         NodeIdentity nodeIdentity,
+                         @Value("${app.parsing.outbox.lease-seconds:120}") long leaseSeconds,
+                         @Value("${app.parsing.outbox.backoff-base-seconds:15}") long backoffBaseSeconds,
+                         @Value("${app.parsing.outbox.backoff-max-seconds:900}") long backoffMaxSeconds,
+                         @Value("${app.parsing.outbox.max-attempts:5}") int maxAttempts) {
+        this.parsingTaskRepository=parsingTaskRepository;
+        this.candidateRepository=candidateRepository;
+        this.transactionTemplate=transactionTemplate;
+        this.leases=new WorkLeases(parsingTaskRepository, transactionTemplate, databaseClock, nodeIdentity.getNodeId(), Duration.ofSeconds(leaseSeconds));
+        this.backoffBase=Duration.ofSeconds(Math.max(1, backoffBaseSeconds));
+        this.backoffMax=Duration.ofSeconds(Math.max(backoffBaseSeconds, backoffMaxSeconds));
+        this.maxAttempts=Math.max(1, maxAttempts);
+    }
+
+    // a candidate that is enqueued again (e.g. re-uploaded) starts over: attempts reset and any running claim is invalidated
+    public void enqueue(Collection<Long> candidateIds) {
+        if (candidateIds.isEmpty()) {
+            return;
+        }
+        transactionTemplate.executeWithoutResult(status -> {
+            LocalDateTime now=leases.now();
+            Map<Long, ParsingTask> existing=new HashMap<>();
+            for (ParsingTask task : parsingTaskRepository.findByCandidateIdIn(candidateIds)) {
+                existing.put(task.getCandidateId(), task);
+            }
+            List<ParsingTask> created=new ArrayList<>();
+            for (Long candidateId : candidateIds) {
+                ParsingTask task=existing.get(candidateId);
+                if (task == null) {
+                    task=new ParsingTask();
+                    task.setCandidateId(candidateId);
+                    task.setCreatedAt(LocalDateTime.now());
+                    created.add(task);
+                    existing.put(candidateId, task);
+                }
+                task.setStatus("PENDING");
+                task.setAttempts(0);
+                task.setNextAttemptAt(now);
+                WorkLeases.clear(task);
+                task.setLastError(null);
+            }
+            parsingTaskRepository.saveAll(created);
+        });
+    }
+
+    // due rows are pending ones whose backoff has elapsed and claimed ones whose lease ran out; rows this process is still working on are left alone.
+    // the row locks are held only for this short transaction, the lease is what keeps other nodes off afterwards
+    public List<Claim> claimDue(int limit, Set<Long> inFlight) {
+        if (limit <= 0) {
+            return List.of();
+        }
+        return transactionTemplate.execute(status -> {
+            LocalDateTime now=leases.now();
+            List<Claim> claims=new ArrayList<>();
+            for (ParsingTask task : parsingTaskRepository.lockDue(now, limit + inFlight.size())) {
+                if (claims.size() >= limit) {
+                    break;
+                }
+                if (inFlight.contains(task.getCandidateId())) {
+                    continue;
+                }
+                String previousOwner=task.getLeaseOwner();
+                if (leases.claim(task, now)) {
+                    log.warn("Parsing lease of node {} for Candidate ID {} expired after attempt {}; reclaiming.",
+                            previousOwner, task.getCandidateId(), task.getAttempts() - 1);
+                }
+                claims.add(new Claim(task.getCandidateId(), task.getAttempts(), task.getLeaseToken()));
+            }
+            return claims;
+        });
+    }
+
+    public boolean canRetry(Claim claim) {
+        return claim.attempt() < maxAttempts;
+    }
+
+    // backoff doubles per attempt with +-20% jitter, so a burst of failures does not come back as a burst
+    public void retryLater(Claim claim, String error) {
+        long baseMillis=backoffBase.toMillis() << Math.min(20, claim.attempt() - 1);
+        long delayMillis=Math.min(backoffMax.toMillis(), baseMillis);
+        delayMillis=(long) (delayMillis * ThreadLocalRandom.current().nextDouble(0.8, 1.2));
+        LocalDateTime nextAttemptAt=leases.now().plus(Duration.ofMillis(delayMillis));
+        transactionTemplate.executeWithoutResult(status -> parsingTaskRepository.findByCandidateIdIn(List.of(claim.candidateId())).stream()
+                .filter(task -> claim.leaseToken().equals(task.getLeaseToken()))
+                .forEach(task -> {
+                    task.setStatus("PENDING");
+                    task.setNextAttemptAt(nextAttemptAt);
+                    WorkLeases.clear(task);
+                    task.setLastError(error);
+                }));
+        log.warn("Parsing attempt {}/{} for Candidate ID {} failed; retrying in {} s: {}",
+                claim.attempt(), maxAttempts, claim.candidateId(), delayMillis / 1000, error);
+    }
+
+    // only called within the transaction that stores the result; false means the claim was superseded and the result must be dropped
+    public boolean complete(Claim claim) {
+        return parsingTaskRepository.deleteClaimed(claim.candidateId(), claim.leaseToken()) > 0;
+    }
+
+    // heartbeat for the tasks this node is still working on
+    public void extendLeases(Collection<Claim> claims) {
+        if (claims.isEmpty()) {
+            return;
+        }
+        List<String> tokens=claims.stream().map(Claim::leaseToken).toList();
+        int extended=leases.extend(tokens);
+        if (extended < tokens.size()) {
+            log.warn("Only {} of {} parsing lease(s) could be extended; the rest were taken over or re-enqueued.", extended, tokens.size());
+        }
+    }
+
+    // after a restart this node holds nothing, so leases still under its name are stale; other nodes' leases are left to expire or be renewed.
+    // candidates left UPLOADED/PARSING without a task (e.g. from before the outbox existed) get one
+    public void recover() {
+        int released=leases.releaseOwn();
+        List<Long> orphaned=candidateRepository.findIdsWithoutParsingTask(UNFINISHED_STATUSES);
+        try {
+            enqueue(orphaned);
+        } catch (DataIntegrityViolationException e) {
+            log.warn("Another node enqueued some of the {} orphaned candidate(s) at the same time; they are left to it.", orphaned.size());
+        }
+        log.info("Parsing outbox recovery for node {}: {} abandoned lease(s) released, {} stale UPLOADED/PARSING candidate(s) re-enqueued.",
+                leases.nodeId(), released, orphaned.size());
+    }
+
+    public long backlog() {
+        return parsingTaskRepository.count();
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats=new LinkedHashMap<>();
+        stats.put("pending", parsingTaskRepository.countByStatus("PENDING"));
+        stats.put("inProgress", parsingTaskRepository.countByStatus("IN_PROGRESS"));
+        stats.put("maxAttempts", maxAttempts);
+        stats.put("leaseSeconds", leases.lease().toSeconds());
+        stats.put("nodeId", leases.nodeId());
+        return stats;
+    }
+
+    public record Claim(Long candidateId, int attempt, String leaseToken) {
+    }
+}
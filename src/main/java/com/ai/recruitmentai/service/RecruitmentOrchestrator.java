@@ -0,0 +1,429 @@
+package com.ai.recruitmentai.service;
+import com.ai.recruitmentai.config.AsyncConfig;
+import com.ai.recruitmentai.config.DatabaseClock;
+import com.ai.recruitmentai.config.NodeIdentity;
+import com.ai.recruitmentai.dto.MatchRunProgressDto;
+import com.ai.recruitmentai.dto.MatrixRunProgressDto;
+import com.ai.recruitmentai.entity.JobDescription;
+import com.ai.recruitmentai.entity.MatchRun;
+import com.ai.recruitmentai.exception.MatchRunInProgressException;
+import com.ai.recruitmentai.exception.ResourceNotFoundException;
+import com.ai.recruitmentai.repository.JobDescriptionRepository;
+import com.ai.recruitmentai.repository.MatchChunkRepository.RunTotals;
+import com.ai.recruitmentai.repository.MatchRunRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+// runs match-all (one job) and matrix matching (many jobs) in the background as tracked MatchRuns; live counters are kept in memory and flushed to the run row periodically and at the end.
+// each run is owned by the node that started it and kept alive by a lease renewed on every flush; in cluster mode a match-all run's candidates are
+// published as MatchChunks that every node claims, and this node only coordinates
+@Service
+public class RecruitmentOrchestrator {
+    private static final Logger log=LoggerFactory.getLogger(RecruitmentOrchestrator.class);
+    private static final List<String> ACTIVE_STATUSES=List.of("QUEUED", "RUNNING");
+    private final MatchingService matchingService;
+    private final MatchRunRepository matchRunRepository;
+    private final JobDescriptionRepository jobDescriptionRepository;
+    private final Executor matchRunExecutor;
+    private final MatchChunkQueue matchChunkQueue;
+    private final TransactionTemplate transactionTemplate;
+    private final DatabaseClock databaseClock;
+    private final String nodeId;
+    private final boolean clusterEnabled;
+    private final Duration runLease;
+    private final long chunkPollMillis;
+    private final Map<Long, ActiveRun> activeRuns=new ConcurrentHashMap<>();
+    @Autowired
+    public RecruitmentOrchestrator(MatchingService matchingService,
+                                   MatchRunRepository matchRunRepository,
+                                   JobDescriptionRepository jobDescriptionRepository,
+                                   @Qualifier(AsyncConfig.MATCH_RUN_EXECUTOR_BEAN_NAME) Executor matchRunExecutor,
+                                   MatchChunkQueue matchChunkQueue,
+                                   TransactionTemplate transactionTemplate,
+                                   DatabaseClock databaseClock,
+                                   NodeIdentity nodeIdentity,
+                                   @Value("${app.cluster.enabled:false}") boolean clusterEnabled,
+                                   @Value("${app.match-runs.lease-seconds:60}") long runLeaseSeconds,
+                                   @Value("${app.cluster.match-poll-interval-ms:2000}") long chunkPollMillis) {
+        this.matchingService=matchingService;
+        this.matchRunRepository=matchRunRepository;
+        this.jobDescriptionRepository=jobDescriptionRepository;
+        this.matchRunExecutor=matchRunExecutor;
+        this.matchChunkQueue=matchChunkQueue;
+        this.transactionTemplate=transactionTemplate;
+        this.databaseClock=databaseClock;
+        this.nodeId=nodeIdentity.getNodeId();
+        this.clusterEnabled=clusterEnabled;
+        this.runLease=Duration.ofSeconds(runLeaseSeconds);
+        this.chunkPollMillis=Math.max(100, chunkPollMillis);
+    }
+
+    // runs this node was queueing or running when it stopped can never finish; runs owned by other nodes are theirs to finish or lose their lease
+    @EventListener(ApplicationReadyEvent.class)
+    public void markInterruptedRuns() {
+        List<MatchRun> stale=matchRunRepository.findByStatusIn(ACTIVE_STATUSES).stream()
+                .filter(run -> !activeRuns.containsKey(run.getId()))
+                .filter(run -> run.getOwnerNode() == null || nodeId.equals(run.getOwnerNode()))
+                .toList();
+        for (MatchRun run : stale) {
+            run.setStatus("INTERRUPTED");
+            run.setFinishedAt(LocalDateTime.now());
+            run.setMessage("Application stopped before the run finished.");
+        }
+        if (!stale.isEmpty()) {
+            matchRunRepository.saveAll(stale);
+            stale.forEach(run -> matchChunkQueue.cancelOpen(run.getId()));
+            log.warn("Marked {} match run(s) left over from a previous start of node {} as INTERRUPTED.", stale.size(), nodeId);
+        }
+    }
+
+    // a run whose owning node died (or lost the database) stops renewing its lease and would otherwise stay RUNNING forever.
+    // leases are compared on the database clock, the one they were written with
+    @Scheduled(fixedDelayString="${app.match-runs.lease-check-interval-ms:30000}")
+    public void interruptAbandonedRuns() {
+        LocalDateTime now=databaseClock.now();
+        for (MatchRun run : matchRunRepository.findByStatusInAndLeaseExpiresAtBefore(ACTIVE_STATUSES, now)) {
+            if (activeRuns.containsKey(run.getId())) {
+                continue;
+            }
+            String message="Node " + run.getOwnerNode() + " stopped renewing the run's lease before it finished.";
+            Integer interrupted=transactionTemplate.execute(status -> matchRunRepository.interruptIfLeaseExpired(run.getId(), now, LocalDateTime.now(), message));
+            if (interrupted != null && interrupted > 0) {
+                int cancelled=matchChunkQueue.cancelOpen(run.getId());
+                log.warn("Match run {} of node {} lost its lease; marked INTERRUPTED and cancelled {} open chunk(s).",
+                        run.getId(), run.getOwnerNode(), cancelled);
+            }
+        }
+    }
+
+    // job prerequisites are checked up front so a bad request fails fast instead of producing a FAILED run. The active-run check and the insert
+    // happen under this node's lock; the unique index on active runs per job covers a run started concurrently on another node
+    public synchronized MatchRun startMatchAll(Long jobId, MatchingMode mode, boolean force, Integer retrievalTopN) {
+        Optional<Long> active=findActiveRunId(jobId);
+        if (active.isPresent()) {
+            throw new MatchRunInProgressException(jobId, active.get());
+        }
+        matchingService.checkModeAvailable(mode);
+        JobDescription job=loadSummarizedJob(jobId);
+        MatchRun saved=insertRuns(List.of(newRun(job, null, mode, force, retrievalTopN))).get(0);
+        MatchProgress progress=new MatchProgress();
+        activeRuns.put(saved.getId(), new ActiveRun(jobId, progress));
+        try {
+            matchRunExecutor.execute(() -> execute(saved.getId(), jobId, mode, force, saved.getRetrievalTopN(), progress));
+        } catch (TaskRejectedException e) {
+            reject(List.of(saved.getId()));
+            throw e;
+        }
+        log.info("Queued match run {} for Job ID {} (mode {}).", saved.getId(), jobId, saved.getMode());
+        return saved;
+    }
+
+    // one tracked run per job, all executed together by a single matrix task so candidates are interleaved across jobs
+    public synchronized String startMatrixRun(List<Long> jobIds, List<Long> candidateIds, MatchingMode mode, boolean force, Integer retrievalTopN) {
+        if (jobIds == null || jobIds.isEmpty()) {
+            throw new IllegalArgumentException("At least one jobId is required for matrix matching.");
+        }
+        matchingService.checkModeAvailable(mode);
+        List<JobDescription> jobs=new ArrayList<>();
+        for (Long jobId : new LinkedHashSet<>(jobIds)) {
+            Optional<Long> active=findActiveRunId(jobId);
+            if (active.isPresent()) {
+                throw new MatchRunInProgressException(jobId, active.get());
+            }
+            jobs.add(loadSummarizedJob(jobId));
+        }
+        String matrixId=UUID.randomUUID().toString();
+        Map<Long, Long> runIdByJob=new LinkedHashMap<>();
+        Map<Long, MatchProgress> progressByJob=new LinkedHashMap<>();
+        List<MatchRun> runs=new ArrayList<>();
+        for (JobDescription job : jobs) {
+            runs.add(newRun(job, matrixId, mode, force, retrievalTopN));
+        }
+        for (MatchRun saved : insertRuns(runs)) {
+            Long jobId=saved.getJobDescription().getId();
+            MatchProgress progress=new MatchProgress();
+            runIdByJob.put(jobId, saved.getId());
+            progressByJob.put(jobId, progress);
+            activeRuns.put(saved.getId(), new ActiveRun(jobId, progress));
+        }
+        try {
+            int topN=matchingService.resolveRetrievalTopN(retrievalTopN);
+            matchRunExecutor.execute(() -> executeMatrix(matrixId, runIdByJob, progressByJob, candidateIds, mode, force, topN));
+        } catch (TaskRejectedException e) {
+            reject(runIdByJob.values());
+            throw e;
+        }
+        log.info("Queued matrix match {} for {} job(s) x {} candidate(s) (mode {}).", matrixId, jobs.size(),
+                candidateIds != null ? candidateIds.size() : "all parsed", mode != null ? mode.name() : "DEFAULT");
+        return matrixId;
+    }
+
+    // other nodes' runs are only visible through the database
+    public Optional<Long> findActiveRunId(Long jobId) {
+        Optional<Long> local=activeRuns.entrySet().stream()
+                .filter(entry -> entry.getValue().jobId().equals(jobId))
+                .map(Map.Entry::getKey)
+                .findFirst();
+        if (local.isPresent()) {
+            return local;
+        }
+        return matchRunRepository.findFirstByJobDescriptionIdAndStatusInOrderByIdDesc(jobId, ACTIVE_STATUSES).map(MatchRun::getId);
+    }
+
+    public MatchRunProgressDto getProgress(Long runId) {
+        MatchRun run=matchRunRepository.findById(runId)
+                .orElseThrow(() -> new ResourceNotFoundException("Match run not found with ID: " + runId));
+        ActiveRun active=activeRuns.get(runId);
+        return MatchRunProgressDto.fromEntity(run, active != null ? active.progress() : null);
+    }
+
+    public List<MatchRunProgressDto> getRecentRuns(Long jobId) {
+        return matchRunRepository.findTop20ByJobDescriptionIdOrderByIdDesc(jobId).stream()
+                .map(this::toProgress)
+                .toList();
+    }
+
+    public MatrixRunProgressDto getMatrixProgress(String matrixId) {
+        List<MatchRun> runs=matchRunRepository.findByMatrixIdOrderByIdAsc(matrixId);
+        if (runs.isEmpty()) {
+            throw new ResourceNotFoundException("Matrix match not found with ID: " + matrixId);
+        }
+        return MatrixRunProgressDto.of(matrixId, runs.stream().map(this::toProgress).toList());
+    }
+
+    public MatchRunProgressDto cancel(Long runId) {
+        MatchRun run=matchRunRepository.findById(runId)
+                .orElseThrow(() -> new ResourceNotFoundException("Match run not found with ID: " + runId));
+        ActiveRun active=activeRuns.get(runId);
+        if (active == null && isOwnedElsewhere(run)) {
+            requestCancel(List.of(runId));
+            log.info("Cancellation of match run {} (Job ID {}) handed to its owning node {}.", runId, run.getJobDescription().getId(), run.getOwnerNode());
+            return MatchRunProgressDto.fromEntity(run, null);
+        }
+        if (active == null) {
+            throw new IllegalStateException("Match run " + runId + " has already finished with status " + run.getStatus() + ".");
+        }
+        active.progress().cancel();
+        log.info("Cancellation requested for match run {} (Job ID {}).", runId, active.jobId());
+        return MatchRunProgressDto.fromEntity(run, active.progress());
+    }
+
+    // jobs of the matrix that already finished are left as they are
+    public MatrixRunProgressDto cancelMatrix(String matrixId) {
+        List<MatchRun> runs=matchRunRepository.findByMatrixIdOrderByIdAsc(matrixId);
+        if (runs.isEmpty()) {
+            throw new ResourceNotFoundException("Matrix match not found with ID: " + matrixId);
+        }
+        List<Long> remote=new ArrayList<>();
+        runs.forEach(run -> {
+            ActiveRun active=activeRuns.get(run.getId());
+            if (active != null) {
+                active.progress().cancel();
+            } else if (isOwnedElsewhere(run)) {
+                remote.add(run.getId());
+            }
+        });
+        requestCancel(remote);
+        log.info("Cancellation requested for matrix match {}.", matrixId);
+        return MatrixRunProgressDto.of(matrixId, runs.stream().map(this::toProgress).toList());
+    }
+
+    // doubles as the lease heartbeat of this node's runs, and picks up cancellations requested through other nodes
+    @Scheduled(fixedDelayString="${app.match-runs.flush-interval-ms:5000}")
+    public void flushProgress() {
+        if (activeRuns.isEmpty()) {
+            return;
+        }
+        LocalDateTime leaseExpiresAt=databaseClock.now().plus(runLease);
+        activeRuns.forEach((runId, active) -> {
+            MatchProgress progress=active.progress();
+            Integer renewed=transactionTemplate.execute(status -> matchRunRepository.renewActive(runId, progress.getTotal(), progress.getMatched(),
+                    progress.getFailed(), progress.getSkipped(), progress.getUnsaved(), leaseExpiresAt));
+            if ((renewed == null || renewed == 0) && activeRuns.containsKey(runId) && !progress.isCancelled()) {
+                progress.cancel();
+                log.warn("Match run {} (Job ID {}) was closed by another node after its lease expired; stopping it here.", runId, active.jobId());
+            } else if (matchRunRepository.findCancelRequestedById(runId).orElse(false) && !progress.isCancelled()) {
+                progress.cancel();
+                log.info("Cancellation requested through another node for match run {} (Job ID {}).", runId, active.jobId());
+            }
+        });
+    }
+
+    private void execute(Long runId, Long jobId, MatchingMode mode, boolean force, Integer retrievalTopN, MatchProgress progress) {
+        markRunning(runId);
+        String status;
+        String message=null;
+        try {
+            if (clusterEnabled && matchingService.isDistributable(mode)) {
+                coordinateChunks(runId, jobId, mode, force, retrievalTopN, progress);
+            } else {
+                matchingService.matchAllCandidatesToJob(jobId, mode, force, retrievalTopN, progress);
+            }
+            status=progress.isCancelled() ? "CANCELLED" : "COMPLETED";
+        } catch (Exception e) {
+            log.error("Match run {} for Job ID {} failed: {}", runId, jobId, e.getMessage(), e);
+            status="FAILED";
+            message=e.getMessage();
+        }
+        finish(runId, jobId, progress, status, message);
+    }
+
+    // this node's MatchChunkWorker claims chunks like any other node; here the run only waits for all chunks to close and mirrors their counters
+    private void coordinateChunks(Long runId, Long jobId, MatchingMode mode, boolean force, Integer retrievalTopN, MatchProgress progress)
+            throws InterruptedException {
+        List<Long> candidateIds=matchingService.planMatchAll(jobId, mode, retrievalTopN, progress);
+        int chunks=matchChunkQueue.publish(runId, jobId, candidateIds, force);
+        log.info("Published match run {} for Job ID {} as {} chunk(s) of {} candidate(s) for the cluster.", runId, jobId, chunks, candidateIds.size());
+        boolean cancelSent=false;
+        try {
+            while (true) {
+                RunTotals totals=matchChunkQueue.totals(runId);
+                progress.syncFromChunks(totals.getMatched(), totals.getFailed(), totals.getSkipped(), totals.getUnsaved());
+                if (totals.getOpenChunks() == 0) {
+                    return;
+                }
+                if (progress.isCancelled() && !cancelSent) {
+                    cancelSent=true;
+                    log.info("Cancelled {} open chunk(s) of match run {}.", matchChunkQueue.cancelOpen(runId), runId);
+                }
+                Thread.sleep(chunkPollMillis);
+            }
+        } catch (InterruptedException | RuntimeException e) {
+            matchChunkQueue.cancelOpen(runId);
+            if (e instanceof InterruptedException) {
+                Thread.currentThread().interrupt();
+            }
+            throw e;
+        }
+    }
+
+    private void executeMatrix(String matrixId, Map<Long, Long> runIdByJob, Map<Long, MatchProgress> progressByJob,
+                               List<Long> candidateIds, MatchingMode mode, boolean force, Integer retrievalTopN) {
+        runIdByJob.values().forEach(this::markRunning);
+        Map<Long, String> failures;
+        try {
+            failures=matchingService.matchMatrix(progressByJob, candidateIds, mode, force, retrievalTopN);
+        } catch (Exception e) {
+            log.error("Matrix match {} failed: {}", matrixId, e.getMessage(), e);
+            failures=new LinkedHashMap<>();
+            for (Long jobId : runIdByJob.keySet()) {
+                failures.put(jobId, e.getMessage());
+            }
+        }
+        Map<Long, String> failed=failures;
+        runIdByJob.forEach((jobId, runId) -> {
+            MatchProgress progress=progressByJob.get(jobId);
+            String status=failed.containsKey(jobId) ? "FAILED" : progress.isCancelled() ? "CANCELLED" : "COMPLETED";
+            finish(runId, jobId, progress, status, failed.get(jobId));
+        });
+        log.info("Matrix match {} finished for {} job(s), {} failed.", matrixId, runIdByJob.size(), failed.size());
+    }
+
+    private void markRunning(Long runId) {
+        transactionTemplate.executeWithoutResult(status -> matchRunRepository.markRunning(runId, LocalDateTime.now()));
+    }
+
+    private void finish(Long runId, Long jobId, MatchProgress progress, String status, String message) {
+        activeRuns.remove(runId);
+        if (close(runId, progress, status, message)) {
+            log.info("Match run {} for Job ID {} finished with status {}: {} matched, {} failed of {}.",
+                    runId, jobId, status, progress.getMatched(), progress.getFailed(), progress.getTotal());
+        } else {
+            log.warn("Match run {} for Job ID {} ended with status {} after another node had already closed it; its status is left as it is.",
+                    runId, jobId, status);
+        }
+    }
+
+    private void reject(Iterable<Long> runIds) {
+        for (Long runId : runIds) {
+            activeRuns.remove(runId);
+            close(runId, new MatchProgress(), "REJECTED", "Too many match runs queued.");
+        }
+    }
+
+    // every write to a run is a conditional update of the columns this node owns: cancelRequested and a takeover's INTERRUPTED are
+    // committed by other nodes, and a whole-row save would write them back with this node's stale copy
+    private boolean close(Long runId, MatchProgress progress, String status, String message) {
+        Integer closed=transactionTemplate.execute(tx -> matchRunRepository.closeActive(runId, progress.getTotal(), progress.getMatched(),
+                progress.getFailed(), progress.getSkipped(), progress.getUnsaved(), status, message, LocalDateTime.now()));
+        return closed != null && closed > 0;
+    }
+
+    private JobDescription loadSummarizedJob(Long jobId) {
+        JobDescription job=jobDescriptionRepository.findById(jobId)
+                .orElseThrow(() -> new ResourceNotFoundException("JobDescription not found with ID: " + jobId));
+        if (job.getStructuredSummaryJson() == null || job.getStructuredSummaryJson().isBlank()) {
+            throw new IllegalStateException("Cannot run batch match: JobDescription ID " + jobId + " has not been summarized.");
+        }
+        return job;
+    }
+
+    // the effective pre-retrieval setting is stored, so a run's scope does not change with the configuration while it is queued
+    private MatchRun newRun(JobDescription job, String matrixId, MatchingMode mode, boolean force, Integer retrievalTopN) {
+        MatchRun run=new MatchRun();
+        run.setOwnerNode(nodeId);
+        run.setLeaseExpiresAt(databaseClock.now().plus(runLease));
+        run.setJobDescription(job);
+        run.setMatrixId(matrixId);
+        run.setMode(mode != null ? mode.name() : "DEFAULT");
+        run.setForceRematch(force);
+        run.setRetrievalTopN(matchingService.resolveRetrievalTopN(retrievalTopN));
+        run.setStatus("QUEUED");
+        run.setCreatedAt(LocalDateTime.now());
+        return run;
+    }
+
+    // all or nothing: if another node inserted an active run for one of the jobs first, the unique index rejects the whole set
+    private List<MatchRun> insertRuns(List<MatchRun> runs) {
+        try {
+            return transactionTemplate.execute(status -> matchRunRepository.saveAllAndFlush(runs));
+        } catch (DataIntegrityViolationException e) {
+            for (MatchRun run : runs) {
+                Long jobId=run.getJobDescription().getId();
+                Optional<Long> active=matchRunRepository.findFirstByJobDescriptionIdAndStatusInOrderByIdDesc(jobId, ACTIVE_STATUSES).map(MatchRun::getId);
+                if (active.isPresent()) {
+                    throw new MatchRunInProgressException(jobId, active.get());
+                }
+            }
+            throw e;
+        }
+    }
+
+    private boolean isOwnedElsewhere(MatchRun run) {
+        return ACTIVE_STATUSES.contains(run.getStatus()) && run.getOwnerNode() != null && !nodeId.equals(run.getOwnerNode());
+    }
+
+    private void requestCancel(List<Long> runIds) {
+        if (!runIds.isEmpty()) {
+            transactionTemplate.executeWithoutResult(status -> matchRunRepository.requestCancel(runIds));
+        }
+    }
+
+    private MatchRunProgressDto toProgress(MatchRun run) {
+        ActiveRun active=activeRuns.get(run.getId());
+        return MatchRunProgressDto.fromEntity(run, active != null ? active.progress() : null);
+    }
+
+    private record ActiveRun(Long jobId, MatchProgress progress) {
+    }
+}
@@ -0,0 +1,71 @@
+package com.ai.recruitmentai.service;
+import com.ai.recruitmentai.config.DatabaseClock;
+import com.ai.recruitmentai.entity.LeasedWork;
+import com.ai.recruitmentai.repository.LeasedWorkRepository;
+import org.springframework.transaction.support.TransactionTemplate;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.UUID;
+// the claim / heartbeat / release protocol shared by the DB work queues: a claimed row is IN_PROGRESS under this node's name until its lease
+// runs out, and a fresh token per claim lets a superseded worker notice that its row was taken over. Every lease time comes from the
+// database clock, so nodes with skewed clocks neither steal live leases nor keep dead ones alive
+final class WorkLeases {
+    private final LeasedWorkRepository<?, ?> repository;
+    private final TransactionTemplate transactionTemplate;
+    private final DatabaseClock clock;
+    private final String nodeId;
+    private final Duration lease;
+
+    WorkLeases(LeasedWorkRepository<?, ?> repository, TransactionTemplate transactionTemplate, DatabaseClock clock, String nodeId, Duration lease) {
+        this.repository=repository;
+        this.transactionTemplate=transactionTemplate;
+        this.clock=clock;
+        this.nodeId=nodeId;
+        this.lease=lease;
+    }
+
+    String nodeId() {
+        return nodeId;
+    }
+
+    Duration lease() {
+        return lease;
+    }
+
+    LocalDateTime now() {
+        return clock.now();
+    }
+
+    // true when the row was still leased by a node that stopped heartbeating
+    boolean claim(LeasedWork row, LocalDateTime now) {
+        boolean reclaimed="IN_PROGRESS".equals(row.getStatus());
+        row.setStatus("IN_PROGRESS");
+        row.setAttempts(row.getAttempts() + 1);
+        row.setLeaseExpiresAt(now.plus(lease));
+        row.setLeaseOwner(nodeId);
+        row.setLeaseToken(UUID.randomUUID().toString());
+        return reclaimed;
+    }
+
+    static void clear(LeasedWork row) {
+        row.setLeaseExpiresAt(null);
+        row.setLeaseOwner(null);
+        row.setLeaseToken(null);
+    }
+
+    // heartbeat; returns how many of the leases were still this node's to extend
+    int extend(Collection<String> tokens) {
+        if (tokens.isEmpty()) {
+            return 0;
+        }
+        Integer extended=transactionTemplate.execute(status -> repository.extendLeases(nodeId, tokens, now().plus(lease)));
+        return extended != null ? extended : 0;
+    }
+
+    // after a restart this node holds nothing, so rows still leased under its name can be handed out again straight away
+    int releaseOwn() {
+        Integer released=transactionTemplate.execute(status -> repository.releaseLeasesOwnedBy(nodeId));
+        return released != null ? released : 0;
+    }
+}
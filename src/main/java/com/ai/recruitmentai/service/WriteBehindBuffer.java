@@ -0,0 +1,107 @@
+package com.ai.recruitmentai.service;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BiConsumer;
+// batching core of the write-behind writers: submitters hand over items, and a full buffer or a flush() writes them batchSize at a time.
+// a failed batch is retried item by item, so one bad row cannot take the rest of the batch with it
+final class WriteBehindBuffer<T> {
+    private static final Logger log=LoggerFactory.getLogger(WriteBehindBuffer.class);
+    private final String name;
+    private final int batchSize;
+    private final BatchWriter<T> writer;
+    private final BiConsumer<T, RuntimeException> onItemFailure;
+    private final ConcurrentLinkedQueue<T> pending=new ConcurrentLinkedQueue<>();
+    private final AtomicInteger pendingCount=new AtomicInteger();
+    private final ReentrantLock flushLock=new ReentrantLock();
+    private final AtomicLong rowsWritten=new AtomicLong();
+    private final AtomicLong rowsFailed=new AtomicLong();
+    private final AtomicLong writeNanos=new AtomicLong();
+
+    WriteBehindBuffer(String name, int batchSize, BatchWriter<T> writer, BiConsumer<T, RuntimeException> onItemFailure) {
+        this.name=name;
+        this.batchSize=Math.max(1, batchSize);
+        this.writer=writer;
+        this.onItemFailure=onItemFailure;
+    }
+
+    // a submitter that fills the buffer writes it, unless another thread is already doing so
+    void submit(T item) {
+        pending.add(item);
+        if (pendingCount.incrementAndGet() >= batchSize && flushLock.tryLock()) {
+            try {
+                drain();
+            } finally {
+                flushLock.unlock();
+            }
+        }
+    }
+
+    // blocks until everything submitted before the call is written
+    void flush() {
+        flushLock.lock();
+        try {
+            drain();
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    Map<String, Object> stats() {
+        Map<String, Object> stats=new LinkedHashMap<>();
+        long written=rowsWritten.get();
+        long nanos=writeNanos.get();
+        stats.put("pending", pendingCount.get());
+        stats.put("rowsWritten", written);
+        stats.put("rowsFailed", rowsFailed.get());
+        stats.put("rowsPerSecond", nanos == 0 ? 0 : Math.round(written * 1_000_000_000.0 / nanos));
+        return stats;
+    }
+
+    private void drain() {
+        while (true) {
+            List<T> batch=new ArrayList<>(batchSize);
+            T item;
+            while (batch.size() < batchSize && (item=pending.poll()) != null) {
+                pendingCount.decrementAndGet();
+                batch.add(item);
+            }
+            if (batch.isEmpty()) {
+                return;
+            }
+            long start=System.nanoTime();
+            int written=0;
+            try {
+                written=writer.write(batch);
+            } catch (RuntimeException e) {
+                log.warn("Batched write of {} {} failed, retrying row by row: {}", batch.size(), name, e.getMessage());
+                for (T single : batch) {
+                    try {
+                        written += writer.write(List.of(single));
+                    } catch (RuntimeException rowError) {
+                        rowsFailed.incrementAndGet();
+                        onItemFailure.accept(single, rowError);
+                    }
+                }
+            }
+            long elapsed=System.nanoTime() - start;
+            rowsWritten.addAndGet(written);
+            writeNanos.addAndGet(elapsed);
+            log.debug("Wrote {} {} in {} ms ({} rows/s).",
+                    written, name, elapsed / 1_000_000, Math.round(written * 1_000_000_000.0 / Math.max(1, elapsed)));
+        }
+    }
+
+    // writes one batch in its own transaction and returns how many rows it stored; throwing rolls back the whole batch
+    @FunctionalInterface
+    interface BatchWriter<T> {
+        int write(List<T> batch);
+    }
+}
@@ -0,0 +1,264 @@
+package com.ai.recruitmentai.util;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+public final class CvTextCompactor {
+    private static final Pattern PAGE_NUMBER=Pattern.compile("^(page\\s*)?\\d{1,3}(\\s*(of|/)\\s*\\d{1,3})?$", Pattern.CASE_INSENSITIVE);
+    // a running line that carries a page number, e.g. "Jane Doe - CV - Page 2 of 3"
+    private static final Pattern PAGE_LABEL=Pattern.compile(".*\\bpage\\s*\\d{1,3}(\\s*(of|/)\\s*\\d{1,3})?\\b.*", Pattern.CASE_INSENSITIVE);
+    private static final Pattern INLINE_WHITESPACE=Pattern.compile("[\\t\\x0B\\u00A0\\u2000-\\u200B\\u3000 ]+");
+    private static final Pattern CONTROL_CHARS=Pattern.compile("[\\p{Cc}&&[^\\n\\t]]");
+    private static final Pattern BULLET_START=Pattern.compile("^([-*\\u2022\\u25AA\\u25E6\\u25CF\\u2023\\u00B7]|\\d+[.)])\\s.*");
+    private static final int EDGE_LINES=3;
+    private static final int CHARS_PER_TOKEN=4;
+    // lower value = kept first when the CV has to be truncated to fit the token budget
+    private static final Map<String, Integer> SECTION_PRIORITY=new HashMap<>();
+    static {
+        for (String heading : List.of("skills", "technical skills", "key skills", "core competencies")) SECTION_PRIORITY.put(heading, 1);
+        for (String heading : List.of("experience", "work experience", "professional experience", "employment", "employment history", "work history", "career history")) SECTION_PRIORITY.put(heading, 2);
+        for (String heading : List.of("education", "academic background", "qualifications")) SECTION_PRIORITY.put(heading, 3);
+        for (String heading : List.of("certifications", "certificates", "licenses", "licenses and certifications")) SECTION_PRIORITY.put(heading, 4);
+        for (String heading : List.of("summary", "profile", "professional summary", "objective", "about me")) SECTION_PRIORITY.put(heading, 5);
+        for (String heading : List.of("projects", "achievements", "awards", "accomplishments", "publications")) SECTION_PRIORITY.put(heading, 6);
+        for (String heading : List.of("languages", "volunteering", "volunteer experience", "training", "courses")) SECTION_PRIORITY.put(heading, 7);
+        for (String heading : List.of("interests", "hobbies", "references", "personal details", "declaration")) SECTION_PRIORITY.put(heading, 9);
+    }
+    private static final int CONTACT_PRIORITY=0;
+    private static final int UNKNOWN_SECTION_PRIORITY=8;
+    private CvTextCompactor() {
+        throw new UnsupportedOperationException("This is a utility class and cannot be instantiated");
+    }
+
+    public record CompactionResult(String text, int originalChars, int compactedChars, int originalTokens,
+                                   int compactedTokens, boolean truncated) {
+        public int savedChars() {
+            return originalChars - compactedChars;
+        }
+        public int savedTokens() {
+            return originalTokens - compactedTokens;
+        }
+    }
+
+    public static int estimateTokens(String text) {
+        return text == null ? 0 : (text.length() + CHARS_PER_TOKEN - 1) / CHARS_PER_TOKEN;
+    }
+
+    public static CompactionResult compact(List<String> pages, int tokenBudget) {
+        int originalChars=pages.stream().mapToInt(String::length).sum() + Math.max(0, pages.size() - 1);
+        List<List<String>> pageLines=new ArrayList<>();
+        for (String page : pages) {
+            pageLines.add(normalizeLines(page));
+        }
+        Set<String> boilerplate=findRepeatedEdgeLines(pageLines);
+        Set<String> seenBoilerplate=new HashSet<>();
+        List<String> lines=new ArrayList<>();
+        for (List<String> page : pageLines) {
+            Set<Integer> edges=edgeIndexes(page);
+            for (int i=0; i < page.size(); i++) {
+                String line=page.get(i);
+                if (PAGE_NUMBER.matcher(line).matches()) {
+                    continue;
+                }
+                // only lines in the edge positions they were detected in are dropped; the same text inside the body is content.
+                // the first copy stays: a running header is often the candidate's name and contact line
+                if (edges.contains(i)) {
+                    String signature=signature(line);
+                    if (boilerplate.contains(signature) && !seenBoilerplate.add(signature)) {
+                        continue;
+                    }
+                }
+                lines.add(line);
+            }
+            lines.add("");
+        }
+        lines=joinBrokenLines(lines);
+        String text=String.join("\n", collapseBlankLines(lines)).trim();
+        boolean truncated=false;
+        if (tokenBudget > 0 && estimateTokens(text) > tokenBudget) {
+            text=truncateBySection(text, tokenBudget);
+            truncated=true;
+        }
+        return new CompactionResult(text, originalChars, text.length(),
+                (originalChars + CHARS_PER_TOKEN - 1) / CHARS_PER_TOKEN, estimateTokens(text), truncated);
+    }
+
+    private static List<String> normalizeLines(String page) {
+        List<String> lines=new ArrayList<>();
+        for (String line : page.split("\\R")) {
+            String normalized=INLINE_WHITESPACE.matcher(CONTROL_CHARS.matcher(line).replaceAll("")).replaceAll(" ").trim();
+            lines.add(normalized);
+        }
+        return lines;
+    }
+
+    // headers/footers: non-blank lines near the top or bottom of a page that recur on most pages
+    private static Set<String> findRepeatedEdgeLines(List<List<String>> pages) {
+        Set<String> repeated=new HashSet<>();
+        if (pages.size() < 2) {
+            return repeated;
+        }
+        Map<String, Integer> occurrences=new HashMap<>();
+        for (List<String> page : pages) {
+            Set<String> edges=new HashSet<>();
+            for (int index : edgeIndexes(page)) {
+                edges.add(signature(page.get(index)));
+            }
+            edges.forEach(edge -> occurrences.merge(edge, 1, Integer::sum));
+        }
+        int threshold=Math.max(2, (int) Math.ceil(pages.size() * 0.6));
+        occurrences.forEach((edge, count) -> {
+            if (count >= threshold && !edge.isEmpty()) {
+                repeated.add(edge);
+            }
+        });
+        return repeated;
+    }
+
+    // positions of the first and last EDGE_LINES non-blank lines of a page
+    private static Set<Integer> edgeIndexes(List<String> page) {
+        List<Integer> nonBlank=new ArrayList<>();
+        for (int i=0; i < page.size(); i++) {
+            if (!page.get(i).isEmpty()) {
+                nonBlank.add(i);
+            }
+        }
+        Set<Integer> edges=new HashSet<>();
+        for (int i=0; i < nonBlank.size(); i++) {
+            if (i < EDGE_LINES || i >= nonBlank.size() - EDGE_LINES) {
+                edges.add(nonBlank.get(i));
+            }
+        }
+        return edges;
+    }
+
+    // digits are only folded in page-number lines, so "Page 2 of 3" matches "Page 3 of 3" but "2019 - 2021" never matches "2017 - 2019"
+    private static String signature(String line) {
+        String lower=line.toLowerCase(Locale.ROOT);
+        return PAGE_LABEL.matcher(line).matches() ? lower.replaceAll("\\d+", "#") : lower;
+    }
+
+    // re-joins words hyphenated across a line break and sentences wrapped mid-way by the PDF layout
+    private static List<String> joinBrokenLines(List<String> lines) {
+        List<String> joined=new ArrayList<>();
+        for (String line : lines) {
+            if (!joined.isEmpty() && !line.isEmpty()) {
+                String previous=joined.get(joined.size() - 1);
+                char first=line.charAt(0);
+                if (previous.length() > 1 && previous.endsWith("-") && Character.isLetter(previous.charAt(previous.length() - 2))
+                        && Character.isLowerCase(first)) {
+                    joined.set(joined.size() - 1, previous.substring(0, previous.length() - 1) + line);
+                    continue;
+                }
+                if (!previous.isEmpty() && Character.isLowerCase(first) && !BULLET_START.matcher(line).matches()
+                        && ".:;!?".indexOf(previous.charAt(previous.length() - 1)) < 0 && !isAllCaps(previous)) {
+                    joined.set(joined.size() - 1, previous + " " + line);
+                    continue;
+                }
+            }
+            joined.add(line);
+        }
+        return joined;
+    }
+
+    private static List<String> collapseBlankLines(List<String> lines) {
+        List<String> collapsed=new ArrayList<>();
+        boolean previousBlank=true;
+        for (String line : lines) {
+            boolean blank=line.isEmpty();
+            if (blank && previousBlank) {
+                continue;
+            }
+            collapsed.add(line);
+            previousBlank=blank;
+        }
+        return collapsed;
+    }
+
+    // keeps whole sections in priority order (contact block, skills, experience, education, ...) and cuts the first one that no longer fits at a line boundary
+    private static String truncateBySection(String text, int tokenBudget) {
+        List<Section> sections=splitSections(text);
+        int remainingChars=tokenBudget * CHARS_PER_TOKEN;
+        List<Section> byPriority=new ArrayList<>(sections);
+        byPriority.sort((a, b) -> Integer.compare(a.priority, b.priority));
+        for (Section section : byPriority) {
+            if (remainingChars <= 0) {
+                break;
+            }
+            if (section.text.length() + 1 <= remainingChars) {
+                section.kept=section.text;
+            } else {
+                // a heading with none of its content left is dropped rather than kept dangling
+                int cut=section.text.lastIndexOf('\n', remainingChars - 1);
+                int headingEnd=section.text.indexOf('\n');
+                section.kept=cut > headingEnd && headingEnd > 0 ? section.text.substring(0, cut) : "";
+            }
+            remainingChars -= section.kept.isEmpty() ? 0 : section.kept.length() + 1;
+        }
+        StringBuilder result=new StringBuilder();
+        for (Section section : sections) {
+            if (section.kept != null && !section.kept.isEmpty()) {
+                if (result.length() > 0) {
+                    result.append('\n');
+                }
+                result.append(section.kept);
+            }
+        }
+        return result.toString();
+    }
+
+    private static List<Section> splitSections(String text) {
+        List<Section> sections=new ArrayList<>();
+        StringBuilder current=new StringBuilder();
+        int currentPriority=CONTACT_PRIORITY;
+        for (String line : text.split("\n", -1)) {
+            Integer headingPriority=headingPriority(line);
+            if (headingPriority != null && headingPriority == UNKNOWN_SECTION_PRIORITY && sections.isEmpty()) {
+                // an all-caps line inside the opening block is usually the candidate's name, not a section
+                headingPriority=null;
+            }
+            if (headingPriority != null && current.length() > 0) {
+                sections.add(new Section(current.toString(), currentPriority));
+                current.setLength(0);
+            }
+            if (headingPriority != null) {
+                currentPriority=headingPriority;
+            }
+            if (current.length() > 0) {
+                current.append('\n');
+            }
+            current.append(line);
+        }
+        if (current.length() > 0) {
+            sections.add(new Section(current.toString(), currentPriority));
+        }
+        return sections;
+    }
+
+    private static Integer headingPriority(String line) {
+        if (line.isEmpty() || line.length() > 40) {
+            return null;
+        }
+        String heading=line.toLowerCase(Locale.ROOT).replaceAll("[^a-z ]", "").trim();
+        return SECTION_PRIORITY.getOrDefault(heading, isAllCaps(line) && !heading.isEmpty() ? UNKNOWN_SECTION_PRIORITY : null);
+    }
+
+    private static boolean isAllCaps(String line) {
+        return line.equals(line.toUpperCase(Locale.ROOT)) && line.chars().anyMatch(Character::isLetter);
+    }
+
+    private static final class Section {
+        private final String text;
+        private final int priority;
+        private String kept;
+
+        private Section(String text, int priority) {
+            this.text=text;
+            this.priority=priority;
+        }
+    }
+}
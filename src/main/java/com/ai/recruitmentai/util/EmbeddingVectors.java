@@ -0,0 +1,60 @@
+package com.ai.recruitmentai.util;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+public final class EmbeddingVectors {
+    private EmbeddingVectors() {
+        throw new UnsupportedOperationException("This is a utility class and cannot be instantiated");
+    }
+    // vectors are stored unit-length, so cosine similarity is a plain dot product
+    public static float[] normalize(float[] vector) {
+        double norm=0;
+        for (float v : vector) {
+            norm += v * v;
+        }
+        norm=Math.sqrt(norm);
+        float[] normalized=new float[vector.length];
+        if (norm == 0) {
+            return normalized;
+        }
+        for (int i=0; i < vector.length; i++) {
+            normalized[i]=(float) (vector[i] / norm);
+        }
+        return normalized;
+    }
+    public static float dot(float[] a, float[] b) {
+        if (a.length != b.length) {
+            throw new IllegalArgumentException("Embedding dimensions differ: " + a.length + " vs " + b.length);
+        }
+        float sum=0;
+        for (int i=0; i < a.length; i++) {
+            sum += a[i] * b[i];
+        }
+        return sum;
+    }
+    public static byte[] toBytes(float[] vector) {
+        ByteBuffer buffer=ByteBuffer.allocate(vector.length * Float.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.asFloatBuffer().put(vector);
+        return buffer.array();
+    }
+    public static float[] fromBytes(byte[] bytes) {
+        float[] vector=new float[bytes.length / Float.BYTES];
+        ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN).asFloatBuffer().get(vector);
+        return vector;
+    }
+    // identifies the exact input an embedding was computed from, so it is only recomputed when the JSON or the model changes
+    public static String fingerprint(String model, String text) {
+        try {
+            MessageDigest digest=MessageDigest.getInstance("SHA-256");
+            digest.update(model.getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) 0);
+            digest.update(text.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
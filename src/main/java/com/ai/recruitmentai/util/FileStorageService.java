@@ -9,11 +9,13 @@ import org.springframework.util.StringUtils;
 import org.springframework.web.multipart.MultipartFile;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.nio.file.StandardCopyOption;
 import java.util.Objects;
+import java.util.UUID;
 @Service 
 public class FileStorageService {
     private static final Logger log=LoggerFactory.getLogger(FileStorageService.class);
@@ -58,4 +60,67 @@ public class FileStorageService {
             throw new FileStorageException("Could not store file " + originalFilename + ". Please try again!", ex);
         }
     }
-}
\ No newline at end of file
+
+    // streams straight to disk through a temporary file, so nothing is held in memory and a half-written CV is never visible under its real name
+    public Path storeStream(String filename, InputStream inputStream, long maxBytes) {
+        String cleanName=StringUtils.cleanPath(Objects.requireNonNull(filename));
+        if (cleanName.isBlank() || cleanName.contains("..") || cleanName.contains("/")) {
+            throw new FileStorageException("Filename contains invalid path sequence: " + filename);
+        }
+        Path targetLocation=this.fileStorageLocation.resolve(cleanName);
+        Path tempLocation=this.fileStorageLocation.resolve("." + cleanName + "." + UUID.randomUUID() + ".part");
+        try {
+            long written=0;
+            byte[] buffer=new byte[64 * 1024];
+            try (OutputStream out=Files.newOutputStream(tempLocation)) {
+                int read;
+                while ((read=inputStream.read(buffer)) != -1) {
+                    written += read;
+                    if (written > maxBytes) {
+                        throw new FileStorageException("File " + cleanName + " exceeds the limit of " + maxBytes + " bytes.");
+                    }
+                    out.write(buffer, 0, read);
+                }
+            }
+            if (written == 0) {
+                throw new FileStorageException("Cannot store empty file.");
+            }
+            Files.move(tempLocation, targetLocation, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            log.debug("Stored {} ({} bytes).", cleanName, written);
+            return targetLocation;
+        } catch (IOException ex) {
+            log.error("Could not store file {}.", cleanName, ex);
+            throw new FileStorageException("Could not store file " + cleanName + ".", ex);
+        } finally {
+            try {
+                Files.deleteIfExists(tempLocation);
+            } catch (IOException ex) {
+                log.warn("Could not remove temporary file {}: {}", tempLocation, ex.getMessage());
+            }
+        }
+    }
+
+    // true when the upload directory already holds a byte-identical copy of source under the same name
+    public boolean isStoredCopy(Path source) {
+        Path stored=this.fileStorageLocation.resolve(source.getFileName().toString());
+        try {
+            return Files.isRegularFile(stored) && Files.size(stored) == Files.size(source) && Files.mismatch(stored, source) == -1;
+        } catch (IOException ex) {
+            log.debug("Could not compare {} with stored copy: {}", source, ex.getMessage());
+            return false;
+        }
+    }
+
+    // removes a stored CV that will never be registered, e.g. one superseded by a later file with the same Candidate ID
+    public void deleteStored(Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException ex) {
+            log.warn("Could not remove stored file {}: {}", path, ex.getMessage());
+        }
+    }
+
+    public Path getFileStorageLocation() {
+        return fileStorageLocation;
+    }
+}
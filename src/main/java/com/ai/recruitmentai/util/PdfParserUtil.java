@@ -10,6 +10,8 @@ import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
 public final class PdfParserUtil {
     private static final Logger log=LoggerFactory.getLogger(PdfParserUtil.class);
     private PdfParserUtil() {
@@ -63,4 +65,24 @@ public final class PdfParserUtil {
             throw new FileParsingException("Error reading or parsing PDF content from file: " + file.getName(), e);
         }
     }
+    public static List<String> extractPages(File file) {
+        if (file == null || !file.exists() || !file.isFile()) {
+            log.error("Invalid file provided to PDF parser: {}", file != null ? file.getAbsolutePath() : "null");
+            throw new FileParsingException("PDF file does not exist or is invalid.");
+        }
+        try (PDDocument document=Loader.loadPDF(file)) {
+            PDFTextStripper pdfStripper=new PDFTextStripper();
+            List<String> pages=new ArrayList<>(document.getNumberOfPages());
+            for (int page=1; page <= document.getNumberOfPages(); page++) {
+                pdfStripper.setStartPage(page);
+                pdfStripper.setEndPage(page);
+                pages.add(pdfStripper.getText(document));
+            }
+            log.info("Successfully extracted {} page(s) of text from PDF file: {}", pages.size(), file.getName());
+            return pages;
+        } catch (IOException e) {
+            log.error("Failed to parse PDF file: {}", file.getAbsolutePath(), e);
+            throw new FileParsingException("Error reading or parsing PDF content from file: " + file.getName(), e);
+        }
+    }
 }
\ No newline at end of file
@@ -0,0 +1,102 @@
+package com.ai.recruitmentai.util;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+public final class SkillNormalizer {
+    private static final Pattern LIST_SEPARATORS=Pattern.compile("[,;|\\n]+");
+    private static final Pattern CATEGORY_PREFIX=Pattern.compile("^[^:]{1,40}:\\s*");
+    private static final Pattern PARENTHESISED=Pattern.compile("\\([^)]*\\)");
+    private static final Pattern TRAILING_VERSION=Pattern.compile("\\s+v?\\d+(\\.\\d+)*\\+?$");
+    private static final Pattern NON_KEY_CHARS=Pattern.compile("[^a-z0-9+#]");
+    private static final int MAX_SKILL_LENGTH=60;
+    // keys are compared after lower-casing and dropping spaces, dots and dashes, so "Spring Boot", "spring-boot" and "SpringBoot" already agree
+    private static final Map<String, String> ALIASES=Map.ofEntries(
+            Map.entry("springframework", "spring"),
+            Map.entry("js", "javascript"),
+            Map.entry("ecmascript", "javascript"),
+            Map.entry("es6", "javascript"),
+            Map.entry("ts", "typescript"),
+            Map.entry("react", "reactjs"),
+            Map.entry("node", "nodejs"),
+            Map.entry("vue", "vuejs"),
+            Map.entry("angularjs", "angular"),
+            Map.entry("golang", "go"),
+            Map.entry("postgres", "postgresql"),
+            Map.entry("psql", "postgresql"),
+            Map.entry("mssql", "sqlserver"),
+            Map.entry("microsoftsqlserver", "sqlserver"),
+            Map.entry("mongo", "mongodb"),
+            Map.entry("k8s", "kubernetes"),
+            Map.entry("amazonwebservices", "aws"),
+            Map.entry("googlecloud", "gcp"),
+            Map.entry("googlecloudplatform", "gcp"),
+            Map.entry("microsoftazure", "azure"),
+            Map.entry("ml", "machinelearning"),
+            Map.entry("dl", "deeplearning"),
+            Map.entry("ai", "artificialintelligence"),
+            Map.entry("nlp", "naturallanguageprocessing"),
+            Map.entry("cicd", "ci/cd"),
+            Map.entry("ci", "ci/cd"),
+            Map.entry("continuousintegration", "ci/cd"),
+            Map.entry("restapi", "rest"),
+            Map.entry("restapis", "rest"),
+            Map.entry("restful", "rest"),
+            Map.entry("restfulapis", "rest"),
+            Map.entry("csharp", "c#"),
+            Map.entry("cpp", "c++"),
+            Map.entry("dotnet", ".net"),
+            Map.entry("aspnet", ".net"),
+            Map.entry("sklearn", "scikitlearn"),
+            Map.entry("tf", "tensorflow"),
+            Map.entry("msexcel", "excel"),
+            Map.entry("microsoftexcel", "excel"),
+            Map.entry("oop", "objectorientedprogramming"),
+            Map.entry("springmvc", "spring"),
+            Map.entry("hibernateorm", "hibernate"),
+            Map.entry("jpa", "hibernate"));
+    private SkillNormalizer() {
+        throw new UnsupportedOperationException("This is a utility class and cannot be instantiated");
+    }
+
+    // splits list-like entries ("Languages: Java, Python") and returns distinct canonical keys in input order
+    public static List<String> normalizeAll(List<String> skills) {
+        Set<String> keys=new LinkedHashSet<>();
+        if (skills == null) {
+            return List.of();
+        }
+        for (String entry : skills) {
+            if (entry == null) {
+                continue;
+            }
+            String withoutCategory=CATEGORY_PREFIX.matcher(entry.trim()).replaceFirst("");
+            for (String part : LIST_SEPARATORS.split(withoutCategory)) {
+                String key=normalize(part);
+                if (key != null) {
+                    keys.add(key);
+                }
+            }
+        }
+        return new ArrayList<>(keys);
+    }
+
+    public static String normalize(String skill) {
+        if (skill == null) {
+            return null;
+        }
+        String cleaned=PARENTHESISED.matcher(skill.toLowerCase(Locale.ROOT)).replaceAll(" ").trim();
+        if (cleaned.isEmpty() || cleaned.length() > MAX_SKILL_LENGTH) {
+            return null;
+        }
+        cleaned=TRAILING_VERSION.matcher(cleaned).replaceFirst("");
+        // ".net" keeps its dot; everything else that is not a letter, digit, '+' or '#' is layout noise
+        String key=cleaned.startsWith(".") ? "." + NON_KEY_CHARS.matcher(cleaned).replaceAll("") : NON_KEY_CHARS.matcher(cleaned).replaceAll("");
+        if (key.isEmpty() || key.equals(".")) {
+            return null;
+        }
+        return ALIASES.getOrDefault(key, key);
+    }
+}
@@ -0,0 +1,153 @@
+package com.ai.recruitmentai.index;
+
+import com.ai.recruitmentai.repository.CandidateRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mockito;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class HnswIndexTest {
+
+    private static final int DIMENSION = 32;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void approximateSearchFindsMostOfTheExactNearestNeighbours() throws Exception {
+        Random random = new Random(42);
+        Map<Long, float[]> vectors = randomVectors(random, 2000);
+        HnswIndex index = HnswIndex.create(directory.resolve("recall.hnsw"), DIMENSION, 16, 64, 64);
+        for (Map.Entry<Long, float[]> entry : vectors.entrySet()) {
+            index.upsert(entry.getKey(), entry.getKey(), entry.getValue());
+        }
+        int k = 10;
+        int found = 0;
+        int queries = 50;
+        for (int q = 0; q < queries; q++) {
+            float[] query = unitVector(random);
+            Set<Long> approximate = index.search(query, k, 64).stream().map(HnswIndex.Result::key).collect(Collectors.toSet());
+            found += (int) exactNearest(vectors, query, k).stream().filter(approximate::contains).count();
+        }
+        index.close();
+        assertThat((double) found / (queries * k)).isGreaterThanOrEqualTo(0.9);
+    }
+
+    @Test
+    void reloadedIndexKeepsKeysFingerprintsTombstonesAndResults() throws Exception {
+        Random random = new Random(7);
+        Map<Long, float[]> vectors = randomVectors(random, 300);
+        Path file = directory.resolve("roundtrip.hnsw");
+        HnswIndex index = HnswIndex.create(file, DIMENSION, 8, 32, 16);
+        for (Map.Entry<Long, float[]> entry : vectors.entrySet()) {
+            index.upsert(entry.getKey(), entry.getKey() * 31, entry.getValue());
+        }
+        index.upsert(5L, 999L, unitVector(random));
+        index.delete(6L);
+        float[] query = unitVector(random);
+        List<HnswIndex.Result> before = index.search(query, 10, 32);
+        index.close();
+
+        HnswIndex reloaded = HnswIndex.load(file, 32);
+        assertThat(reloaded.dimension()).isEqualTo(DIMENSION);
+        assertThat(reloaded.size()).isEqualTo(299);
+        assertThat(reloaded.tombstoned()).isEqualTo(2);
+        assertThat(reloaded.contains(5L, 999L)).isTrue();
+        assertThat(reloaded.contains(7L, 7L * 31)).isTrue();
+        assertThat(reloaded.contains(6L)).isFalse();
+        assertThat(reloaded.search(query, 10, 32)).isEqualTo(before);
+        reloaded.close();
+    }
+
+    @Test
+    void deletedKeysAreNeverReturned() throws Exception {
+        Random random = new Random(3);
+        Map<Long, float[]> vectors = randomVectors(random, 200);
+        HnswIndex index = HnswIndex.create(directory.resolve("delete.hnsw"), DIMENSION, 8, 32, 16);
+        for (Map.Entry<Long, float[]> entry : vectors.entrySet()) {
+            index.upsert(entry.getKey(), entry.getKey(), entry.getValue());
+        }
+        assertThat(index.delete(17L)).isTrue();
+        assertThat(index.delete(17L)).isFalse();
+        List<HnswIndex.Result> results = index.search(vectors.get(17L), 200, 200);
+        assertThat(results).extracting(HnswIndex.Result::key).doesNotContain(17L).hasSize(199);
+        index.close();
+    }
+
+    @Test
+    void compactionDropsTombstonesAndShrinksTheFile() throws Exception {
+        Random random = new Random(11);
+        Path file = directory.resolve("candidates.hnsw");
+        CandidateVectorIndex vectorIndex = new CandidateVectorIndex(Mockito.mock(CandidateRepository.class), true,
+                file.toString(), 8, 32, 32, 16, 0.25, 150, false);
+        for (long id = 0; id < 100; id++) {
+            vectorIndex.upsert(id, fingerprint(id), unitVector(random));
+        }
+        // every re-parse writes a new node for the same candidate
+        for (long id = 0; id < 100; id++) {
+            vectorIndex.upsert(id, fingerprint(id + 1000), unitVector(random));
+        }
+        long grownBytes = Files.size(file);
+        assertThat(vectorIndex.getStats().get("tombstonedNodes")).isEqualTo(100);
+        for (long id = 0; id < 60; id++) {
+            vectorIndex.remove(id);
+        }
+        Map<String, Object> stats = vectorIndex.getStats();
+        assertThat(stats.get("liveNodes")).isEqualTo(40);
+        assertThat(stats.get("tombstonedNodes")).isEqualTo(10);
+        assertThat(Files.size(file)).isLessThan(grownBytes);
+        assertThat(vectorIndex.contains(0L)).isFalse();
+        assertThat(vectorIndex.contains(60L)).isTrue();
+        assertThat(vectorIndex.search(unitVector(random), 40)).hasSize(40);
+        vectorIndex.close();
+    }
+
+    private static Map<Long, float[]> randomVectors(Random random, int count) {
+        Map<Long, float[]> vectors = new HashMap<>();
+        for (long id = 0; id < count; id++) {
+            vectors.put(id, unitVector(random));
+        }
+        return vectors;
+    }
+
+    private static float[] unitVector(Random random) {
+        float[] vector = new float[DIMENSION];
+        double norm = 0;
+        for (int i = 0; i < DIMENSION; i++) {
+            vector[i] = (float) random.nextGaussian();
+            norm += vector[i] * vector[i];
+        }
+        for (int i = 0; i < DIMENSION; i++) {
+            vector[i] /= (float) Math.sqrt(norm);
+        }
+        return vector;
+    }
+
+    private static List<Long> exactNearest(Map<Long, float[]> vectors, float[] query, int k) {
+        return vectors.entrySet().stream()
+                .sorted(Comparator.comparingDouble((Map.Entry<Long, float[]> entry) -> -dot(entry.getValue(), query)))
+                .limit(k)
+                .map(Map.Entry::getKey)
+                .toList();
+    }
+
+    private static double dot(float[] a, float[] b) {
+        return IntStream.range(0, a.length).mapToDouble(i -> a[i] * b[i]).sum();
+    }
+
+    private static String fingerprint(long seed) {
+        return String.format("%016x", seed) + "0".repeat(48);
+    }
+}
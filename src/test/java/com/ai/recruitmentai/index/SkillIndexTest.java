@@ -0,0 +1,93 @@
+package com.ai.recruitmentai.index;
+
+import com.ai.recruitmentai.index.SkillIndex.SkillMatch;
+import com.ai.recruitmentai.index.SkillIndex.SkillOverlap;
+import com.ai.recruitmentai.repository.CandidateRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SkillIndexTest {
+
+    private final SkillIndex index = new SkillIndex(Mockito.mock(CandidateRepository.class), new ObjectMapper());
+
+    @Test
+    void scoresByNormalizedOverlapBestFirst() {
+        index.indexCandidate(1L, List.of("Java", "Spring Boot", "Postgres"));
+        index.indexCandidate(2L, List.of("java 17"));
+        index.indexCandidate(3L, List.of("Go", "Kubernetes"));
+
+        List<SkillMatch> matches = index.score(List.of("JAVA", "spring-boot", "PostgreSQL", "Docker"), 1);
+
+        assertThat(matches).extracting(SkillMatch::candidateId).containsExactly(1L, 2L);
+        assertThat(matches.get(0).matched()).isEqualTo(3);
+        assertThat(matches.get(0).required()).isEqualTo(4);
+        assertThat(matches.get(0).score()).isEqualTo(75.0);
+        assertThat(index.score(List.of("java", "springboot"), 2)).extracting(SkillMatch::candidateId).containsExactly(1L);
+    }
+
+    @Test
+    void reindexingAndRemovalReplaceTheOldSkills() {
+        index.indexCandidate(1L, List.of("Java"));
+        index.indexCandidate(1L, List.of("Python"));
+        index.indexCandidate(2L, List.of("Java"));
+        index.removeCandidate(2L);
+
+        assertThat(index.score(List.of("java"), 1)).isEmpty();
+        assertThat(index.score(List.of("python"), 1)).extracting(SkillMatch::candidateId).containsExactly(1L);
+        assertThat(index.getStats().get("candidates")).isEqualTo(1);
+    }
+
+    @Test
+    void explainsMatchedAndMissingSkills() {
+        index.indexCandidate(1L, List.of("Languages: Java, TypeScript"));
+
+        SkillOverlap overlap = index.explain(1L, List.of("Java", "TS", "AWS"));
+
+        assertThat(overlap.matched()).containsExactly("java", "typescript");
+        assertThat(overlap.missing()).containsExactly("aws");
+    }
+
+    @Test
+    void readsSkillsFromCvJson() {
+        assertThat(index.skillsFromCvJson("{\"skills\":[\"Java\", 3, \"SQL\"]}")).containsExactly("Java", "SQL");
+        assertThat(index.skillsFromCvJson("not json")).isEmpty();
+        assertThat(index.skillsFromCvJson(null)).isEmpty();
+    }
+
+    @Test
+    void scoresOneHundredThousandCandidatesQuickly() {
+        Random random = new Random(1);
+        List<String> vocabulary = new ArrayList<>();
+        for (int i = 0; i < 2000; i++) {
+            vocabulary.add("skill" + i);
+        }
+        for (long id = 1; id <= 100_000; id++) {
+            List<String> skills = new ArrayList<>();
+            for (int i = 0; i < 15; i++) {
+                skills.add(vocabulary.get(random.nextInt(200) + (i < 5 ? 0 : random.nextInt(1800))));
+            }
+            index.indexCandidate(id, skills);
+        }
+        List<String> required = vocabulary.subList(0, 12);
+        index.score(required, 1);
+
+        long best = Long.MAX_VALUE;
+        List<SkillMatch> matches = List.of();
+        for (int run = 0; run < 5; run++) {
+            long start = System.nanoTime();
+            matches = index.score(required, 1);
+            best = Math.min(best, System.nanoTime() - start);
+        }
+
+        assertThat(matches).hasSizeGreaterThan(10_000);
+        assertThat(matches.get(0).matched()).isGreaterThanOrEqualTo(matches.get(matches.size() - 1).matched());
+        assertThat(best / 1_000_000).as("best of five scoring passes in ms").isLessThan(250);
+    }
+}
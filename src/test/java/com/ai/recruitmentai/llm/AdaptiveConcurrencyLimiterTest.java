@@ -0,0 +1,143 @@
+package com.ai.recruitmentai.llm;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// the limiter is driven with synthetic latencies and token counts; no Ollama call is made
+class AdaptiveConcurrencyLimiterTest {
+
+    private static final String MODEL = "llama3";
+    private static final long FAST = TimeUnit.MILLISECONDS.toNanos(200);
+
+    @Test
+    void saturatedWindowRaisesTheLimitByOne() {
+        OllamaBulkhead bulkhead = bulkhead(2, 1);
+        AdaptiveConcurrencyLimiter limiter = limiter(bulkhead, true, 1, 8);
+
+        saturatedWindow(bulkhead, limiter, 100);
+
+        assertThat(limit(bulkhead)).isEqualTo(3);
+    }
+
+    @Test
+    void unsaturatedWindowHoldsTheLimit() {
+        OllamaBulkhead bulkhead = bulkhead(2, 1);
+        AdaptiveConcurrencyLimiter limiter = limiter(bulkhead, true, 1, 8);
+
+        limiter.onSuccess(MODEL, FAST, 100);
+        limiter.onSuccess(MODEL, FAST, 100);
+
+        assertThat(limit(bulkhead)).isEqualTo(2);
+    }
+
+    @Test
+    void increasesStopAtTheMaximum() {
+        OllamaBulkhead bulkhead = bulkhead(2, 1);
+        AdaptiveConcurrencyLimiter limiter = limiter(bulkhead, true, 1, 3);
+
+        // every window is far more productive than the one before, so only the ceiling can stop the climb
+        long tokens = 1;
+        for (int window = 0; window < 4; window++) {
+            saturatedWindow(bulkhead, limiter, tokens);
+            tokens *= 1_000_000;
+        }
+
+        assertThat(limit(bulkhead)).isEqualTo(3);
+    }
+
+    @Test
+    void overloadBacksOffMultiplicativelyDownToTheMinimum() {
+        OllamaBulkhead bulkhead = bulkhead(8, 1);
+        AdaptiveConcurrencyLimiter limiter = limiter(bulkhead, true, 2, 8);
+
+        limiter.onOverload(MODEL);
+        assertThat(limit(bulkhead)).isEqualTo(6);
+        limiter.onOverload(MODEL);
+        assertThat(limit(bulkhead)).isEqualTo(4);
+        limiter.onOverload(MODEL);
+        assertThat(limit(bulkhead)).isEqualTo(3);
+        limiter.onOverload(MODEL);
+        assertThat(limit(bulkhead)).isEqualTo(2);
+        limiter.onOverload(MODEL);
+        assertThat(limit(bulkhead)).isEqualTo(2);
+    }
+
+    @Test
+    void latencyNearTheReadTimeoutBacksOffEvenWhenSaturated() {
+        OllamaBulkhead bulkhead = bulkhead(4, 1);
+        // read timeout 4 s: the ceiling is 3 s
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(bulkhead, true, 1, 8, 2, 0.75, 0.05, 4);
+        saturate(bulkhead);
+
+        limiter.onSuccess(MODEL, TimeUnit.SECONDS.toNanos(5), 100);
+        limiter.onSuccess(MODEL, TimeUnit.SECONDS.toNanos(5), 100);
+
+        assertThat(limit(bulkhead)).isEqualTo(3);
+    }
+
+    @Test
+    void disabledLimiterOnlyMeasures() {
+        OllamaBulkhead bulkhead = bulkhead(2, 1);
+        AdaptiveConcurrencyLimiter limiter = limiter(bulkhead, false, 1, 8);
+
+        saturatedWindow(bulkhead, limiter, 100);
+        limiter.onOverload(MODEL);
+
+        assertThat(limit(bulkhead)).isEqualTo(2);
+        assertThat(limiter.getStats()).containsEntry("adaptive", false);
+    }
+
+    @Test
+    void saturationIsJudgedAgainstTheCapacityOfAllHealthyEndpoints() {
+        OllamaBulkhead bulkhead = bulkhead(2, 2);
+        AdaptiveConcurrencyLimiter limiter = limiter(bulkhead, true, 1, 8);
+        ModelBulkhead modelBulkhead = bulkhead.bulkheadFor(MODEL);
+        // two calls in flight fill one endpoint's share, not the pool's
+        modelBulkhead.acquire(FAST, 10);
+        modelBulkhead.acquire(FAST, 10);
+
+        limiter.onSuccess(MODEL, FAST, 100);
+        limiter.onSuccess(MODEL, FAST, 100);
+        assertThat(limit(bulkhead)).isEqualTo(2);
+
+        saturatedWindow(bulkhead, limiter, 100);
+        assertThat(limit(bulkhead)).isEqualTo(3);
+        assertThat(modelBulkhead.getCapacity()).isEqualTo(6);
+    }
+
+    private static OllamaBulkhead bulkhead(int maxConcurrent, int endpoints) {
+        String[] urls = new String[endpoints];
+        for (int i = 0; i < endpoints; i++) {
+            urls[i] = "http://127.0.0.1:" + (1 + i);
+        }
+        OllamaEndpointPool pool = new OllamaEndpointPool(urls, 3, 100, new RestTemplateBuilder());
+        return new OllamaBulkhead(pool, maxConcurrent, 100, 1);
+    }
+
+    // window size 2, so every second sample closes a window
+    private static AdaptiveConcurrencyLimiter limiter(OllamaBulkhead bulkhead, boolean enabled, int minLimit, int maxLimit) {
+        return new AdaptiveConcurrencyLimiter(bulkhead, enabled, minLimit, maxLimit, 2, 0.75, 0.05, 120);
+    }
+
+    private static void saturatedWindow(OllamaBulkhead bulkhead, AdaptiveConcurrencyLimiter limiter, long tokens) {
+        saturate(bulkhead);
+        limiter.onSuccess(MODEL, FAST, tokens);
+        limiter.onSuccess(MODEL, FAST, tokens);
+    }
+
+    // holds permits until the model's bulkhead is full, the way concurrent calls would
+    private static void saturate(OllamaBulkhead bulkhead) {
+        ModelBulkhead modelBulkhead = bulkhead.bulkheadFor(MODEL);
+        while (modelBulkhead.getInFlight() < modelBulkhead.getCapacity()) {
+            modelBulkhead.acquire(FAST, 10);
+        }
+    }
+
+    private static int limit(OllamaBulkhead bulkhead) {
+        return bulkhead.bulkheadFor(MODEL).getLimit();
+    }
+}
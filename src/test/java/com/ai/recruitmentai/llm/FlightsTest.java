@@ -0,0 +1,60 @@
+package com.ai.recruitmentai.llm;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class FlightsTest {
+
+    @Test
+    void followersAreReleasedWhenTheLeaderThrowsAnError() throws Exception {
+        Flights<String> flights = new Flights<>();
+        CountDownLatch leaderStarted = new CountDownLatch(1);
+        CountDownLatch releaseLeader = new CountDownLatch(1);
+        CompletableFuture<String> leader = CompletableFuture.supplyAsync(() -> flights.execute("key", Optional::empty, () -> {
+            leaderStarted.countDown();
+            await(releaseLeader);
+            throw new OutOfMemoryError("boom");
+        }));
+        assertThat(leaderStarted.await(5, TimeUnit.SECONDS)).isTrue();
+        CompletableFuture<String> follower = CompletableFuture.supplyAsync(() -> flights.execute("key", Optional::empty, () -> "not the leader"));
+        while (flights.getCoalesced() == 0) {
+            Thread.onSpinWait();
+        }
+        releaseLeader.countDown();
+
+        assertThatThrownBy(() -> follower.get(5, TimeUnit.SECONDS)).hasRootCauseInstanceOf(OutOfMemoryError.class);
+        assertThatThrownBy(() -> leader.get(5, TimeUnit.SECONDS)).hasRootCauseInstanceOf(OutOfMemoryError.class);
+        assertThat(flights.size()).isZero();
+    }
+
+    @Test
+    void storedResultFoundInsideTheFlightSkipsTheCall() {
+        Flights<String> flights = new Flights<>();
+        AtomicInteger calls = new AtomicInteger();
+
+        String result = flights.execute("key", () -> Optional.of("stored"), () -> {
+            calls.incrementAndGet();
+            return "fresh";
+        });
+
+        assertThat(result).isEqualTo("stored");
+        assertThat(calls).hasValue(0);
+        assertThat(flights.getLeaders()).isZero();
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
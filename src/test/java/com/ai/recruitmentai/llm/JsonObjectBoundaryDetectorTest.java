@@ -0,0 +1,65 @@
+package com.ai.recruitmentai.llm;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class JsonObjectBoundaryDetectorTest {
+
+    private static final String TRICKY = "{\"name\":\"a } b { c\",\"quote\":\"say \\\"}\\\" twice\",\"path\":\"C:\\\\\","
+            + "\"skills\":[\"[x]\",{\"level\":\"]\"}],\"nested\":{\"deeper\":{\"list\":[[1,2],[]]}}}";
+
+    @Test
+    void textBeforeTheFirstBraceIsSkipped() {
+        String output = "Sure, here it is:\n```json\n{\"a\":1}\n```";
+
+        assertThat(new JsonObjectBoundaryDetector().feed(output)).isEqualTo(output.indexOf('}'));
+    }
+
+    @Test
+    void closingBracesBeforeTheObjectStartsAreIgnored() {
+        String output = "} ] {\"a\":1}";
+
+        assertThat(new JsonObjectBoundaryDetector().feed(output)).isEqualTo(output.length() - 1);
+    }
+
+    @Test
+    void bracesAndBracketsInsideStringsAndEscapedQuotesDoNotCount() {
+        String output = TRICKY + "\ntrailing chatter }";
+
+        assertThat(new JsonObjectBoundaryDetector().feed(output)).isEqualTo(TRICKY.length() - 1);
+    }
+
+    @Test
+    void nestedObjectsAndArraysKeepTheTopLevelObjectOpen() {
+        JsonObjectBoundaryDetector detector = new JsonObjectBoundaryDetector();
+
+        assertThat(detector.feed("{\"a\":{\"b\":[1,{\"c\":[]}]}")).isEqualTo(-1);
+        assertThat(detector.feed(",\"d\":[]")).isEqualTo(-1);
+        assertThat(detector.feed("}")).isZero();
+    }
+
+    @Test
+    void chunkBoundaryAnywhereInsideATokenGivesTheSameAnswer() {
+        for (int split = 1; split < TRICKY.length(); split++) {
+            JsonObjectBoundaryDetector detector = new JsonObjectBoundaryDetector();
+
+            assertThat(detector.feed(TRICKY.substring(0, split))).as("split at %d", split).isEqualTo(-1);
+            assertThat(detector.feed(TRICKY.substring(split) + "```")).as("split at %d", split)
+                    .isEqualTo(TRICKY.length() - 1 - split);
+        }
+    }
+
+    @Test
+    void oneCharacterChunksFindTheClosingBrace() {
+        JsonObjectBoundaryDetector detector = new JsonObjectBoundaryDetector();
+        int closedAt = -1;
+        for (int i = 0; i < TRICKY.length() && closedAt < 0; i++) {
+            if (detector.feed(TRICKY.substring(i, i + 1)) == 0) {
+                closedAt = i;
+            }
+        }
+
+        assertThat(closedAt).isEqualTo(TRICKY.length() - 1);
+    }
+}
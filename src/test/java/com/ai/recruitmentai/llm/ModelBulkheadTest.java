@@ -0,0 +1,99 @@
+package com.ai.recruitmentai.llm;
+
+import com.ai.recruitmentai.exception.LlmInteractionException;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ModelBulkheadTest {
+
+    private static final long SHORT_WAIT = TimeUnit.MILLISECONDS.toNanos(50);
+
+    @Test
+    void waiterGivesUpAfterTheQueueTimeout() {
+        ModelBulkhead bulkhead = new ModelBulkhead("m", 1, () -> 1);
+        bulkhead.acquire(SHORT_WAIT, 10);
+
+        assertThatThrownBy(() -> bulkhead.acquire(SHORT_WAIT, 10))
+                .isInstanceOf(LlmInteractionException.class)
+                .hasMessageContaining("Timed out");
+        assertThat(bulkhead.getInFlight()).isEqualTo(1);
+        assertThat(bulkhead.stats()).containsEntry("timedOut", 1L).containsEntry("queued", 0);
+    }
+
+    @Test
+    void fullQueueRejectsWithoutWaiting() {
+        ModelBulkhead bulkhead = new ModelBulkhead("m", 1, () -> 1);
+        bulkhead.acquire(SHORT_WAIT, 0);
+
+        assertThatThrownBy(() -> bulkhead.acquire(TimeUnit.SECONDS.toNanos(60), 0))
+                .isInstanceOf(LlmInteractionException.class)
+                .hasMessageContaining("Too many queued");
+        assertThat(bulkhead.stats()).containsEntry("rejected", 1L);
+    }
+
+    @Test
+    void releaseHandsThePermitToAWaiter() throws Exception {
+        ModelBulkhead bulkhead = new ModelBulkhead("m", 1, () -> 1);
+        bulkhead.acquire(SHORT_WAIT, 10);
+        CompletableFuture<Void> waiter = CompletableFuture.runAsync(() -> bulkhead.acquire(TimeUnit.SECONDS.toNanos(10), 10));
+        awaitQueued(bulkhead, 1);
+
+        bulkhead.release();
+
+        waiter.get(10, TimeUnit.SECONDS);
+        assertThat(bulkhead.getInFlight()).isEqualTo(1);
+    }
+
+    @Test
+    void shrinkingTheLimitWhilePermitsAreHeldAdmitsNothingUntilEnoughAreReleased() {
+        ModelBulkhead bulkhead = new ModelBulkhead("m", 3, () -> 1);
+        for (int i = 0; i < 3; i++) {
+            bulkhead.acquire(SHORT_WAIT, 10);
+        }
+
+        bulkhead.setLimit(1);
+        assertThat(bulkhead.getInFlight()).isEqualTo(3);
+        bulkhead.release();
+        assertThatThrownBy(() -> bulkhead.acquire(SHORT_WAIT, 10)).isInstanceOf(LlmInteractionException.class);
+        bulkhead.release();
+        assertThatThrownBy(() -> bulkhead.acquire(SHORT_WAIT, 10)).isInstanceOf(LlmInteractionException.class);
+        bulkhead.release();
+
+        bulkhead.acquire(SHORT_WAIT, 10);
+        assertThat(bulkhead.getInFlight()).isEqualTo(1);
+    }
+
+    @Test
+    void capacityIsTheLimitTimesTheHealthyEndpoints() {
+        AtomicInteger endpoints = new AtomicInteger(2);
+        ModelBulkhead bulkhead = new ModelBulkhead("m", 2, endpoints::get);
+        for (int i = 0; i < 4; i++) {
+            bulkhead.acquire(SHORT_WAIT, 10);
+        }
+        assertThatThrownBy(() -> bulkhead.acquire(SHORT_WAIT, 10)).isInstanceOf(LlmInteractionException.class);
+
+        // one endpoint ejected: the survivor only gets its own share
+        endpoints.set(1);
+        bulkhead.release();
+        assertThat(bulkhead.getCapacity()).isEqualTo(2);
+        assertThatThrownBy(() -> bulkhead.acquire(SHORT_WAIT, 10)).isInstanceOf(LlmInteractionException.class);
+
+        // a pool with no healthy endpoint still keeps the capacity of one
+        endpoints.set(0);
+        assertThat(bulkhead.getCapacity()).isEqualTo(2);
+    }
+
+    private static void awaitQueued(ModelBulkhead bulkhead, int queued) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (!bulkhead.stats().get("queued").equals(queued) && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        assertThat(bulkhead.stats()).containsEntry("queued", queued);
+    }
+}
@@ -0,0 +1,129 @@
+package com.ai.recruitmentai.llm;
+
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.web.client.RestClientException;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// stub Ollama servers: /api/version always answers, /api/generate answers with a configurable status
+class OllamaEndpointPoolTest {
+
+    private final List<HttpServer> servers = new ArrayList<>();
+    private final RestTemplate client = new RestTemplate();
+
+    @AfterEach
+    void stopServers() {
+        servers.forEach(server -> server.stop(0));
+    }
+
+    @Test
+    void goodProbeOnlyHalfOpensAnEndpointWhoseGenerateKeepsFailing() throws IOException {
+        AtomicInteger generateStatus = new AtomicInteger(500);
+        String url = startStub(generateStatus);
+        OllamaEndpointPool pool = new OllamaEndpointPool(new String[]{url}, 2, 1000, new RestTemplateBuilder());
+
+        generate(pool);
+        generate(pool);
+        OllamaEndpointPool.Acquired acquired = pool.acquire();
+        OllamaEndpoint endpoint = acquired.endpoint();
+        pool.recordNeutral(acquired);
+        assertThat(endpoint.getState()).isEqualTo(OllamaEndpoint.State.EJECTED);
+
+        pool.probeEndpoints();
+        assertThat(endpoint.getState()).isEqualTo(OllamaEndpoint.State.HALF_OPEN);
+        assertThat(endpoint.isHealthy()).isFalse();
+
+        // the trial request fails, so the endpoint goes straight back out instead of flapping in
+        generate(pool);
+        assertThat(endpoint.getState()).isEqualTo(OllamaEndpoint.State.EJECTED);
+
+        generateStatus.set(200);
+        pool.probeEndpoints();
+        generate(pool);
+        assertThat(endpoint.getState()).isEqualTo(OllamaEndpoint.State.HEALTHY);
+    }
+
+    @Test
+    void halfOpenEndpointGetsOneTrialWhileTheHealthyOneTakesTheRest() throws IOException {
+        String good = startStub(new AtomicInteger(200));
+        String bad = startStub(new AtomicInteger(500));
+        OllamaEndpointPool pool = new OllamaEndpointPool(new String[]{good, bad}, 1, 1000, new RestTemplateBuilder());
+        OllamaEndpoint badEndpoint;
+        do {
+            badEndpoint = generate(pool);
+        } while (!badEndpoint.getBaseUrl().equals(bad));
+        assertThat(badEndpoint.getState()).isEqualTo(OllamaEndpoint.State.EJECTED);
+
+        pool.probeEndpoints();
+        OllamaEndpointPool.Acquired trial = pool.acquire();
+        OllamaEndpointPool.Acquired next = pool.acquire();
+        OllamaEndpointPool.Acquired another = pool.acquire();
+
+        assertThat(trial.endpoint().getBaseUrl()).isEqualTo(bad);
+        assertThat(trial.trialToken()).isNotZero();
+        assertThat(next.endpoint().getBaseUrl()).isEqualTo(good);
+        assertThat(another.endpoint().getBaseUrl()).isEqualTo(good);
+        assertThat(pool.healthyCount()).isEqualTo(1);
+        pool.recordFailure(trial, "still failing");
+        assertThat(badEndpoint.getState()).isEqualTo(OllamaEndpoint.State.EJECTED);
+    }
+
+    @Test
+    void neutralOutcomeOfAnotherRequestDoesNotReleaseTheTrial() throws IOException {
+        String bad = startStub(new AtomicInteger(500));
+        OllamaEndpointPool pool = new OllamaEndpointPool(new String[]{bad}, 1, 1000, new RestTemplateBuilder());
+        OllamaEndpointPool.Acquired regular = pool.acquire();
+        generate(pool);
+        pool.probeEndpoints();
+
+        OllamaEndpointPool.Acquired trial = pool.acquire();
+        assertThat(trial.trialToken()).isNotZero();
+        // a request routed before the ejection finishes without a verdict: the trial is still held, so the next call is not a second trial
+        pool.recordNeutral(regular);
+        assertThat(pool.acquire().trialToken()).isZero();
+
+        pool.recordNeutral(trial);
+        assertThat(trial.endpoint().getState()).isEqualTo(OllamaEndpoint.State.HALF_OPEN);
+        assertThat(pool.acquire().trialToken()).isNotZero();
+    }
+
+    // one routed call, reported to the pool the way OllamaClient does
+    private OllamaEndpoint generate(OllamaEndpointPool pool) {
+        OllamaEndpointPool.Acquired acquired = pool.acquire();
+        try {
+            client.postForObject(acquired.endpoint().url("/api/generate"), "{}", String.class);
+            pool.recordSuccess(acquired, 1_000_000);
+        } catch (RestClientException e) {
+            pool.recordFailure(acquired, e.getMessage());
+        }
+        return acquired.endpoint();
+    }
+
+    private String startStub(AtomicInteger generateStatus) throws IOException {
+        HttpServer server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/api/version", exchange -> respond(exchange, 200, "{\"version\":\"stub\"}"));
+        server.createContext("/api/generate", exchange -> respond(exchange, generateStatus.get(), "{\"response\":\"ok\",\"done\":true}"));
+        server.start();
+        servers.add(server);
+        return "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+
+    private static void respond(com.sun.net.httpserver.HttpExchange exchange, int status, String body) throws IOException {
+        exchange.getRequestBody().readAllBytes();
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.sendResponseHeaders(status, bytes.length);
+        exchange.getResponseBody().write(bytes);
+        exchange.close();
+    }
+}
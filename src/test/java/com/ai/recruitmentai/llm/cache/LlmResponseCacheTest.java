@@ -0,0 +1,150 @@
+package com.ai.recruitmentai.llm.cache;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// the memory tier is sized 0 in most tests so every hit has to come from the segment files
+class LlmResponseCacheTest {
+
+    @TempDir
+    Path directory;
+
+    private final List<LlmResponseCache> opened = new ArrayList<>();
+
+    @AfterEach
+    void closeCaches() {
+        opened.forEach(LlmResponseCache::closeSegments);
+    }
+
+    @Test
+    void entriesSurviveARestart() {
+        LlmResponseCache cache = open(0, 1 << 20, 1 << 16);
+        cache.put("k1", "first answer");
+        cache.put("k2", "second answer");
+        cache.put("k1", "newer first answer");
+        cache.closeSegments();
+
+        LlmResponseCache reopened = open(0, 1 << 20, 1 << 16);
+
+        assertThat(reopened.get("k1")).contains("newer first answer");
+        assertThat(reopened.get("k2")).contains("second answer");
+        assertThat(reopened.get("k3")).isEmpty();
+        assertThat(reopened.getStats()).containsEntry("diskHits", 2L).containsEntry("misses", 1L);
+    }
+
+    @Test
+    void tornTailIsTruncatedOnOpenAndAppendsContinueAfterIt() throws IOException {
+        LlmResponseCache cache = open(0, 1 << 20, 1 << 16);
+        cache.put("k1", "kept");
+        long intactBytes = Files.size(onlySegment());
+        cache.put("k2", "torn by a crash");
+        cache.closeSegments();
+        Path segment = onlySegment();
+        byte[] bytes = Files.readAllBytes(segment);
+        Files.write(segment, Arrays.copyOf(bytes, bytes.length - 3));
+
+        LlmResponseCache reopened = open(0, 1 << 20, 1 << 16);
+
+        assertThat(Files.size(segment)).isEqualTo(intactBytes);
+        assertThat(reopened.get("k1")).contains("kept");
+        assertThat(reopened.get("k2")).isEmpty();
+        reopened.put("k3", "written after recovery");
+        reopened.closeSegments();
+        assertThat(open(0, 1 << 20, 1 << 16).get("k3")).contains("written after recovery");
+    }
+
+    @Test
+    void recordFailingItsChecksumEndsTheSegment() throws IOException {
+        LlmResponseCache cache = open(0, 1 << 20, 1 << 16);
+        cache.put("k1", "kept");
+        long intactBytes = Files.size(onlySegment());
+        cache.put("k2", "flipped");
+        cache.put("k3", "after the damage");
+        cache.closeSegments();
+        Path segment = onlySegment();
+        byte[] bytes = Files.readAllBytes(segment);
+        // last byte of k2's value: its header still parses, only the CRC no longer matches
+        int k2End = (int) intactBytes + 16 + "k2".length() + "flipped".length();
+        bytes[k2End - 1] ^= 0x20;
+        Files.write(segment, bytes);
+
+        LlmResponseCache reopened = open(0, 1 << 20, 1 << 16);
+
+        assertThat(Files.size(segment)).isEqualTo(intactBytes);
+        assertThat(reopened.get("k1")).contains("kept");
+        assertThat(reopened.get("k2")).isEmpty();
+        assertThat(reopened.get("k3")).isEmpty();
+    }
+
+    @Test
+    void oldestWholeSegmentsAreEvictedOnceTheDiskBudgetIsExceeded() throws IOException {
+        String value = "v".repeat(100);
+        long recordBytes = 16 + 2 + value.length();
+        // a 1-byte segment size starts a new segment for every record; the budget holds two and a half of them
+        LlmResponseCache cache = open(0, recordBytes * 5 / 2, 1);
+        for (int i = 1; i <= 4; i++) {
+            cache.put("k" + i, value);
+        }
+
+        assertThat(cache.get("k1")).isEmpty();
+        assertThat(cache.get("k2")).isEmpty();
+        assertThat(cache.get("k3")).contains(value);
+        assertThat(cache.get("k4")).contains(value);
+        assertThat(cache.getStats()).containsEntry("evictedEntries", 2L).containsEntry("segments", 2);
+        assertThat(segmentFiles()).hasSize(2);
+    }
+
+    @Test
+    void memoryTierAnswersWithoutTouchingTheDisk() {
+        LlmResponseCache cache = open(16, 1 << 20, 1 << 16);
+        cache.put("k1", "answer");
+
+        assertThat(cache.get("k1")).contains("answer");
+        assertThat(cache.getStats()).containsEntry("memoryHits", 1L).containsEntry("diskHits", 0L);
+    }
+
+    @Test
+    void keySeparatesModelPromptTypeAndRequestOptions() {
+        String plain = LlmResponseCache.keyFor("llama3", "MATCHING", "prompt");
+
+        assertThat(LlmResponseCache.keyFor("llama3", "MATCHING", "", "prompt")).isEqualTo(plain);
+        assertThat(LlmResponseCache.keyFor("llama3", "MATCHING", "format=json", "prompt")).isNotEqualTo(plain);
+        assertThat(LlmResponseCache.keyFor("llama3", "MATCHING", "format=json", "prompt"))
+                .isNotEqualTo(LlmResponseCache.keyFor("llama3", "MATCHING", "format=json;temperature=0.2", "prompt"));
+        assertThat(LlmResponseCache.keyFor("mistral", "MATCHING", "prompt")).isNotEqualTo(plain);
+        assertThat(LlmResponseCache.keyFor("llama3", "CV_PARSING", "prompt")).isNotEqualTo(plain);
+        // the separators keep field boundaries: moving text from one field into the next changes the key
+        assertThat(LlmResponseCache.keyFor("llama3", "MATCHING", "a", "b"))
+                .isNotEqualTo(LlmResponseCache.keyFor("llama3", "MATCHINGa", "", "b"));
+    }
+
+    private LlmResponseCache open(int memoryEntries, long maxDiskBytes, long segmentBytes) {
+        LlmResponseCache cache = new LlmResponseCache(true, directory.toString(), memoryEntries, maxDiskBytes, segmentBytes);
+        cache.init();
+        opened.add(cache);
+        return cache;
+    }
+
+    private Path onlySegment() throws IOException {
+        List<Path> files = segmentFiles();
+        assertThat(files).hasSize(1);
+        return files.get(0);
+    }
+
+    private List<Path> segmentFiles() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(file -> file.getFileName().toString().endsWith(".log")).toList();
+        }
+    }
+}
@@ -0,0 +1,164 @@
+package com.ai.recruitmentai.service;
+
+import com.ai.recruitmentai.RecruitmentAiApplication;
+import com.ai.recruitmentai.service.MatchChunkQueue.ChunkClaim;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+// two application instances on the PostgreSQL database from application.properties, as in a cluster deployment; skipped when nothing
+// listens on localhost:5432. The chunk pollers are slowed down so only the test claims, and the test's chunks use negative run IDs
+class ClusterLeaseIntegrationTest {
+
+    private static final long JOB_ID = -1L;
+    private static final AtomicLong RUN_IDS = new AtomicLong(-System.currentTimeMillis());
+    private static final List<Long> publishedRuns = new ArrayList<>();
+    private static ConfigurableApplicationContext nodeA;
+    private static ConfigurableApplicationContext nodeB;
+
+    @BeforeAll
+    static void startNodes() {
+        assumeTrue(postgresListening(), "no PostgreSQL on localhost:5432");
+        nodeA = startNode("it-node-a");
+        nodeB = startNode("it-node-b");
+    }
+
+    @AfterAll
+    static void stopNodes() {
+        if (nodeA != null) {
+            JdbcTemplate jdbc = nodeA.getBean(JdbcTemplate.class);
+            publishedRuns.forEach(runId -> jdbc.update("delete from match_chunk where run_id = ?", runId));
+            nodeA.close();
+        }
+        if (nodeB != null) {
+            nodeB.close();
+        }
+    }
+
+    @Test
+    void concurrentClaimsFromTwoNodesAreDisjoint() throws Exception {
+        long runId = publish(40);
+        CountDownLatch start = new CountDownLatch(1);
+        CompletableFuture<List<ChunkClaim>> claimedByA = CompletableFuture.supplyAsync(() -> claimRun(nodeA, runId, start));
+        CompletableFuture<List<ChunkClaim>> claimedByB = CompletableFuture.supplyAsync(() -> claimRun(nodeB, runId, start));
+        start.countDown();
+
+        Set<Long> chunksOfA = chunkIds(claimedByA.get());
+        Set<Long> chunksOfB = chunkIds(claimedByB.get());
+        assertThat(chunksOfA).doesNotContainAnyElementsOf(chunksOfB);
+        assertThat(chunksOfA.size() + chunksOfB.size()).isEqualTo(40);
+        assertThat(jdbc().queryForObject("select count(*) from match_chunk where run_id = ? and lease_owner = 'it-node-a'", Long.class, runId))
+                .isEqualTo(chunksOfA.size());
+        assertThat(jdbc().queryForObject("select count(*) from match_chunk where run_id = ? and lease_owner = 'it-node-b'", Long.class, runId))
+                .isEqualTo(chunksOfB.size());
+    }
+
+    @Test
+    void expiredLeaseIsTakenOverByTheOtherNode() {
+        long runId = publish(3);
+        List<ChunkClaim> claimedByA = claimRun(nodeA, runId, null);
+        assertThat(claimedByA).hasSize(3);
+        assertThat(claimRun(nodeB, runId, null)).isEmpty();
+        // the lease was computed on the database clock: 120 s from the database's now, whatever the JVM clock says
+        assertThat(jdbc().queryForObject("select max(extract(epoch from lease_expires_at - cast(current_timestamp at time zone 'UTC' as timestamp))) "
+                + "from match_chunk where run_id = ?", Double.class, runId)).isBetween(60.0, 121.0);
+
+        jdbc().update("update match_chunk set lease_expires_at = lease_expires_at - interval '1 day' where run_id = ?", runId);
+        List<ChunkClaim> claimedByB = claimRun(nodeB, runId, null);
+
+        assertThat(chunkIds(claimedByB)).isEqualTo(chunkIds(claimedByA));
+        assertThat(jdbc().queryForList("select distinct lease_owner from match_chunk where run_id = ?", String.class, runId))
+                .containsExactly("it-node-b");
+        assertThat(jdbc().queryForList("select distinct attempts from match_chunk where run_id = ?", Integer.class, runId))
+                .containsExactly(2);
+        // the superseded owner's heartbeat must not revive its old claims
+        nodeA.getBean(MatchChunkQueue.class).extendLeases(claimedByA);
+        assertThat(jdbc().queryForList("select lease_token from match_chunk where run_id = ?", String.class, runId))
+                .containsExactlyInAnyOrderElementsOf(claimedByB.stream().map(ChunkClaim::leaseToken).toList());
+        assertThat(jdbc().queryForObject("select count(*) from match_chunk where run_id = ? and lease_owner = 'it-node-a'", Long.class, runId))
+                .isZero();
+    }
+
+    private static ConfigurableApplicationContext startNode(String nodeId) {
+        return new SpringApplicationBuilder(RecruitmentAiApplication.class).run(
+                "--app.cluster.enabled=true",
+                "--app.cluster.node-id=" + nodeId,
+                "--server.port=0",
+                "--app.cluster.match-chunk-size=1",
+                "--app.cluster.match-poll-interval-ms=3600000",
+                "--app.parsing.outbox.poll-interval-ms=3600000",
+                "--ollama.endpoints.health-interval-ms=3600000",
+                "--app.ingestion.watch.enabled=false",
+                "--app.vector-index.enabled=false",
+                "--app.llm-cache.enabled=false",
+                "--spring.jpa.show-sql=false");
+    }
+
+    private static long publish(int candidates) {
+        long runId = RUN_IDS.decrementAndGet();
+        synchronized (publishedRuns) {
+            publishedRuns.add(runId);
+        }
+        List<Long> candidateIds = LongStream.rangeClosed(1, candidates).boxed().toList();
+        nodeA.getBean(MatchChunkQueue.class).publish(runId, JOB_ID, candidateIds, false);
+        return runId;
+    }
+
+    // claims in small batches until nothing is due; claims of other runs in a shared database are ignored
+    private static List<ChunkClaim> claimRun(ConfigurableApplicationContext node, long runId, CountDownLatch start) {
+        MatchChunkQueue queue = node.getBean(MatchChunkQueue.class);
+        try {
+            if (start != null) {
+                start.await();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+        List<ChunkClaim> claimed = new ArrayList<>();
+        while (true) {
+            List<ChunkClaim> batch = queue.claimDue(3);
+            if (batch.isEmpty()) {
+                return claimed;
+            }
+            batch.stream().filter(claim -> claim.runId() == runId).forEach(claimed::add);
+        }
+    }
+
+    private static Set<Long> chunkIds(List<ChunkClaim> claims) {
+        Set<Long> ids = new HashSet<>();
+        claims.forEach(claim -> ids.add(claim.chunkId()));
+        return ids;
+    }
+
+    private static JdbcTemplate jdbc() {
+        return nodeA.getBean(JdbcTemplate.class);
+    }
+
+    private static boolean postgresListening() {
+        try (Socket socket = new Socket()) {
+            socket.connect(new InetSocketAddress("localhost", 5432), 1000);
+            return true;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+}
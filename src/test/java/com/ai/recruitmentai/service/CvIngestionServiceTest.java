@@ -0,0 +1,167 @@
+package com.ai.recruitmentai.service;
+
+import com.ai.recruitmentai.dto.BulkIngestionResultDto;
+import com.ai.recruitmentai.dto.BulkIngestionResultDto.FileResult;
+import com.ai.recruitmentai.entity.Candidate;
+import com.ai.recruitmentai.util.FileStorageService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mockito;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.Mockito.when;
+
+// the streamed ZIP path against real file storage; registration and the parsing outbox are stubbed to accept everything
+class CvIngestionServiceTest {
+
+    private static final int MAX_FILE_BYTES = 1024;
+
+    @TempDir
+    Path directory;
+
+    private final List<Map<String, Path>> registeredGroups = new ArrayList<>();
+    private CvIngestionService service;
+
+    @BeforeEach
+    void setUp() {
+        FileStorageService storage = new FileStorageService(directory.toString());
+        storage.init();
+        CandidateService candidateService = Mockito.mock(CandidateService.class);
+        AtomicLong ids = new AtomicLong();
+        when(candidateService.registerStoredCvs(anyMap())).thenAnswer(invocation -> {
+            Map<String, Path> paths = new LinkedHashMap<>(invocation.getArgument(0));
+            registeredGroups.add(paths);
+            Map<String, Candidate> registered = new LinkedHashMap<>();
+            paths.keySet().forEach(candidateIdFromFile -> {
+                Candidate candidate = new Candidate();
+                candidate.setId(ids.incrementAndGet());
+                candidate.setCandidateIdFromFile(candidateIdFromFile);
+                registered.put(candidateIdFromFile, candidate);
+            });
+            return registered;
+        });
+        CvParsingPipeline parsingPipeline = Mockito.mock(CvParsingPipeline.class);
+        when(parsingPipeline.submitAll(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+        service = new CvIngestionService(candidateService, parsingPipeline, storage, MAX_FILE_BYTES, 100);
+    }
+
+    @Test
+    void macOsMetadataDotFilesAndDirectoriesAreSkippedWithoutAManifestLine() throws IOException {
+        byte[] zip = zip(Map.of(
+                "__MACOSX/cvs/._C001.pdf", pdf(10),
+                "cvs/.DS_Store", pdf(10),
+                "cvs/", new byte[0],
+                "cvs/C001.pdf", pdf(10)));
+
+        BulkIngestionResultDto result = service.ingestZip(new ByteArrayInputStream(zip));
+
+        assertThat(result.getReceived()).isEqualTo(1);
+        assertThat(result.getFiles()).extracting(FileResult::getFileName).containsExactly("C001.pdf");
+        assertThat(result.getQueued()).isEqualTo(1);
+        assertThat(storedFiles()).containsExactly("C001.pdf");
+    }
+
+    @Test
+    void entriesThatAreNotPdfsAreRejectedAsNotRetryable() throws IOException {
+        byte[] zip = zip(Map.of(
+                "C001.pdf", "just text, renamed".getBytes(StandardCharsets.UTF_8),
+                "C002.docx", pdf(10),
+                "resume.pdf", pdf(10)));
+
+        BulkIngestionResultDto result = service.ingestZip(new ByteArrayInputStream(zip));
+
+        assertThat(result.getRejected()).isEqualTo(3);
+        assertThat(result.getFiles()).allSatisfy(file -> {
+            assertThat(file.getStatus()).isEqualTo("REJECTED");
+            assertThat(file.isRetryable()).isFalse();
+        });
+        assertThat(result.getFiles()).filteredOn(file -> file.getFileName().equals("C001.pdf"))
+                .singleElement().extracting(FileResult::getMessage).isEqualTo("File content is not a PDF.");
+        assertThat(storedFiles()).isEmpty();
+        assertThat(registeredGroups).isEmpty();
+    }
+
+    @Test
+    void oversizeEntryIsRejectedAndTheRestOfTheArchiveIsStillIngested() throws IOException {
+        Map<String, byte[]> entries = new LinkedHashMap<>();
+        entries.put("C001.pdf", pdf(10));
+        entries.put("C002.pdf", pdf(MAX_FILE_BYTES * 3));
+        entries.put("C003.pdf", pdf(10));
+
+        BulkIngestionResultDto result = service.ingestZip(new ByteArrayInputStream(zip(entries)));
+
+        assertThat(result.getFiles()).extracting(FileResult::getFileName, FileResult::getStatus)
+                .containsExactly(
+                        tuple("C001.pdf", "QUEUED"),
+                        tuple("C002.pdf", "REJECTED"),
+                        tuple("C003.pdf", "QUEUED"));
+        assertThat(result.getFiles().get(1).isRetryable()).isFalse();
+        assertThat(result.getQueued()).isEqualTo(2);
+        // neither the oversize file nor its temporary part is left behind
+        assertThat(storedFiles()).containsExactlyInAnyOrder("C001.pdf", "C003.pdf");
+    }
+
+    @Test
+    void laterFileWithTheSameCandidateIdSupersedesTheEarlierOneAndItsStoredCopy() throws IOException {
+        Map<String, byte[]> entries = new LinkedHashMap<>();
+        entries.put("2023/C001.pdf", pdf(10));
+        entries.put("C002.pdf", pdf(10));
+        entries.put("2024/c001.v2.pdf", pdf(20));
+
+        BulkIngestionResultDto result = service.ingestZip(new ByteArrayInputStream(zip(entries)));
+
+        assertThat(result.getFiles()).extracting(FileResult::getFileName, FileResult::getStatus)
+                .containsExactly(
+                        tuple("C001.pdf", "SUPERSEDED"),
+                        tuple("C002.pdf", "QUEUED"),
+                        tuple("c001.v2.pdf", "QUEUED"));
+        assertThat(result.getQueued()).isEqualTo(2);
+        assertThat(registeredGroups).singleElement()
+                .satisfies(group -> assertThat(group).containsEntry("C001", directory.resolve("c001.v2.pdf")));
+        assertThat(storedFiles()).containsExactlyInAnyOrder("C002.pdf", "c001.v2.pdf");
+    }
+
+    private List<String> storedFiles() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.map(file -> file.getFileName().toString()).toList();
+        }
+    }
+
+    private static byte[] pdf(int size) {
+        byte[] bytes = new byte[size];
+        byte[] magic = "%PDF-".getBytes(StandardCharsets.US_ASCII);
+        System.arraycopy(magic, 0, bytes, 0, Math.min(magic.length, size));
+        return bytes;
+    }
+
+    private static byte[] zip(Map<String, byte[]> entries) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ZipOutputStream zip = new ZipOutputStream(bytes)) {
+            for (Map.Entry<String, byte[]> entry : entries.entrySet()) {
+                zip.putNextEntry(new ZipEntry(entry.getKey()));
+                zip.write(entry.getValue());
+                zip.closeEntry();
+            }
+        }
+        return bytes.toByteArray();
+    }
+}
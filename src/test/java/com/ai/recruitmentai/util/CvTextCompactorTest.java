@@ -0,0 +1,73 @@
+package com.ai.recruitmentai.util;
+
+import com.ai.recruitmentai.util.CvTextCompactor.CompactionResult;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CvTextCompactorTest {
+
+    private static final String HEADER = "Jane Doe | jane.doe@example.com | +44 20 7946 0000";
+
+    @Test
+    void dropsRepeatedHeadersAndPageFootersButKeepsTheFirstHeader() {
+        CompactionResult result = CvTextCompactor.compact(List.of(
+                page("Page 1 of 3", "SUMMARY", "Backend engineer with ten years of Java.", "Likes distributed systems."),
+                page("Page 2 of 3", "EXPERIENCE", "Senior Engineer, Acme Ltd", "Built the billing platform."),
+                page("Page 3 of 3", "EDUCATION", "BSc Computer Science, University of Leeds", "First class honours.")), 0);
+
+        assertThat(result.text()).startsWith(HEADER);
+        assertThat(occurrences(result.text(), HEADER)).isEqualTo(1);
+        assertThat(result.text()).doesNotContain("Page 1 of 3", "Page 2 of 3", "Page 3 of 3");
+        assertThat(result.text()).contains("Built the billing platform.", "First class honours.");
+    }
+
+    @Test
+    void repeatedDateFooterDoesNotDeleteExperienceDatesInTheBody() {
+        String footer = "2019 - 2021";
+        CompactionResult result = CvTextCompactor.compact(List.of(
+                String.join("\n", HEADER, "EXPERIENCE", "Acme Ltd", "Lead Engineer", "Led a team of six.", "2021 - 2023",
+                        "Globex Corp", "Engineer", "Owned the search service.", "2017 - 2019", "Initech", "Developer", "Shipped the API.", footer),
+                String.join("\n", HEADER, "PROJECTS", "Payments gateway", "Rewrote settlement batching.", "2019 - 2021",
+                        "Open source", "Maintainer of a JSON library.", "2015 - 2017", "Mentoring", "Ran the graduate scheme.", footer),
+                String.join("\n", HEADER, "EDUCATION", "BSc Computer Science", "University of Leeds", "2011 - 2014",
+                        "A levels", "Maths, Physics, Chemistry", "2009 - 2011", "Prizes", "Dean's list.", footer)), 0);
+
+        assertThat(result.text()).contains("2021 - 2023", "2017 - 2019", "2015 - 2017", "2011 - 2014", "2009 - 2011");
+        // the copy inside page 2's body is content, the footer copies are not
+        assertThat(occurrences(result.text(), footer)).isEqualTo(2);
+    }
+
+    @Test
+    void singlePageCvIsNotTreatedAsBoilerplate() {
+        CompactionResult result = CvTextCompactor.compact(List.of(page("1", "SKILLS", "Java, SQL", "Kafka")), 0);
+
+        assertThat(result.text()).contains(HEADER, "SKILLS", "Java, SQL", "Kafka");
+        assertThat(result.text()).doesNotContain("\n1\n");
+    }
+
+    @Test
+    void truncationKeepsHigherPrioritySectionsFirst() {
+        String hobbies = "HOBBIES\n" + "Hiking in the hills every weekend.\n".repeat(40);
+        String skills = "SKILLS\nJava, Spring, PostgreSQL, Kafka";
+        CompactionResult result = CvTextCompactor.compact(List.of(HEADER + "\n" + hobbies + skills), 40);
+
+        assertThat(result.truncated()).isTrue();
+        assertThat(result.text()).contains(HEADER, "Java, Spring, PostgreSQL, Kafka");
+        assertThat(result.compactedTokens()).isLessThanOrEqualTo(40);
+    }
+
+    private static String page(String footer, String... body) {
+        return HEADER + "\n\n" + String.join("\n", body) + "\n\n" + footer;
+    }
+
+    private static int occurrences(String text, String needle) {
+        int count = 0;
+        for (int index = text.indexOf(needle); index >= 0; index = text.indexOf(needle, index + 1)) {
+            count++;
+        }
+        return count;
+    }
+}
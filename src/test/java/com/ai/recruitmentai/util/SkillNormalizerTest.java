@@ -0,0 +1,56 @@
+package com.ai.recruitmentai.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SkillNormalizerTest {
+
+    @Test
+    void spellingVariantsShareOneKey() {
+        assertThat(SkillNormalizer.normalize("Spring Boot")).isEqualTo("springboot");
+        assertThat(SkillNormalizer.normalize("spring-boot")).isEqualTo("springboot");
+        assertThat(SkillNormalizer.normalize("SpringBoot")).isEqualTo("springboot");
+        assertThat(SkillNormalizer.normalize("Node.js")).isEqualTo("nodejs");
+        assertThat(SkillNormalizer.normalize("node")).isEqualTo("nodejs");
+    }
+
+    @Test
+    void aliasesAndSymbolsAreKept() {
+        assertThat(SkillNormalizer.normalize("Postgres")).isEqualTo("postgresql");
+        assertThat(SkillNormalizer.normalize("K8s")).isEqualTo("kubernetes");
+        assertThat(SkillNormalizer.normalize("C#")).isEqualTo("c#");
+        assertThat(SkillNormalizer.normalize("C Sharp")).isEqualTo("c#");
+        assertThat(SkillNormalizer.normalize("C++")).isEqualTo("c++");
+        assertThat(SkillNormalizer.normalize(".NET")).isEqualTo(".net");
+        assertThat(SkillNormalizer.normalize("ASP.NET")).isEqualTo(".net");
+        assertThat(SkillNormalizer.normalize("CI/CD")).isEqualTo("ci/cd");
+    }
+
+    @Test
+    void versionsAndParenthesesAreDropped() {
+        assertThat(SkillNormalizer.normalize("Java 17")).isEqualTo("java");
+        assertThat(SkillNormalizer.normalize("Python v3.11")).isEqualTo("python");
+        assertThat(SkillNormalizer.normalize("Angular 2+")).isEqualTo("angular");
+        assertThat(SkillNormalizer.normalize("AWS (EC2, S3)")).isEqualTo("aws");
+    }
+
+    @Test
+    void blankOverlongAndNullEntriesHaveNoKey() {
+        assertThat(SkillNormalizer.normalize(null)).isNull();
+        assertThat(SkillNormalizer.normalize("   ")).isNull();
+        assertThat(SkillNormalizer.normalize("---")).isNull();
+        assertThat(SkillNormalizer.normalize("x".repeat(61))).isNull();
+    }
+
+    @Test
+    void listEntriesAreSplitAndDeduplicatedInInputOrder() {
+        List<String> keys = SkillNormalizer.normalizeAll(Arrays.asList(
+                "Languages: Java, Python; TypeScript", "java 11", null, "Databases: Postgres | MongoDB", "JS"));
+        assertThat(keys).containsExactly("java", "python", "typescript", "postgresql", "mongodb", "javascript");
+        assertThat(SkillNormalizer.normalizeAll(null)).isEmpty();
+    }
+}